@@ -0,0 +1,15 @@
+package com.example.SocialStream.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class AutocompleteSuggestionDTO {
+    private String text;
+    private Long videoId; // null when the suggestion is a popular query
+}
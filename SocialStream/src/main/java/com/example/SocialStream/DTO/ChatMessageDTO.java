@@ -5,6 +5,7 @@ import com.example.SocialStream.enums.Reaction;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 public class ChatMessageDTO {
@@ -15,7 +16,8 @@ public class ChatMessageDTO {
     private String senderAvatar;
     private String message;
     private LocalDateTime sentAt;
-    private Reaction reaction;
+    private Map<Reaction, Long> reactionCounts = Map.of();
+    private Reaction myReaction; // the viewing user's own reaction, null if none
 
     public ChatMessageDTO(ChatMessage chatMessage) {
         this.id = chatMessage.getId();
@@ -25,6 +27,5 @@ public class ChatMessageDTO {
         this.senderAvatar = chatMessage.getSender().getProfilePictureUrl();
         this.message = chatMessage.getMessage();
         this.sentAt = chatMessage.getSentAt();
-        this.reaction = chatMessage.getReaction();
     }
 }
@@ -0,0 +1,18 @@
+package com.example.SocialStream.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentPageDTO {
+    private List<CommentResponseDTO> comments;
+    private Long nextCursor; // id of the last comment returned; null when there are no older comments
+    private boolean hasMore;
+}
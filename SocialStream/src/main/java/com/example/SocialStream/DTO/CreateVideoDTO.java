@@ -31,4 +31,6 @@ public class CreateVideoDTO {
     private String cast; // Comma-separated cast members
 
     private String year;
+
+    private String genre; // Comma-separated genres
 }
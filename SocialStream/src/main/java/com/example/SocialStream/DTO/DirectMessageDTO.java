@@ -3,10 +3,13 @@ package com.example.SocialStream.DTO;
 import com.example.SocialStream.entities.DirectMessage;
 import com.example.SocialStream.enums.Reaction;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
+@NoArgsConstructor
 public class DirectMessageDTO {
     private Long id;
     private Long senderId;
@@ -15,7 +18,9 @@ public class DirectMessageDTO {
     private String recipientName;
     private String message;
     private LocalDateTime timestamp;
-    private Reaction reaction;
+    private Map<Reaction, Long> reactionCounts = Map.of();
+    private Reaction myReaction; // the viewing user's own reaction, null if none
+    private Long sequence; // position in the recipient's delivery log, null in history
 
     public DirectMessageDTO(DirectMessage directMessage) {
         this.id = directMessage.getId();
@@ -25,7 +30,5 @@ public class DirectMessageDTO {
         this.recipientName = directMessage.getRecipient().getUsername();
         this.message = directMessage.getContent();
         this.timestamp = directMessage.getSendTime();
-        this.reaction = directMessage.getReaction();
-
     }
 }
@@ -0,0 +1,66 @@
+package com.example.SocialStream.DTO;
+
+import com.example.SocialStream.exceptions.InvalidOperationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Position in a newest-first feed: the (upload time, post id) of the last item already returned.
+ * Encoded for clients as "{epochMillis}_{postId}".
+ */
+@Getter
+@AllArgsConstructor
+public class FeedCursor {
+    private final long uploadedAtMillis;
+    private final long postId;
+
+    public static FeedCursor of(LocalDateTime uploadedAt, Long postId) {
+        return new FeedCursor(toMillis(uploadedAt), postId);
+    }
+
+    public static FeedCursor parse(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            int separator = cursor.indexOf('_');
+            return new FeedCursor(Long.parseLong(cursor.substring(0, separator)),
+                    Long.parseLong(cursor.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidOperationException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        return uploadedAtMillis + "_" + postId;
+    }
+
+    /**
+     * Whether an item sorts strictly after this cursor in newest-first order
+     */
+    public boolean isAfter(long itemMillis, long itemId) {
+        return itemMillis < uploadedAtMillis || (itemMillis == uploadedAtMillis && itemId < postId);
+    }
+
+    /**
+     * Start of the cursor's millisecond, for database range predicates
+     */
+    public LocalDateTime getFrom() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(uploadedAtMillis), ZoneOffset.UTC);
+    }
+
+    /**
+     * End (exclusive) of the cursor's millisecond
+     */
+    public LocalDateTime getTo() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(uploadedAtMillis + 1), ZoneOffset.UTC);
+    }
+
+    public static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
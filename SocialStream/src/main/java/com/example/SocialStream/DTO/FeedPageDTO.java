@@ -0,0 +1,18 @@
+package com.example.SocialStream.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class FeedPageDTO {
+    private List<PostResponseDTO> posts;
+    private String nextCursor; // null when there are no older posts
+    private boolean hasMore;
+}
@@ -2,15 +2,24 @@ package com.example.SocialStream.DTO;
 
 import com.example.SocialStream.entities.Friendship;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 @NoArgsConstructor
+@AllArgsConstructor
 @Getter
 public class FriendReqResponseDTO {
     private Long friendshipId;
     private Long requestSenderId;
     private String requestSenderUsername;
+    private Integer mutualFriends; // only set on suggestions
+
+    public FriendReqResponseDTO(Long friendshipId, Long requestSenderId, String requestSenderUsername){
+        this.friendshipId = friendshipId;
+        this.requestSenderId = requestSenderId;
+        this.requestSenderUsername = requestSenderUsername;
+    }
 
     public FriendReqResponseDTO(Friendship friendship){
         this.friendshipId = friendship.getId();
@@ -24,5 +24,12 @@ public class MediaDTO {
 
     }
 
+    public MediaDTO(VideoDescriptor video){
+        this.id = video.id();
+        this.title = video.title();
+        this.mediaUrl = video.mediaUrl();
+        this.thumbnailUrl = video.thumbnailUrl();
+    }
+
 
 }
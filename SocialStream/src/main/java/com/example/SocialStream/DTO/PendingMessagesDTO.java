@@ -0,0 +1,16 @@
+package com.example.SocialStream.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingMessagesDTO {
+    private List<DirectMessageDTO> messages;
+    private long latestSequence;
+    private boolean truncated; // true if the client must refetch conversation history to fill a gap
+}
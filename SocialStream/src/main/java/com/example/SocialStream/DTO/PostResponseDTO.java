@@ -20,17 +20,28 @@ public class PostResponseDTO {
     private UserDTO user;
     private MediaDTO media;
     private int likesCount;
-    private List<CommentResponseDTO> comments;
+    private int commentsCount;
+    private boolean likedByMe;
+    private List<CommentResponseDTO> comments; // latest few only; page the rest via the comments endpoint
 
-    public PostResponseDTO(Post post){
+    /**
+     * Build from a post whose author and media are already loaded, with preloaded comment previews
+     */
+    public PostResponseDTO(Post post, List<CommentResponseDTO> comments){
+        this(post, new MediaDTO(post.getMedia()), comments);
+    }
+
+    /**
+     * Build with media details taken from elsewhere, e.g. the video catalog cache
+     */
+    public PostResponseDTO(Post post, MediaDTO media, List<CommentResponseDTO> comments){
         this.id = post.getId();
         this.description = post.getDescription();
         this.uploadDate = post.getUploadedAt();
         this.user = new UserDTO(post.getUser());
-        this.media = new MediaDTO(post.getMedia());
+        this.media = media;
         this.likesCount = post.getLikesCount();
-        this.comments = post.getComments().stream()
-                .map(CommentResponseDTO::new)
-                .toList();
+        this.commentsCount = post.getCommentsCount();
+        this.comments = comments;
     }
 }
@@ -0,0 +1,21 @@
+package com.example.SocialStream.DTO;
+
+import com.example.SocialStream.enums.Reaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Change to a message's reaction counts caused by one user's reaction toggle
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReactionDeltaDTO {
+    private Long id; // message id
+    private Long userId;
+    private Reaction reaction; // reaction now held by the user, null if removed
+    private Map<Reaction, Integer> deltas;
+}
@@ -0,0 +1,15 @@
+package com.example.SocialStream.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadReceiptDTO {
+    private Long readerId;
+    private Long roomId; // null for direct messages
+    private long lastDeliveredMessageId;
+    private long lastReadMessageId;
+}
@@ -0,0 +1,23 @@
+package com.example.SocialStream.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchCacheStatsDTO {
+    private long localHits;
+    private long redisHits;
+    private long misses;
+    private double hitRatio;
+    private double avgLocalHitMicros;
+    private double avgRedisHitMicros;
+    private double avgMissMicros;
+    private long maxMissMicros;
+    private int localEntries;
+    private long catalogVersion;
+}
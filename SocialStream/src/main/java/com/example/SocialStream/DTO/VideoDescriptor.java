@@ -0,0 +1,40 @@
+package com.example.SocialStream.DTO;
+
+import com.example.SocialStream.entities.Video;
+import com.example.SocialStream.entities.VideoCatalogEntry;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable snapshot of a video's catalog fields, shared across requests by the catalog cache
+ * @param cast comma-separated, as stored
+ * @param viewCount views at the time the snapshot was loaded
+ */
+public record VideoDescriptor(
+        Long id,
+        String title,
+        String mediaUrl,
+        String thumbnailUrl,
+        int durationInSeconds,
+        LocalDateTime uploadedAt,
+        String director,
+        String year,
+        String genre,
+        BigDecimal rating,
+        String description,
+        String cast,
+        long viewCount) {
+
+    public static VideoDescriptor of(Video video) {
+        return new VideoDescriptor(video.getId(), video.getTitle(), video.getMediaurl(), video.getThumbnailurl(),
+                video.getDuration(), video.getUploadedAt(), video.getDirector(), video.getYear(), video.getGenre(),
+                video.getRating(), video.getDescription(), video.getCast(), video.getViewCount());
+    }
+
+    public static VideoDescriptor of(VideoCatalogEntry entry) {
+        return new VideoDescriptor(entry.getId(), entry.getTitle(), entry.getMediaurl(), entry.getThumbnailurl(),
+                entry.getDuration(), entry.getUploadedAt(), entry.getDirector(), entry.getYear(), entry.getGenre(),
+                entry.getRating(), entry.getDescription(), entry.getCast(), entry.getViewCount());
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.SocialStream.DTO;
+
+import com.example.SocialStream.enums.ImportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class VideoImportProgressDTO {
+    private String importId;
+    private ImportStatus status;
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private List<String> errors; // first rejected rows, "line N: reason"
+    private LocalDateTime startedAt;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+}
@@ -7,8 +7,10 @@ import java.util.List;
 import com.example.SocialStream.entities.Video;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
 public class VideoResponseDTO {
     private Long id;
     private String mediaUrl;
@@ -39,5 +41,30 @@ public class VideoResponseDTO {
 
     }
 
+    public VideoResponseDTO(VideoDescriptor video) {
+        this(video.id(), video.mediaUrl(), video.thumbnailUrl(), video.durationInSeconds(), video.title(),
+                video.uploadedAt(), video.director(), video.viewCount(), video.description(), video.rating(),
+                video.cast());
+    }
+
+    // Used by JPQL constructor projections so result lists never load Video entities
+    public VideoResponseDTO(Long id, String mediaUrl, String thumbnailUrl, int durationInSeconds, String title,
+                            LocalDateTime uploadedAt, String director, long views, String description,
+                            BigDecimal rating, String cast) {
+        this.id=id;
+        this.mediaUrl=mediaUrl;
+        this.thumbnailUrl=thumbnailUrl;
+        this.durationInSeconds=durationInSeconds;
+        this.title=title;
+        this.uploadedAt=uploadedAt;
+        this.director=director;
+        this.views=views;
+        this.description=description;
+        this.rating=rating;
+        if(cast!=null && !cast.isEmpty()){
+            this.cast=List.of(cast.split(","));
+        }
+    }
+
 
 }
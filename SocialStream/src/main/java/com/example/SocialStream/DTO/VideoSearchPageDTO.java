@@ -0,0 +1,21 @@
+package com.example.SocialStream.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class VideoSearchPageDTO {
+    private List<VideoResponseDTO> videos; // ranked by relevance
+    private int total;
+    private int page;
+    private int size;
+    private Map<String, Map<String, Integer>> facets; // facet -> value -> result count, largest first
+}
@@ -35,6 +35,7 @@ public class CustomUserDetails implements UserDetails {
         return "";
     }
     public String getEmail(){ return users.getEmail();}
+    public String getDisplayName(){ return users.getUsername();}
     public long getUserId(){
         return users.getId();
     }
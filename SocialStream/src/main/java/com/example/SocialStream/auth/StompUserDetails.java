@@ -0,0 +1,16 @@
+package com.example.SocialStream.auth;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Identity taken from the JWT at STOMP CONNECT and attached to the session principal,
+ * so per-frame handlers can resolve the sender without a database lookup.
+ * Fields are null for tokens issued before the claims were added.
+ */
+@Getter
+@AllArgsConstructor
+public class StompUserDetails {
+    private final Long userId;
+    private final String username;
+}
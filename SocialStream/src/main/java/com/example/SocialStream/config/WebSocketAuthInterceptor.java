@@ -1,5 +1,6 @@
 package com.example.SocialStream.config;
 
+import com.example.SocialStream.auth.StompUserDetails;
 import com.example.SocialStream.utils.JwtUtil;
 import io.jsonwebtoken.Claims;
 import org.springframework.messaging.Message;
@@ -58,6 +59,12 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
                         // Create authentication object
                         UsernamePasswordAuthenticationToken authentication = 
                                 new UsernamePasswordAuthenticationToken(username, null, authorities);
+
+                        // Keep id and display name on the session so frame handlers skip user lookups
+                        Number userId = claims.get("id", Number.class);
+                        authentication.setDetails(new StompUserDetails(
+                                userId != null ? userId.longValue() : null,
+                                claims.get("username", String.class)));
                         
                         // Set user in WebSocket session ONLY - do not set SecurityContext to avoid database queries
                         accessor.setUser(authentication);
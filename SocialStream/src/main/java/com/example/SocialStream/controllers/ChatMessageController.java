@@ -64,4 +64,18 @@ public class ChatMessageController {
         );
         return ResponseEntity.ok(messages);
     }
+
+    /**
+     * Get the number of unread chat messages in a room
+     * @param roomId Room ID
+     * @param userDetails Authenticated user details
+     * @return Count of messages after the user's read watermark
+     */
+    @GetMapping("/{roomId}/messages/unread-count")
+    public ResponseEntity<Long> getUnreadCount(
+            @PathVariable Long roomId,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+
+        return ResponseEntity.ok(chatMessageService.getUnreadCount(roomId, userDetails.getUserId()));
+    }
 }
@@ -3,16 +3,19 @@ package com.example.SocialStream.controllers;
 import com.example.SocialStream.DTO.DirectMessageDTO;
 import com.example.SocialStream.DTO.ReactionRequest;
 import com.example.SocialStream.DTO.SendMessageRequestDTO;
-import com.example.SocialStream.DTO.TypingIndicatorDTO;
+import com.example.SocialStream.auth.StompUserDetails;
 import com.example.SocialStream.entities.DirectMessage;
 import com.example.SocialStream.exceptions.InvalidOperationException;
-import com.example.SocialStream.repositories.FriendRepository;
 import com.example.SocialStream.repositories.UserRepository;
 import com.example.SocialStream.services.DirectMessageService;
+import com.example.SocialStream.services.ReactionAggregateService;
+import com.example.SocialStream.services.ReadReceiptService;
+import com.example.SocialStream.services.TypingIndicatorService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
@@ -24,7 +27,9 @@ public class DirectMessageWebSocketController {
 
     private final DirectMessageService directMessageService;
     private final UserRepository userRepository;
-    private final FriendRepository friendRepository;
+    private final TypingIndicatorService typingIndicatorService;
+    private final ReadReceiptService readReceiptService;
+    private final ReactionAggregateService reactionAggregateService;
     private final SimpMessagingTemplate messagingTemplate;
 
     /**
@@ -42,12 +47,10 @@ public class DirectMessageWebSocketController {
             dto.setRecipientId(recipientId);
             dto.setContent(content);
 
+            // The recipient's copy is logged and pushed by the service once the message is committed
             DirectMessageDTO message = directMessageService.sendMessage(senderId, dto);
+            typingIndicatorService.clear(senderId, recipientId);
 
-            // Broadcast to recipient
-            String recipientDestination = "/queue/" + recipientId + "/messages";
-            messagingTemplate.convertAndSend(recipientDestination, (Object) message);
-            
             // Confirm to sender
             String senderDestination = "/queue/" + senderId + "/sent";
             messagingTemplate.convertAndSend(senderDestination, (Object) message);
@@ -62,30 +65,16 @@ public class DirectMessageWebSocketController {
 
     /**
      * Handle typing indicator
+     * Sender identity comes from the session principal; debouncing and expiry are in-memory
      */
     @MessageMapping("/dm/typing")
     public void handleTypingIndicator(@Payload Map<String, Object> payload, Principal principal) {
         try {
-            Long senderId = getUserIdFromPrincipal(principal);
+            StompUserDetails sender = getStompUserDetails(principal);
             Long recipientId = ((Number) payload.get("recipientId")).longValue();
-            Boolean isTyping = (Boolean) payload.get("isTyping");
-
-            // Validate friendship before broadcasting typing indicator
-            if (!friendRepository.areFriends(senderId, recipientId)) {
-                return; // Silently ignore if not friends
-            }
-
-            // Get sender name
-            String senderName = userRepository.findById(senderId)
-                    .map(user -> user.getUsername())
-                    .orElse("Unknown");
+            boolean isTyping = Boolean.TRUE.equals(payload.get("isTyping"));
 
-            // Create typing indicator DTO
-            TypingIndicatorDTO indicator = new TypingIndicatorDTO(senderId, senderName, isTyping);
-
-            // Broadcast to recipient only (not persisted)
-            String typingDestination = "/queue/" + recipientId + "/typing";
-            messagingTemplate.convertAndSend(typingDestination, (Object) indicator);
+            typingIndicatorService.onTypingFrame(sender.getUserId(), sender.getUsername(), recipientId, isTyping);
 
         } catch (Exception e) {
             // Silently ignore typing indicator errors
@@ -97,26 +86,13 @@ public class DirectMessageWebSocketController {
         try {
             Long senderId = getUserIdFromPrincipal(principal);
 
-            // Persist the reaction
-            DirectMessageDTO updatedMessage = directMessageService.addReaction(
+            // Toggle in the reaction aggregate; the count delta is sent to both participants
+            reactionAggregateService.toggleDirectReaction(
                     reactionRequest.getMessageId(),
                     senderId,
                     reactionRequest.getReaction()
             );
 
-            // Determine the other participant
-            Long recipientId = updatedMessage.getSenderId().equals(senderId)
-                    ? updatedMessage.getRecipientId()
-                    : updatedMessage.getSenderId();
-
-            // Notify recipient in real-time
-            String recipientDestination = "/queue/" + recipientId + "/reaction";
-            messagingTemplate.convertAndSend(recipientDestination, (Object) updatedMessage);
-
-            // Confirm back to sender
-            String senderDestination = "/queue/" + senderId + "/reaction";
-            messagingTemplate.convertAndSend(senderDestination, (Object) updatedMessage);
-
         } catch (Exception e) {
             Long senderId = getUserIdFromPrincipal(principal);
             String errorDestination = "/queue/" + senderId + "/errors";
@@ -124,10 +100,50 @@ public class DirectMessageWebSocketController {
         }
     }
 
+    /**
+     * Handle delivery acknowledgement: advances the delivered watermark for a conversation
+     */
+    @MessageMapping("/dm/delivered")
+    public void handleDelivered(@Payload Map<String, Object> payload, Principal principal) {
+        try {
+            Long userId = getUserIdFromPrincipal(principal);
+            Long friendId = ((Number) payload.get("friendId")).longValue();
+            long messageId = ((Number) payload.get("messageId")).longValue();
+
+            readReceiptService.markDirectDelivered(userId, friendId, messageId);
+
+        } catch (Exception e) {
+            // Silently ignore acknowledgement errors
+        }
+    }
+
+    /**
+     * Handle read receipt: advances the read watermark for a conversation
+     */
+    @MessageMapping("/dm/read")
+    public void handleRead(@Payload Map<String, Object> payload, Principal principal) {
+        try {
+            Long userId = getUserIdFromPrincipal(principal);
+            Long friendId = ((Number) payload.get("friendId")).longValue();
+            long messageId = ((Number) payload.get("messageId")).longValue();
+
+            readReceiptService.markDirectRead(userId, friendId, messageId);
+
+        } catch (Exception e) {
+            // Silently ignore acknowledgement errors
+        }
+    }
+
     /**
      * Extract user ID from JWT principal
      */
     private Long getUserIdFromPrincipal(Principal principal) {
+        if (principal instanceof Authentication authentication
+                && authentication.getDetails() instanceof StompUserDetails details
+                && details.getUserId() != null) {
+            return details.getUserId();
+        }
+
         // Principal name should be the email from JWT
         String email = principal.getName();
         
@@ -136,4 +152,19 @@ public class DirectMessageWebSocketController {
                 .orElseThrow(() -> new RuntimeException("User not found"))
                 .getId();
     }
+
+    /**
+     * Get sender id and name from the session, falling back to a lookup for tokens without the claims
+     */
+    private StompUserDetails getStompUserDetails(Principal principal) {
+        if (principal instanceof Authentication authentication
+                && authentication.getDetails() instanceof StompUserDetails details
+                && details.getUserId() != null && details.getUsername() != null) {
+            return details;
+        }
+
+        return userRepository.findByEmail(principal.getName())
+                .map(user -> new StompUserDetails(user.getId(), user.getUsername()))
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
 }
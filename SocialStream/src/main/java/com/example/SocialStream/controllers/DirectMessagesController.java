@@ -2,10 +2,13 @@ package com.example.SocialStream.controllers;
 
 import com.example.SocialStream.DTO.ConversationSummaryDTO;
 import com.example.SocialStream.DTO.DirectMessageDTO;
+import com.example.SocialStream.DTO.PendingMessagesDTO;
 import com.example.SocialStream.DTO.SendMessageRequestDTO;
 import com.example.SocialStream.auth.CustomUserDetails;
 import com.example.SocialStream.enums.Reaction;
 import com.example.SocialStream.services.DirectMessageService;
+import com.example.SocialStream.services.PendingDeliveryService;
+import com.example.SocialStream.services.ReadReceiptService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -20,6 +23,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class DirectMessagesController {
     private final DirectMessageService directMessageService;
+    private final ReadReceiptService readReceiptService;
+    private final PendingDeliveryService pendingDeliveryService;
 
     @PostMapping("/send")
     public ResponseEntity<DirectMessageDTO> sendMessage(
@@ -49,6 +54,25 @@ public class DirectMessagesController {
         return ResponseEntity.ok(message);
     }
 
+    @PostMapping("/read/{friendId}")
+    public ResponseEntity<Void> markRead(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @PathVariable Long friendId,
+            @RequestParam Long messageId) {
+        readReceiptService.markDirectRead(userDetails.getUserId(), friendId, messageId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Catch up after a reconnect: every message delivered after the last sequence the client saw
+     */
+    @GetMapping("/pending")
+    public ResponseEntity<PendingMessagesDTO> getPendingMessages(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestParam(defaultValue = "0") long afterSequence) {
+        return ResponseEntity.ok(pendingDeliveryService.getMessagesAfter(userDetails.getUserId(), afterSequence));
+    }
+
     @GetMapping("/conversations")
     public ResponseEntity<List<ConversationSummaryDTO>> getConversations(
             @AuthenticationPrincipal CustomUserDetails userDetails) {
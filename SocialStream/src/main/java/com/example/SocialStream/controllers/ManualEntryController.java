@@ -1,14 +1,19 @@
 package com.example.SocialStream.controllers;
 
 import com.example.SocialStream.DTO.CreateVideoDTO;
+import com.example.SocialStream.DTO.VideoImportProgressDTO;
 import com.example.SocialStream.DTO.VideoResponseDTO;
+import com.example.SocialStream.services.VideoImportService;
 import com.example.SocialStream.services.VideoService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/api/manual")
 public class ManualEntryController {
@@ -16,6 +21,9 @@ public class ManualEntryController {
     @Autowired
     private VideoService videoService;
 
+    @Autowired
+    private VideoImportService videoImportService;
+
     @PostMapping("/video")
     public ResponseEntity<VideoResponseDTO> createVideo(@Valid @RequestBody CreateVideoDTO createVideoDTO) {
         try {
@@ -45,4 +53,27 @@ public class ManualEntryController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
+
+    /**
+     * Bulk import videos from a streamed body: JSON lines (application/x-ndjson) or CSV (text/csv)
+     * with a header row of CreateVideoDTO field names. Poll the import id for progress meanwhile.
+     */
+    @PostMapping("/videos/import")
+    public ResponseEntity<VideoImportProgressDTO> importVideos(
+            @RequestParam(required = false) String importId,
+            @RequestParam(required = false) String format,
+            HttpServletRequest request) throws IOException {
+        boolean csv = format != null
+                ? format.equalsIgnoreCase("csv")
+                : request.getContentType() != null && request.getContentType().contains("csv");
+        VideoImportProgressDTO result = videoImportService.importVideos(importId, request.getInputStream(), csv);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/videos/import/{importId}")
+    public ResponseEntity<VideoImportProgressDTO> getImportProgress(@PathVariable String importId) {
+        return videoImportService.getProgress(importId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
 }
@@ -1,8 +1,10 @@
 package com.example.SocialStream.controllers;
 
 import com.example.SocialStream.DTO.AudioResponseDTO;
+import com.example.SocialStream.DTO.CommentPageDTO;
 import com.example.SocialStream.DTO.CommentRequestDTO;
 import com.example.SocialStream.DTO.CommentResponseDTO;
+import com.example.SocialStream.DTO.FeedPageDTO;
 import com.example.SocialStream.DTO.PostRequestDTO;
 import com.example.SocialStream.DTO.PostResponseDTO;
 import com.example.SocialStream.DTO.VideoResponseDTO;
@@ -19,6 +21,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
@@ -75,6 +78,22 @@ public class NewsFeedController {
         }
     }
 
+    /**
+     * Get a page of posts from user's friends
+     * @param cursor nextCursor from the previous page; omit for the first page
+     * @param size Number of posts per page (max 50)
+     * @param userDetails Authenticated user details from JWT token
+     * @return Posts ordered by upload date descending, with the cursor for the next page
+     */
+    @GetMapping("/friends-posts/page")
+    public ResponseEntity<FeedPageDTO> getFriendsPostsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        Long userId = userDetails.getUserId();
+        return ResponseEntity.ok(newsFeedService.getFriendsPostsPage(userId, cursor, size));
+    }
+
     /**
      * Toggle like on a post (like if not liked, unlike if already liked)
      * @param postId The ID of the post to like/unlike
@@ -157,6 +176,20 @@ public class NewsFeedController {
         }
     }
 
+    /**
+     * Check which of a page of posts the user has liked
+     * @param postIds The IDs of the posts (max 100)
+     * @param userDetails Authenticated user details from JWT token
+     * @return Liked flag by post id
+     */
+    @GetMapping("/posts/like/status")
+    public ResponseEntity<Map<Long, Boolean>> getLikeStatuses(
+            @RequestParam List<Long> postIds,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        Long userId = userDetails.getUserId();
+        return ResponseEntity.ok(newsFeedService.getLikeStatuses(postIds, userId));
+    }
+
     /**
      * Add a comment to a post
      * @param postId The ID of the post to comment on
@@ -179,4 +212,23 @@ public class NewsFeedController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    /**
+     * Get a page of comments on a post, newest first
+     * @param postId The ID of the post
+     * @param cursor nextCursor from the previous page; omit for the first page
+     * @param size Number of comments per page (max 50)
+     * @return Comments with the cursor for the next page
+     */
+    @GetMapping("/posts/{postId}/comments")
+    public ResponseEntity<CommentPageDTO> getComments(
+            @PathVariable Long postId,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(newsFeedService.getComments(postId, cursor, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
 }
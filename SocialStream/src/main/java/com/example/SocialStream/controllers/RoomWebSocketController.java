@@ -6,6 +6,8 @@ import com.example.SocialStream.enums.Reaction;
 import com.example.SocialStream.repositories.UserRepository;
 import com.example.SocialStream.services.ChatMessageService;
 import com.example.SocialStream.services.PlaybackSyncService;
+import com.example.SocialStream.services.ReactionAggregateService;
+import com.example.SocialStream.services.ReadReceiptService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
@@ -22,6 +24,8 @@ public class RoomWebSocketController {
 
     private final PlaybackSyncService playbackSyncService;
     private final ChatMessageService chatMessageService;
+    private final ReadReceiptService readReceiptService;
+    private final ReactionAggregateService reactionAggregateService;
     private final UserRepository userRepository;
     private final SimpMessagingTemplate messagingTemplate;
 
@@ -161,12 +165,24 @@ public class RoomWebSocketController {
         String reactionStr = (String) payload.get("reaction");
         Reaction reaction = Reaction.valueOf(reactionStr);
 
-        // Add reaction via service
-        ChatMessageDTO updatedMessage = chatMessageService.addReaction(messageId, userId, reaction);
+        // Toggle in the reaction aggregate; only the count delta is broadcast to the room
+        reactionAggregateService.toggleRoomReaction(roomId, messageId, userId, reaction);
+    }
+
+    /**
+     * Handle room read watermark updates
+     */
+    @MessageMapping("/room/{roomId}/read")
+    public void handleRead(@DestinationVariable Long roomId,
+                           @Payload Map<String, Object> payload,
+                           Principal principal) {
+        Long userId = getUserIdFromPrincipal(principal);
+        long messageId = ((Number) payload.get("messageId")).longValue();
 
-        // Broadcast updated message to all room members
-        messagingTemplate.convertAndSend("/topic/room/" + roomId + "/reaction", updatedMessage);
+        // Receipt is broadcast to /topic/room/{roomId}/read only when the watermark advances
+        readReceiptService.markRoomRead(userId, roomId, messageId);
     }
+
     /**
      * Extract user ID from JWT principal
      */
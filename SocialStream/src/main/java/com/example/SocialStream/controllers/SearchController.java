@@ -1,12 +1,21 @@
 package com.example.SocialStream.controllers;
 
+import com.example.SocialStream.DTO.AutocompleteSuggestionDTO;
+import com.example.SocialStream.DTO.SearchCacheStatsDTO;
+import com.example.SocialStream.DTO.TrendingQueryDTO;
 import com.example.SocialStream.DTO.VideoResponseDTO;
+import com.example.SocialStream.DTO.VideoSearchPageDTO;
+import com.example.SocialStream.enums.VideoFacet;
 import com.example.SocialStream.services.SearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/search")
@@ -17,26 +26,88 @@ public class SearchController {
 
     /**
      * Search videos by title pattern (case-insensitive, contains match)
-     * Example: GET /api/search/videos?title=action
+     * Example: GET /api/search/videos?title=action&page=0&size=20
      */
     @GetMapping("/videos")
-    public ResponseEntity<List<VideoResponseDTO>> searchVideosByTitle(@RequestParam String title) {
+    public ResponseEntity<List<VideoResponseDTO>> searchVideosByTitle(@RequestParam String title,
+                                                                      @RequestParam(defaultValue = "0") int page,
+                                                                      @RequestParam(defaultValue = "20") int size) {
         try {
-            List<VideoResponseDTO> videos = searchService.searchVideosByTitlePattern(title);
+            List<VideoResponseDTO> videos = searchService.searchVideosByTitlePattern(title, page, size);
             return ResponseEntity.ok(videos);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    /**
+     * Ranked search across title, director, cast, genre and description, with genre, year,
+     * director and rating facet counts. Repeat a facet parameter to select several values.
+     * Misspelled words match close spellings unless fuzzy=false
+     * Example: GET /api/search/videos/ranked?q=nolan%20dark&genre=Action&rating=8-9&page=0&size=20
+     */
+    @GetMapping("/videos/ranked")
+    public ResponseEntity<VideoSearchPageDTO> searchVideos(@RequestParam(defaultValue = "") String q,
+                                                           @RequestParam(required = false) List<String> genre,
+                                                           @RequestParam(required = false) List<String> year,
+                                                           @RequestParam(required = false) List<String> director,
+                                                           @RequestParam(required = false) List<String> rating,
+                                                           @RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "20") int size,
+                                                           @RequestParam(defaultValue = "true") boolean fuzzy) {
+        Map<VideoFacet, Set<String>> filters = new EnumMap<>(VideoFacet.class);
+        addFilter(filters, VideoFacet.GENRE, genre);
+        addFilter(filters, VideoFacet.YEAR, year);
+        addFilter(filters, VideoFacet.DIRECTOR, director);
+        addFilter(filters, VideoFacet.RATING, rating);
+        return ResponseEntity.ok(searchService.searchVideos(q, filters, page, size, fuzzy));
+    }
+
+    /**
+     * Trending search queries over a rolling window of up to 60 minutes
+     * Example: GET /api/search/trending?minutes=60&limit=10
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingQueryDTO>> getTrendingQueries(@RequestParam(defaultValue = "60") int minutes,
+                                                                     @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(searchService.getTrendingQueries(minutes, limit));
+    }
+
+    /**
+     * Hit ratio and latency of the search result cache
+     * Example: GET /api/search/cache/stats
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<SearchCacheStatsDTO> getCacheStats() {
+        return ResponseEntity.ok(searchService.getCacheStats());
+    }
+
+    private void addFilter(Map<VideoFacet, Set<String>> filters, VideoFacet facet, List<String> values) {
+        if (values != null && !values.isEmpty()) {
+            filters.put(facet, new HashSet<>(values));
+        }
+    }
+
+    /**
+     * Completions for search-as-you-type
+     * Example: GET /api/search/autocomplete?q=dark%20kn&limit=10
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteSuggestionDTO>> autocomplete(@RequestParam String q,
+                                                                        @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(searchService.autocomplete(q, limit));
+    }
+
     /**
      * Advanced search using custom patterns
-     * Example: GET /api/search/videos/advanced?pattern=action%20movie
+     * Example: GET /api/search/videos/advanced?pattern=action%20movie&page=0&size=20
      */
     @GetMapping("/videos/advanced")
-    public ResponseEntity<List<VideoResponseDTO>> advancedVideoSearch(@RequestParam String pattern) {
+    public ResponseEntity<List<VideoResponseDTO>> advancedVideoSearch(@RequestParam String pattern,
+                                                                      @RequestParam(defaultValue = "0") int page,
+                                                                      @RequestParam(defaultValue = "20") int size) {
         try {
-            List<VideoResponseDTO> videos = searchService.advancedVideoSearch(pattern);
+            List<VideoResponseDTO> videos = searchService.advancedVideoSearch(pattern, page, size);
             return ResponseEntity.ok(videos);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -44,14 +44,25 @@ public class SocialController {
 
     @GetMapping("/friendsuggestions")
 
-    public ResponseEntity<List<FriendReqResponseDTO>> getFriendSuggestions(@AuthenticationPrincipal CustomUserDetails userDetails){
+    public ResponseEntity<List<FriendReqResponseDTO>> getFriendSuggestions(@AuthenticationPrincipal CustomUserDetails userDetails,
+                                                                           @RequestParam(defaultValue = "0") int page,
+                                                                           @RequestParam(defaultValue = "20") int size){
         return ResponseEntity.status(HttpStatus.OK).body(socialService.
-                getFriendSuggestions(userDetails.getUserId()));
+                getFriendSuggestions(userDetails.getUserId(), page, size));
     }
 
+    /**
+     * Paged when page or size is sent; without either, every friend is returned as before
+     */
     @GetMapping("/my-friends")
-    public ResponseEntity<List<FriendReqResponseDTO>> getMyFriends(@AuthenticationPrincipal CustomUserDetails userDetails) {
+    public ResponseEntity<List<FriendReqResponseDTO>> getMyFriends(@AuthenticationPrincipal CustomUserDetails userDetails,
+                                                                   @RequestParam(required = false) Integer page,
+                                                                   @RequestParam(required = false) Integer size) {
+        if (page == null && size == null) {
+            return ResponseEntity.status(HttpStatus.OK).body(socialService.
+                    getMyFriends(userDetails.getUserId()));
+        }
         return ResponseEntity.status(HttpStatus.OK).body(socialService.
-                getMyFriends(userDetails.getUserId()));
+                getMyFriends(userDetails.getUserId(), page == null ? 0 : page, size == null ? 100 : size));
     }
 }
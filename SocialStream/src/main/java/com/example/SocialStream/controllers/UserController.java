@@ -22,9 +22,12 @@ public class UserController {
     private UserService userService;
 
     @GetMapping("/{userId}/posts")
-    public ResponseEntity<List<PostResponseDTO>> getUserPosts(@PathVariable Long userId) {
+    public ResponseEntity<List<PostResponseDTO>> getUserPosts(
+            @PathVariable Long userId,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
         try {
-            List<PostResponseDTO> userPosts = userService.getUserPosts(userId);
+            Long viewerId = userDetails != null ? userDetails.getUserId() : null;
+            List<PostResponseDTO> userPosts = userService.getUserPosts(userId, viewerId);
             return ResponseEntity.ok(userPosts);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -16,9 +16,11 @@ public class VideoController {
     private VideoService videoService;
 
     @GetMapping("/search")
-    public ResponseEntity<List<VideoResponseDTO>> searchVideosByTitle(@RequestParam String title) {
+    public ResponseEntity<List<VideoResponseDTO>> searchVideosByTitle(@RequestParam String title,
+                                                                      @RequestParam(defaultValue = "0") int page,
+                                                                      @RequestParam(defaultValue = "20") int size) {
         try {
-            List<VideoResponseDTO> videos = videoService.searchVideosByTitle(title);
+            List<VideoResponseDTO> videos = videoService.searchVideosByTitle(title, page, size);
             return ResponseEntity.ok(videos);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -26,9 +28,11 @@ public class VideoController {
     }
 
     @GetMapping("/search/pattern")
-    public ResponseEntity<List<VideoResponseDTO>> searchVideosByPattern(@RequestParam String pattern) {
+    public ResponseEntity<List<VideoResponseDTO>> searchVideosByPattern(@RequestParam String pattern,
+                                                                        @RequestParam(defaultValue = "0") int page,
+                                                                        @RequestParam(defaultValue = "20") int size) {
         try {
-            List<VideoResponseDTO> videos = videoService.searchVideosByPattern(pattern);
+            List<VideoResponseDTO> videos = videoService.searchVideosByPattern(pattern, page, size);
             return ResponseEntity.ok(videos);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -43,6 +43,7 @@ public class ChatMessage {
     @Column(name = "sent_at", nullable = false, updatable = false)
     private LocalDateTime sentAt;
 
+    // Legacy single reaction; per-user reactions are aggregated in message_reactions
     @Enumerated(EnumType.STRING)
     private Reaction reaction;
 
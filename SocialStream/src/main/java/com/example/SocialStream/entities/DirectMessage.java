@@ -30,6 +30,7 @@ public class DirectMessage {
     private String content;
     @Column(name = "send_time", nullable = false, updatable = false)
     private LocalDateTime sendTime;
+    // Legacy single reaction; per-user reactions are aggregated in message_reactions
     @Enumerated(EnumType.STRING)
     private Reaction reaction;
 
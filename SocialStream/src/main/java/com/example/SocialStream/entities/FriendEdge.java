@@ -0,0 +1,37 @@
+package com.example.SocialStream.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One direction of an accepted friendship. Every friendship is stored as two edges,
+ * (a, b) and (b, a), so "friends of x" is a primary key range scan on user_id.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(FriendEdge.Key.class)
+@Table(name = "friend_edge")
+public class FriendEdge {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Id
+    @Column(name = "friend_id", nullable = false)
+    private Long friendId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Long friendId;
+    }
+}
@@ -15,7 +15,16 @@ import java.time.LocalDateTime;
         uniqueConstraints = {
                 @UniqueConstraint(
                         columnNames = {"requester_id", "receiver_id"}
+                ),
+                // One row per unordered pair, whichever side asked first
+                @UniqueConstraint(
+                        name = "uk_friendship_pair",
+                        columnNames = {"user_low_id", "user_high_id"}
                 )
+        },
+        indexes = {
+                @Index(name = "idx_friendship_requester_status", columnList = "requester_id,status"),
+                @Index(name = "idx_friendship_receiver_status", columnList = "receiver_id,status")
         }
 )
 @AllArgsConstructor
@@ -43,5 +52,20 @@ public class Friendship {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Smaller and larger user id of the pair; null on rows not yet normalized by the dedupe job
+    @Column(name = "user_low_id")
+    private Long userLowId;
+
+    @Column(name = "user_high_id")
+    private Long userHighId;
+
+    @PrePersist
+    void normalizePair() {
+        Long requesterId = requester.getId();
+        Long receiverId = receiver.getId();
+        this.userLowId = Math.min(requesterId, receiverId);
+        this.userHighId = Math.max(requesterId, receiverId);
+    }
+
 
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.example.SocialStream.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A like count flush that has been applied to post.likes_count.
+ * Written in the same transaction as the counts, so a flush replayed after a crash is applied only once.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "like_flush_batch",
+    indexes = {
+        @Index(name = "idx_like_flush_batch_applied_at", columnList = "applied_at")
+    })
+public class LikeFlushBatch {
+
+    @Id
+    @Column(name = "id", nullable = false, length = 36)
+    private String id;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+}
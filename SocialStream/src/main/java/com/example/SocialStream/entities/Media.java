@@ -4,18 +4,27 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "media") // used only when a second-level cache is configured
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
 @Inheritance(strategy = InheritanceType.JOINED)
 @DiscriminatorColumn(name = "media_type", discriminatorType = DiscriminatorType.STRING)
 public class Media {
+    public static final int ID_BLOCK_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy= GenerationType.IDENTITY)
+    // Pooled table ids let Hibernate batch inserts and the bulk importer reserve id blocks (see MediaIdAllocator)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "media_ids")
+    @TableGenerator(name = "media_ids", table = "id_generator", pkColumnName = "name", valueColumnName = "next_id",
+            pkColumnValue = "media", allocationSize = Media.ID_BLOCK_SIZE)
     private Long id;
 
     private String mediaurl;
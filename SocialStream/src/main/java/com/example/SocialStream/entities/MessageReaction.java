@@ -0,0 +1,43 @@
+package com.example.SocialStream.entities;
+
+import com.example.SocialStream.enums.Reaction;
+import com.example.SocialStream.enums.ReactionTarget;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One user's reaction to a room chat message or direct message.
+ * Written in batches from the Redis reaction aggregate, not on every click.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "message_reactions",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"target", "message_id", "user_id"})
+        }
+)
+public class MessageReaction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ReactionTarget target;
+
+    @Column(name = "message_id", nullable = false)
+    private Long messageId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Reaction reaction;
+}
@@ -8,6 +8,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_post_user_uploaded", columnList = "user_id,uploaded_at")
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -21,6 +24,7 @@ public class Post {
     private String description;
 
 
+    @Column(name = "uploaded_at")
     private LocalDateTime uploadedAt;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -33,6 +37,8 @@ public class Post {
 
     private int likesCount = 0;
 
+    private int commentsCount = 0; // maintained on insert so feeds don't count comments
+
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Comments> comments= new ArrayList<>();
     
@@ -0,0 +1,49 @@
+package com.example.SocialStream.entities;
+
+import com.example.SocialStream.enums.WatermarkScope;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * High-water marks of delivered/read messages per user and conversation.
+ * For DIRECT scope, scopeId is the chat partner's user id; for ROOM scope it is the room id.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "read_watermarks",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"user_id", "scope", "scope_id"})
+        }
+)
+public class ReadWatermark {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private WatermarkScope scope;
+
+    @Column(name = "scope_id", nullable = false)
+    private Long scopeId;
+
+    @Column(name = "last_delivered_message_id", nullable = false)
+    private long lastDeliveredMessageId;
+
+    @Column(name = "last_read_message_id", nullable = false)
+    private long lastReadMessageId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,27 @@
+package com.example.SocialStream.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A one-off data migration that has been applied to this database.
+ * Inserted in the same transaction as the migration itself, see SchemaMigrationService.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "schema_migration")
+public class SchemaMigration {
+
+    @Id
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+}
@@ -0,0 +1,44 @@
+package com.example.SocialStream.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Number of searches for a normalized query on one day, aggregated from search events
+ * so popularity queries group a few rows per query instead of the raw history.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(SearchQueryDaily.Key.class)
+@Table(name = "search_query_daily",
+    indexes = {
+        @Index(name = "idx_search_query_daily_day", columnList = "day")
+    })
+public class SearchQueryDaily {
+
+    @Id
+    @Column(name = "query", nullable = false, length = 500)
+    private String query;
+
+    @Id
+    @Column(name = "day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "search_count", nullable = false)
+    private long searchCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String query;
+        private LocalDate day;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.SocialStream.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flattened copy of media + video, one row per video, so catalog reads hit a single table
+ * instead of joining the JOINED inheritance tables. Written only through VideoCatalogRepository's
+ * native statements, in the same transaction as the media/video rows it mirrors.
+ * The foreign key to video cascades deletes, so removing a video by any path removes its catalog row.
+ */
+@Entity
+@Immutable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "video_catalog",
+    indexes = {
+        @Index(name = "idx_video_catalog_title", columnList = "title"),
+        @Index(name = "idx_video_catalog_uploaded_at", columnList = "uploaded_at")
+    })
+public class VideoCatalogEntry {
+
+    @Id
+    private Long id;
+
+    private String mediaurl;
+    private String thumbnailurl;
+    private int duration; //in seconds
+    private String title;
+    private LocalDateTime uploadedAt;
+    private String director;
+    private String year;
+    private long viewCount;
+    @Column(length = 1000)
+    private String description;
+    @Column(precision = 3, scale = 1)
+    private BigDecimal rating;
+    @Column(columnDefinition = "TEXT")
+    private String cast;
+    private String genre;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(name = "fk_video_catalog_video"))
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Video video;
+}
@@ -0,0 +1,7 @@
+package com.example.SocialStream.enums;
+
+public enum ImportStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package com.example.SocialStream.enums;
+
+public enum ReactionTarget {
+    ROOM_MESSAGE,
+    DIRECT_MESSAGE
+}
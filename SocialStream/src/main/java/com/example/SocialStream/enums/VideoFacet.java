@@ -0,0 +1,8 @@
+package com.example.SocialStream.enums;
+
+public enum VideoFacet {
+    GENRE,
+    YEAR,
+    DIRECTOR,
+    RATING
+}
@@ -0,0 +1,6 @@
+package com.example.SocialStream.enums;
+
+public enum WatermarkScope {
+    DIRECT,
+    ROOM
+}
@@ -43,4 +43,25 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
      * Find messages by room and sender with pagination
      */
     Page<ChatMessage> findByRoomIdAndSenderIdOrderBySentAtDesc(Long roomId, Long senderId, Pageable pageable);
+
+    /**
+     * Count room messages newer than a read watermark, not counting the user's own
+     */
+    long countByRoomIdAndIdGreaterThanAndSenderIdNot(Long roomId, Long messageId, Long senderId);
+
+    /**
+     * Id of the newest message in a room, 0 if it has none
+     */
+    @Query("SELECT COALESCE(MAX(cm.id), 0) FROM ChatMessage cm WHERE cm.room.id = :roomId")
+    long findLatestMessageId(@Param("roomId") Long roomId);
+
+    /**
+     * Check in one query that a message belongs to a room the user is a member of
+     */
+    @Query("SELECT COUNT(cm) > 0 FROM ChatMessage cm, RoomMember rm " +
+           "WHERE cm.id = :messageId AND cm.room.id = :roomId " +
+           "AND rm.room.id = :roomId AND rm.user.id = :userId")
+    boolean isMessageVisibleToMember(@Param("messageId") Long messageId,
+                                     @Param("roomId") Long roomId,
+                                     @Param("userId") Long userId);
 }
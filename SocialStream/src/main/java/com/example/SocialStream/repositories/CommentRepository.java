@@ -1,12 +1,39 @@
 package com.example.SocialStream.repositories;
 
+import com.example.SocialStream.DTO.CommentResponseDTO;
 import com.example.SocialStream.entities.Comments;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comments, Long> {
-    List<Comments> findByPostIdOrderByCreatedAtDesc(Long postId);
+    /**
+     * Latest comments of each post in one query, newest first per post
+     * Returns rows of [commentId, postId, content, authorUsername]
+     */
+    @Query(value = "SELECT r.id, r.post_id, r.content, r.username FROM (" +
+                   "  SELECT c.id, c.post_id, c.content, u.username, " +
+                   "    ROW_NUMBER() OVER (PARTITION BY c.post_id ORDER BY c.id DESC) AS rn " +
+                   "  FROM comments c JOIN users u ON u.id = c.user_id " +
+                   "  WHERE c.post_id IN (:postIds)" +
+                   ") r WHERE r.rn <= :perPost ORDER BY r.post_id, r.rn",
+            nativeQuery = true)
+    List<Object[]> findLatestByPostIds(@Param("postIds") Collection<Long> postIds, @Param("perPost") int perPost);
+
+    /**
+     * A page of a post's comments older than the given comment id, newest first
+     */
+    @Query("SELECT new com.example.SocialStream.DTO.CommentResponseDTO(c.id, c.content, u.username) " +
+           "FROM Comments c JOIN c.user u " +
+           "WHERE c.post.id = :postId AND c.id < :beforeId " +
+           "ORDER BY c.id DESC")
+    List<CommentResponseDTO> findPageByPostId(@Param("postId") Long postId,
+                                              @Param("beforeId") Long beforeId,
+                                              Pageable pageable);
 }
\ No newline at end of file
@@ -31,4 +31,34 @@ public interface DirectMessageRepository extends JpaRepository<DirectMessage, Lo
             ") " +
             "ORDER BY m.sendTime DESC")
     java.util.List<DirectMessage> findLatestMessagesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Count unread messages per sender against the stored read watermarks
+     * Returns rows of [senderId, count]
+     */
+    @Query("SELECT m.sender.id, COUNT(m) FROM DirectMessage m " +
+            "WHERE m.recipient.id = :userId " +
+            "AND m.id > COALESCE((SELECT w.lastReadMessageId FROM ReadWatermark w " +
+            "  WHERE w.userId = :userId " +
+            "  AND w.scope = com.example.SocialStream.enums.WatermarkScope.DIRECT " +
+            "  AND w.scopeId = m.sender.id), 0) " +
+            "GROUP BY m.sender.id")
+    java.util.List<Object[]> countUnreadBySender(@Param("userId") Long userId);
+
+    long countBySenderIdAndRecipientIdAndIdGreaterThan(Long senderId, Long recipientId, Long messageId);
+
+    /**
+     * Id of the newest message from sender to recipient, 0 if there is none
+     */
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM DirectMessage m " +
+            "WHERE m.sender.id = :senderId AND m.recipient.id = :recipientId")
+    long findLatestMessageId(@Param("senderId") Long senderId, @Param("recipientId") Long recipientId);
+
+    /**
+     * Find the other participant of a message the user is part of
+     */
+    @Query("SELECT CASE WHEN m.sender.id = :userId THEN m.recipient.id ELSE m.sender.id END " +
+            "FROM DirectMessage m WHERE m.id = :messageId " +
+            "AND (m.sender.id = :userId OR m.recipient.id = :userId)")
+    java.util.Optional<Long> findPartnerId(@Param("messageId") Long messageId, @Param("userId") Long userId);
 }
@@ -0,0 +1,36 @@
+package com.example.SocialStream.repositories;
+
+import com.example.SocialStream.entities.FriendEdge;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FriendEdgeRepository extends JpaRepository<FriendEdge, FriendEdge.Key> {
+
+    /**
+     * Insert both directions of a friendship, ignoring edges that already exist
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO friend_edge (user_id, friend_id) VALUES (:userId, :friendId), (:friendId, :userId)",
+            nativeQuery = true)
+    void insertPair(@Param("userId") Long userId, @Param("friendId") Long friendId);
+
+    @Modifying
+    @Query("DELETE FROM FriendEdge e WHERE (e.userId = :userId AND e.friendId = :friendId) " +
+           "OR (e.userId = :friendId AND e.friendId = :userId)")
+    void deletePair(@Param("userId") Long userId, @Param("friendId") Long friendId);
+
+    /**
+     * Create the edges of accepted friendships that have none yet
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO friend_edge (user_id, friend_id) " +
+                   "SELECT requester_id, receiver_id FROM friendships WHERE status = 'ACCEPTED' " +
+                   "UNION ALL " +
+                   "SELECT receiver_id, requester_id FROM friendships WHERE status = 'ACCEPTED'",
+            nativeQuery = true)
+    int backfill();
+}
@@ -1,19 +1,90 @@
 package com.example.SocialStream.repositories;
 
+import com.example.SocialStream.DTO.FriendReqResponseDTO;
 import com.example.SocialStream.entities.Friendship;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface FriendRepository extends JpaRepository<Friendship,Long> {
-    @Query("SELECT F FROM Friendship F WHERE F.receiver.id = :receiverId AND F.status = 'PENDING'")
-    java.util.List<Friendship> findPendingRequestsByReceiverId(Long receiverId);
+    @Query("SELECT new com.example.SocialStream.DTO.FriendReqResponseDTO(f.id, r.id, r.username) " +
+           "FROM Friendship f JOIN f.requester r " +
+           "WHERE f.receiver.id = :receiverId AND f.status = 'PENDING' " +
+           "ORDER BY f.id DESC")
+    List<FriendReqResponseDTO> findPendingRequestsByReceiverId(@Param("receiverId") Long receiverId);
+
+    /**
+     * Turn a declined friendship of the pair, in either direction, back into a pending request
+     * @return 1 if a declined row was reopened, 0 otherwise
+     */
+    @Modifying
+    @Query(value = "UPDATE friendships SET requester_id = :requesterId, receiver_id = :receiverId, " +
+                   "status = 'PENDING', created_at = :createdAt " +
+                   "WHERE user_low_id = LEAST(:requesterId, :receiverId) " +
+                   "AND user_high_id = GREATEST(:requesterId, :receiverId) AND status = 'DECLINED'",
+            nativeQuery = true)
+    int reopenDeclinedRequest(@Param("requesterId") Long requesterId,
+                              @Param("receiverId") Long receiverId,
+                              @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Rows created before pairs were normalized, oldest first
+     */
+    @Query("SELECT f FROM Friendship f WHERE f.userLowId IS NULL ORDER BY f.id")
+    List<Friendship> findUnnormalized(Pageable pageable);
+
+    Optional<Friendship> findByUserLowIdAndUserHighId(Long userLowId, Long userHighId);
+
+    /**
+     * Normalized rows whose low and high ids are among the given ones; callers match exact pairs
+     */
+    @Query("SELECT f FROM Friendship f WHERE f.userLowId IN :lowIds AND f.userHighId IN :highIds")
+    List<Friendship> findNormalizedPairs(@Param("lowIds") Collection<Long> lowIds,
+                                         @Param("highIds") Collection<Long> highIds);
 
-    @Query("SELECT COUNT(f) > 0 FROM Friendship f WHERE " +
-           "((f.requester.id = :userId AND f.receiver.id = :friendId) OR " +
-           " (f.requester.id = :friendId AND f.receiver.id = :userId)) " +
-           "AND f.status = 'ACCEPTED'")
+    @Query("SELECT COUNT(e) > 0 FROM FriendEdge e WHERE e.userId = :userId AND e.friendId = :friendId")
     boolean areFriends(Long userId, Long friendId);
 
-}
\ No newline at end of file
+    @Query("SELECT e.friendId FROM FriendEdge e WHERE e.userId = :userId")
+    List<Long> findFriendIds(Long userId);
+
+    /**
+     * A page of the user's accepted friends, projected to the other side of each friendship
+     * Both branches of the OR are served by the (requester_id, status) and (receiver_id, status) indexes
+     */
+    @Query("SELECT new com.example.SocialStream.DTO.FriendReqResponseDTO(f.id, " +
+           "  CASE WHEN r.id = :userId THEN v.id ELSE r.id END, " +
+           "  CASE WHEN r.id = :userId THEN v.username ELSE r.username END) " +
+           "FROM Friendship f JOIN f.requester r JOIN f.receiver v " +
+           "WHERE (r.id = :userId OR v.id = :userId) AND f.status = 'ACCEPTED' " +
+           "ORDER BY f.id DESC")
+    List<FriendReqResponseDTO> findFriends(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Every requested pair with whether it was accepted, for building the in-memory friend graph
+     * Returns rows of [requesterId, receiverId, accepted]
+     */
+    @Query("SELECT f.requester.id, f.receiver.id, CASE WHEN f.status = 'ACCEPTED' THEN true ELSE false END " +
+           "FROM Friendship f")
+    List<Object[]> findAllPairs();
+
+    /**
+     * A page of users with no friendship of any status with the given user
+     */
+    @Query("SELECT new com.example.SocialStream.DTO.FriendReqResponseDTO(CAST(NULL AS Long), u.id, u.username) " +
+           "FROM User u WHERE u.id <> :userId " +
+           "AND u.id NOT IN (SELECT f.receiver.id FROM Friendship f WHERE f.requester.id = :userId) " +
+           "AND u.id NOT IN (SELECT f.requester.id FROM Friendship f WHERE f.receiver.id = :userId) " +
+           "ORDER BY u.id")
+    List<FriendReqResponseDTO> findUnconnectedUsers(@Param("userId") Long userId, Pageable pageable);
+
+}
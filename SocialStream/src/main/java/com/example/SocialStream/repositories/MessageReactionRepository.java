@@ -0,0 +1,38 @@
+package com.example.SocialStream.repositories;
+
+import com.example.SocialStream.entities.MessageReaction;
+import com.example.SocialStream.enums.ReactionTarget;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MessageReactionRepository extends JpaRepository<MessageReaction, Long> {
+
+    List<MessageReaction> findByTargetAndMessageId(ReactionTarget target, Long messageId);
+
+    @Modifying
+    @Query("DELETE FROM MessageReaction r WHERE r.target = :target AND r.messageId = :messageId")
+    void deleteByTargetAndMessageId(@Param("target") ReactionTarget target, @Param("messageId") Long messageId);
+
+    /**
+     * Reaction counts for a batch of messages
+     * Returns rows of [messageId, reaction, count]
+     */
+    @Query("SELECT r.messageId, r.reaction, COUNT(r) FROM MessageReaction r " +
+           "WHERE r.target = :target AND r.messageId IN :messageIds " +
+           "GROUP BY r.messageId, r.reaction")
+    List<Object[]> countByMessageIds(@Param("target") ReactionTarget target,
+                                     @Param("messageIds") Collection<Long> messageIds);
+
+    /**
+     * One user's reactions within a batch of messages
+     */
+    List<MessageReaction> findByTargetAndUserIdAndMessageIdIn(ReactionTarget target, Long userId,
+                                                             Collection<Long> messageIds);
+}
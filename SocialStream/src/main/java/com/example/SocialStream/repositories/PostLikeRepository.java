@@ -2,8 +2,14 @@ package com.example.SocialStream.repositories;
 
 import com.example.SocialStream.entities.PostLike;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,6 +20,12 @@ public interface PostLikeRepository extends JpaRepository<PostLike, Long> {
      */
     boolean existsByPostIdAndUserId(Long postId, Long userId);
     
+    /**
+     * Ids of the given posts that the user has liked
+     */
+    @Query("SELECT l.post.id FROM PostLike l WHERE l.user.id = :userId AND l.post.id IN :postIds")
+    List<Long> findLikedPostIds(@Param("userId") Long userId, @Param("postIds") Collection<Long> postIds);
+
     /**
      * Find a specific like by post and user
      */
@@ -24,8 +36,21 @@ public interface PostLikeRepository extends JpaRepository<PostLike, Long> {
      */
     long countByPostId(Long postId);
     
+    /**
+     * Insert a like unless the user already liked the post
+     * @return 1 if the like was added, 0 if it already existed
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO post_likes (post_id, user_id, created_at) VALUES (:postId, :userId, :createdAt)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("postId") Long postId, @Param("userId") Long userId,
+                       @Param("createdAt") LocalDateTime createdAt);
+
     /**
      * Delete a like by post and user
+     * @return 1 if a like was removed, 0 if there was none
      */
-    void deleteByPostIdAndUserId(Long postId, Long userId);
+    @Modifying
+    @Query("DELETE FROM PostLike l WHERE l.post.id = :postId AND l.user.id = :userId")
+    int deleteByPostIdAndUserId(@Param("postId") Long postId, @Param("userId") Long userId);
 }
\ No newline at end of file
@@ -1,31 +1,91 @@
 package com.example.SocialStream.repositories;
 
 import com.example.SocialStream.entities.Post;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
     List<Post> findByUserId(Long userId);
 
+    @Query("SELECT p.id FROM Post p WHERE p.user.id = :userId ORDER BY p.uploadedAt DESC, p.id DESC")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Load posts with their author (and roles) and media in a single query, for feed hydration
+     */
+    @Query("SELECT p FROM Post p JOIN FETCH p.user u LEFT JOIN FETCH u.roles JOIN FETCH p.media WHERE p.id IN :postIds")
+    List<Post> findWithAuthorAndMediaByIdIn(@Param("postIds") Collection<Long> postIds);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.likesCount = CASE WHEN p.likesCount + :delta < 0 THEN 0 ELSE p.likesCount + :delta END " +
+           "WHERE p.id = :postId")
+    void addLikes(@Param("postId") Long postId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.commentsCount = p.commentsCount + 1 WHERE p.id = :postId")
+    void incrementCommentsCount(@Param("postId") Long postId);
+
+    /**
+     * Fill comments_count for posts that predate the column
+     */
+    @Modifying
+    @Query(value = "UPDATE post p JOIN (SELECT post_id, COUNT(*) AS total FROM comments GROUP BY post_id) c " +
+                   "ON c.post_id = p.id SET p.comments_count = c.total WHERE p.comments_count = 0",
+            nativeQuery = true)
+    int backfillCommentsCount();
+
     /**
      * Find posts created by friends of the specified user
-     * Uses a subquery to identify all accepted friendships (bidirectional)
+     * Joins the user's friend edges to the (user_id, uploaded_at) index on post
      * @param userId The ID of the current user
      * @return List of posts created by user's friends, ordered by upload date descending
      */
-    @Query("SELECT p FROM Post p WHERE p.user.id IN (" +
-           "  SELECT CASE " +
-           "    WHEN f.requester.id = :userId THEN f.receiver.id " +
-           "    ELSE f.requester.id " +
-           "  END " +
-           "  FROM Friendship f " +
-           "  WHERE (f.requester.id = :userId OR f.receiver.id = :userId) " +
-           "  AND f.status = 'ACCEPTED'" +
-           ") ORDER BY p.uploadedAt DESC")
+    @Query("SELECT p FROM Post p JOIN FriendEdge e ON e.friendId = p.user.id " +
+           "WHERE e.userId = :userId ORDER BY p.uploadedAt DESC")
     List<Post> findFriendsPosts(@Param("userId") Long userId);
+
+    /**
+     * Ids and upload times of the newest friend posts, used to rebuild a cached timeline
+     * Returns rows of [postId, uploadedAt]
+     */
+    @Query("SELECT p.id, p.uploadedAt FROM Post p JOIN FriendEdge e ON e.friendId = p.user.id " +
+           "WHERE e.userId = :userId ORDER BY p.uploadedAt DESC, p.id DESC")
+    List<Object[]> findFriendsPostIds(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Ids and upload times of friend posts older than a feed cursor, newest first
+     * A post is older if uploaded before the cursor's millisecond, or within it with a smaller id
+     * Returns rows of [postId, uploadedAt]
+     */
+    @Query("SELECT p.id, p.uploadedAt FROM Post p JOIN FriendEdge e ON e.friendId = p.user.id " +
+           "WHERE e.userId = :userId " +
+           "AND (p.uploadedAt < :from OR (p.uploadedAt < :to AND p.id < :postId)) " +
+           "ORDER BY p.uploadedAt DESC, p.id DESC")
+    List<Object[]> findFriendsPostIdsBefore(@Param("userId") Long userId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to,
+                                            @Param("postId") Long postId,
+                                            Pageable pageable);
+
+    /**
+     * Ids and upload times of posts by the given authors older than a feed cursor, newest first
+     * Returns rows of [postId, uploadedAt]
+     */
+    @Query("SELECT p.id, p.uploadedAt FROM Post p WHERE p.user.id IN :authorIds " +
+           "AND (p.uploadedAt < :from OR (p.uploadedAt < :to AND p.id < :postId)) " +
+           "ORDER BY p.uploadedAt DESC, p.id DESC")
+    List<Object[]> findPostIdsByAuthorsBefore(@Param("authorIds") Collection<Long> authorIds,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to,
+                                              @Param("postId") Long postId,
+                                              Pageable pageable);
 }
@@ -0,0 +1,40 @@
+package com.example.SocialStream.repositories;
+
+import com.example.SocialStream.entities.ReadWatermark;
+import com.example.SocialStream.enums.WatermarkScope;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReadWatermarkRepository extends JpaRepository<ReadWatermark, Long> {
+
+    Optional<ReadWatermark> findByUserIdAndScopeAndScopeId(Long userId, WatermarkScope scope, Long scopeId);
+
+    List<ReadWatermark> findByUserIdAndScope(Long userId, WatermarkScope scope);
+
+    /**
+     * Insert or advance a watermark; values never move backwards
+     */
+    @Modifying
+    @Query(value = "INSERT INTO read_watermarks " +
+            "(user_id, scope, scope_id, last_delivered_message_id, last_read_message_id, updated_at) " +
+            "VALUES (:userId, :scope, :scopeId, :delivered, :read, :updatedAt) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "last_delivered_message_id = GREATEST(last_delivered_message_id, VALUES(last_delivered_message_id)), " +
+            "last_read_message_id = GREATEST(last_read_message_id, VALUES(last_read_message_id)), " +
+            "updated_at = VALUES(updated_at)",
+            nativeQuery = true)
+    void upsert(@Param("userId") Long userId,
+                @Param("scope") String scope,
+                @Param("scopeId") Long scopeId,
+                @Param("delivered") long delivered,
+                @Param("read") long read,
+                @Param("updatedAt") LocalDateTime updatedAt);
+}
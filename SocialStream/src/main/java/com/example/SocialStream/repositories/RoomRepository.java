@@ -20,10 +20,7 @@ public interface RoomRepository  extends JpaRepository<Room,Long> {
      */
     @Query("SELECT r FROM Room r WHERE r.hostId.id = :userId " +
            "OR EXISTS (" +
-           "  SELECT f FROM Friendship f " +
-           "  WHERE f.status = 'ACCEPTED' " +
-           "  AND ((f.requester.id = :userId AND f.receiver.id = r.hostId.id) " +
-           "       OR (f.receiver.id = :userId AND f.requester.id = r.hostId.id))" +
+           "  SELECT e FROM FriendEdge e WHERE e.userId = :userId AND e.friendId = r.hostId.id" +
            ")")
     Page<Room> findRoomsByUserAndFriends(@Param("userId") Long userId, Pageable pageable);
     
@@ -37,10 +34,7 @@ public interface RoomRepository  extends JpaRepository<Room,Long> {
     @Query("SELECT r FROM Room r WHERE " +
            "(r.hostId.id = :userId " +
            "OR EXISTS (" +
-           "  SELECT f FROM Friendship f " +
-           "  WHERE f.status = 'ACCEPTED' " +
-           "  AND ((f.requester.id = :userId AND f.receiver.id = r.hostId.id) " +
-           "       OR (f.receiver.id = :userId AND f.requester.id = r.hostId.id))" +
+           "  SELECT e FROM FriendEdge e WHERE e.userId = :userId AND e.friendId = r.hostId.id" +
            ")) " +
            "AND LOWER(r.name) LIKE LOWER(CONCAT('%', :name, '%'))")
     Page<Room> findRoomsByUserAndFriendsAndNameContaining(
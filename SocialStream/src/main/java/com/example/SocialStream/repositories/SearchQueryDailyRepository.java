@@ -0,0 +1,23 @@
+package com.example.SocialStream.repositories;
+
+import com.example.SocialStream.entities.SearchQueryDaily;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SearchQueryDailyRepository extends JpaRepository<SearchQueryDaily, SearchQueryDaily.Key> {
+
+    /**
+     * Most searched queries since the given day
+     * Returns rows of [query, count]
+     */
+    @Query("SELECT d.query, SUM(d.searchCount) FROM SearchQueryDaily d WHERE d.day >= :since " +
+           "GROUP BY d.query ORDER BY SUM(d.searchCount) DESC")
+    List<Object[]> findTopQueries(@Param("since") LocalDate since, Pageable pageable);
+}
@@ -2,8 +2,12 @@ package com.example.SocialStream.repositories;
 
 import com.example.SocialStream.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +15,10 @@ public interface UserRepository extends JpaRepository<User,Long> {
     Optional<User> findByEmail(String email);
 
     Optional<User> findByUsername(String username);
+
+    /**
+     * Returns rows of [userId, username]
+     */
+    @Query("SELECT u.id, u.username FROM User u WHERE u.id IN :userIds")
+    List<Object[]> findUsernamesByIds(@Param("userIds") Collection<Long> userIds);
 }
@@ -0,0 +1,133 @@
+package com.example.SocialStream.repositories;
+
+import com.example.SocialStream.DTO.VideoDescriptor;
+import com.example.SocialStream.DTO.VideoResponseDTO;
+import com.example.SocialStream.entities.VideoCatalogEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Catalog reads against the flattened video_catalog table, and the statements that keep it in step with media/video
+ */
+@Repository
+public interface VideoCatalogRepository extends JpaRepository<VideoCatalogEntry, Long> {
+
+    String COLUMNS = "id, mediaurl, thumbnailurl, duration, title, uploaded_at, " +
+                     "director, `year`, view_count, description, rating, `cast`, genre";
+    String SOURCE_COLUMNS = "m.id, m.mediaurl, m.thumbnailurl, m.duration, m.title, m.uploaded_at, " +
+                            "v.director, v.`year`, v.view_count, v.description, v.rating, v.`cast`, v.genre";
+    String UPSERT_SUFFIX = "ON DUPLICATE KEY UPDATE mediaurl = VALUES(mediaurl), thumbnailurl = VALUES(thumbnailurl), " +
+                           "duration = VALUES(duration), title = VALUES(title), uploaded_at = VALUES(uploaded_at), " +
+                           "director = VALUES(director), `year` = VALUES(`year`), view_count = VALUES(view_count), " +
+                           "description = VALUES(description), rating = VALUES(rating), `cast` = VALUES(`cast`), " +
+                           "genre = VALUES(genre)";
+
+    Optional<VideoCatalogEntry> findFirstByTitle(String title);
+
+    /**
+     * One page of videos whose title contains the pattern (case-insensitive), newest first
+     * Projects straight into the response DTO
+     */
+    @Query("SELECT new com.example.SocialStream.DTO.VideoResponseDTO(c.id, c.mediaurl, c.thumbnailurl, c.duration, " +
+           "c.title, c.uploadedAt, c.director, c.viewCount, c.description, c.rating, c.cast) " +
+           "FROM VideoCatalogEntry c WHERE LOWER(c.title) LIKE LOWER(CONCAT('%', :pattern, '%')) ORDER BY c.id DESC")
+    List<VideoResponseDTO> searchByTitlePattern(@Param("pattern") String pattern, Pageable pageable);
+
+    /**
+     * Catalog descriptors for the given video ids, in no particular order
+     */
+    @Query("SELECT new com.example.SocialStream.DTO.VideoDescriptor(c.id, c.title, c.mediaurl, c.thumbnailurl, " +
+           "c.duration, c.uploadedAt, c.director, c.year, c.genre, c.rating, c.description, c.cast, c.viewCount) " +
+           "FROM VideoCatalogEntry c WHERE c.id IN :ids")
+    List<VideoDescriptor> findDescriptorsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Ids of the most popular videos, scoring views at 0.7 and rating (5 when unrated) at 30 per point
+     */
+    @Query("SELECT c.id FROM VideoCatalogEntry c ORDER BY (c.viewCount * 0.7 + COALESCE(c.rating, 5) * 30) DESC, c.id DESC")
+    List<Long> findIdsByPopularity(Pageable pageable);
+
+    /**
+     * Response DTOs for the given video ids, in no particular order
+     */
+    @Query("SELECT new com.example.SocialStream.DTO.VideoResponseDTO(c.id, c.mediaurl, c.thumbnailurl, c.duration, " +
+           "c.title, c.uploadedAt, c.director, c.viewCount, c.description, c.rating, c.cast) " +
+           "FROM VideoCatalogEntry c WHERE c.id IN :ids")
+    List<VideoResponseDTO> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Searchable fields of every video, streamed row by row (MySQL streams with fetch size MIN_VALUE)
+     * Returns rows of [id, title, director, cast, genre, description, viewCount, year, rating]
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT c.id, c.title, c.director, c.cast, c.genre, c.description, c.viewCount, c.year, c.rating " +
+           "FROM VideoCatalogEntry c")
+    Stream<Object[]> streamSearchDocuments();
+
+    /**
+     * Titles and view counts of every video, streamed for the autocomplete dictionary
+     * Returns rows of [id, title, viewCount]
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT c.id, c.title, c.viewCount FROM VideoCatalogEntry c")
+    Stream<Object[]> streamTitles();
+
+    /**
+     * Ids of videos uploaded at or after the given time
+     */
+    @Query("SELECT c.id FROM VideoCatalogEntry c WHERE c.uploadedAt >= :since")
+    List<Long> findIdsUploadedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Searchable fields of the given videos
+     * Returns rows of [id, title, director, cast, genre, description, viewCount, year, rating]
+     */
+    @Query("SELECT c.id, c.title, c.director, c.cast, c.genre, c.description, c.viewCount, c.year, c.rating " +
+           "FROM VideoCatalogEntry c WHERE c.id IN :ids")
+    List<Object[]> findSearchDocumentsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Copy the current media/video rows of the given videos into the catalog
+     */
+    @Modifying
+    @Query(value = "INSERT INTO video_catalog (" + COLUMNS + ") " +
+                   "SELECT " + SOURCE_COLUMNS + " FROM media m JOIN video v ON v.id = m.id WHERE m.id IN :ids " +
+                   UPSERT_SUFFIX,
+            nativeQuery = true)
+    int refresh(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "UPDATE video_catalog SET view_count = view_count + 1 WHERE id = :id", nativeQuery = true)
+    int incrementViewCount(@Param("id") Long id);
+
+    /**
+     * Copy every media/video row into the catalog, adding missing rows and overwriting rows that drifted
+     */
+    @Modifying
+    @Query(value = "INSERT INTO video_catalog (" + COLUMNS + ") " +
+                   "SELECT " + SOURCE_COLUMNS + " FROM media m JOIN video v ON v.id = m.id " +
+                   UPSERT_SUFFIX,
+            nativeQuery = true)
+    int refreshAll();
+
+    /**
+     * Remove catalog rows whose video no longer exists
+     */
+    @Modifying
+    @Query(value = "DELETE c FROM video_catalog c LEFT JOIN video v ON v.id = c.id WHERE v.id IS NULL",
+            nativeQuery = true)
+    int deleteOrphans();
+}
@@ -0,0 +1,248 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.DTO.AutocompleteSuggestionDTO;
+import com.example.SocialStream.repositories.SearchQueryDailyRepository;
+import com.example.SocialStream.repositories.VideoCatalogRepository;
+import com.example.SocialStream.utils.SearchText;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Search-as-you-type completions over video titles and popular search queries.
+ * Every title is indexed from the start of each of its words, so "knight" completes "The Dark Knight".
+ * Keys are kept in one sorted array: all completions of a prefix form a contiguous range, like the
+ * subtree of a trie, and a max-weight segment tree over that array yields the top K of the range
+ * without scanning it. The structure is immutable and swapped in whole on each rebuild.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AutocompleteService {
+
+    private final VideoCatalogRepository videoCatalogRepository;
+    private final SearchQueryDailyRepository searchQueryDailyRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final int MAX_LIMIT = 20;
+    private static final int POPULAR_QUERY_COUNT = 5_000;
+    private static final int POPULAR_QUERY_DAYS = 30;
+    private static final long QUERY_WEIGHT = 100; // one search counts as much as this many views
+    private static final int MAX_SUFFIXES_PER_TITLE = 8;
+
+    private volatile Dictionary dictionary = Dictionary.EMPTY;
+
+    private record Entry(String key, String text, Long videoId, long weight) {}
+
+    private static final class Dictionary {
+        static final Dictionary EMPTY = new Dictionary(List.of());
+
+        private final String[] keys;
+        private final String[] texts;
+        private final Long[] videoIds;
+        private final long[] weights;
+        private final int[] tree; // tree[n + i] = i; inner nodes hold the index of the heavier child
+        private final int size;
+
+        Dictionary(List<Entry> entries) {
+            List<Entry> sorted = new ArrayList<>(entries);
+            sorted.sort((a, b) -> a.key().compareTo(b.key()));
+            size = sorted.size();
+            keys = new String[size];
+            texts = new String[size];
+            videoIds = new Long[size];
+            weights = new long[size];
+            for (int i = 0; i < size; i++) {
+                Entry entry = sorted.get(i);
+                keys[i] = entry.key();
+                texts[i] = entry.text();
+                videoIds[i] = entry.videoId();
+                weights[i] = entry.weight();
+            }
+            tree = new int[Math.max(2 * size, 2)];
+            for (int i = 0; i < size; i++) {
+                tree[size + i] = i;
+            }
+            for (int node = size - 1; node > 0; node--) {
+                tree[node] = heavier(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+
+        /**
+         * Index of the heaviest entry in [from, to)
+         */
+        int maxIn(int from, int to) {
+            int best = -1;
+            for (int lo = from + size, hi = to + size; lo < hi; lo >>= 1, hi >>= 1) {
+                if ((lo & 1) == 1) {
+                    best = heavier(best, tree[lo++]);
+                }
+                if ((hi & 1) == 1) {
+                    best = heavier(best, tree[--hi]);
+                }
+            }
+            return best;
+        }
+
+        int heavier(int a, int b) {
+            if (a < 0) {
+                return b;
+            }
+            if (b < 0) {
+                return a;
+            }
+            return weights[b] > weights[a] ? b : a;
+        }
+
+        // First index whose key is >= prefix
+        int lowerBound(String prefix) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(prefix) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // First index past the keys starting with prefix
+        int upperBound(String prefix, int from) {
+            int lo = from;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].startsWith(prefix)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    private record Range(int from, int to, int best) {}
+
+    /**
+     * Top completions for a partially typed query, heaviest first
+     */
+    public List<AutocompleteSuggestionDTO> complete(String prefix, int limit) {
+        String key = toKey(prefix);
+        int wanted = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        Dictionary current = dictionary;
+        if (key.isEmpty() || current.size == 0) {
+            return List.of();
+        }
+
+        int from = current.lowerBound(key);
+        int to = current.upperBound(key, from);
+        if (from >= to) {
+            return List.of();
+        }
+
+        // Repeatedly take the heaviest entry and split its range around it
+        PriorityQueue<Range> queue = new PriorityQueue<>(
+                (a, b) -> Long.compare(current.weights[b.best()], current.weights[a.best()]));
+        queue.add(new Range(from, to, current.maxIn(from, to)));
+        List<AutocompleteSuggestionDTO> suggestions = new ArrayList<>(wanted);
+        Set<String> seen = new HashSet<>();
+        while (!queue.isEmpty() && suggestions.size() < wanted) {
+            Range range = queue.poll();
+            int best = range.best();
+            // A title appears once per word suffix; show it once
+            if (seen.add(current.texts[best] + '\u0000' + current.videoIds[best])) {
+                suggestions.add(new AutocompleteSuggestionDTO(current.texts[best], current.videoIds[best]));
+            }
+            if (range.from() < best) {
+                queue.add(new Range(range.from(), best, current.maxIn(range.from(), best)));
+            }
+            if (best + 1 < range.to()) {
+                queue.add(new Range(best + 1, range.to(), current.maxIn(best + 1, range.to())));
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Rebuild the dictionary from video titles and recent popular queries
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 300_000, initialDelay = 300_000)
+    public void rebuild() {
+        try {
+            List<Entry> entries = new ArrayList<>();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = videoCatalogRepository.streamTitles()) {
+                    rows.forEach(row -> addTitle(entries, (Long) row[0], (String) row[1], (Long) row[2]));
+                }
+            });
+
+            Map<String, Long> queryCounts = new HashMap<>();
+            Map<String, String> queryTexts = new HashMap<>();
+            List<Object[]> popular = searchQueryDailyRepository.findTopQueries(
+                    LocalDate.now().minusDays(POPULAR_QUERY_DAYS), PageRequest.of(0, POPULAR_QUERY_COUNT));
+            for (Object[] row : popular) {
+                String text = ((String) row[0]).trim();
+                String key = SearchText.normalize(text);
+                if (!key.isEmpty()) {
+                    queryCounts.merge(key, (Long) row[1], Long::sum);
+                    queryTexts.putIfAbsent(key, text);
+                }
+            }
+            queryCounts.forEach((key, count) ->
+                    entries.add(new Entry(key, queryTexts.get(key), null, count * QUERY_WEIGHT)));
+
+            dictionary = new Dictionary(entries);
+            log.info("Built autocomplete dictionary with {} keys", entries.size());
+        } catch (Exception e) {
+            log.warn("Failed to build autocomplete dictionary: {}", e.getMessage());
+        }
+    }
+
+    private void addTitle(List<Entry> entries, Long videoId, String title, Long viewCount) {
+        String normalized = SearchText.normalize(title);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        long weight = viewCount != null ? viewCount : 0;
+        entries.add(new Entry(normalized, title, videoId, weight));
+
+        // Also reachable from later words of the title
+        int suffixes = 0;
+        for (int i = normalized.indexOf(' '); i >= 0 && suffixes < MAX_SUFFIXES_PER_TITLE;
+             i = normalized.indexOf(' ', i + 1)) {
+            entries.add(new Entry(normalized.substring(i + 1), title, videoId, weight));
+            suffixes++;
+        }
+    }
+
+    // Normalize like the indexed keys, but keep a trailing space so "dark " does not complete "darkness"
+    private String toKey(String prefix) {
+        String normalized = SearchText.normalize(prefix);
+        if (!normalized.isEmpty() && prefix != null && !prefix.isEmpty()
+                && Character.isWhitespace(prefix.charAt(prefix.length() - 1))) {
+            return normalized + " ";
+        }
+        return normalized;
+    }
+}
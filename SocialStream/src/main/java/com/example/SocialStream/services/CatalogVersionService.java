@@ -0,0 +1,87 @@
+package com.example.SocialStream.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cluster-wide catalog version, bumped in Redis whenever the video catalog changes.
+ * Search result caches key their entries with it, so one bump invalidates them on every node
+ * without scanning keys. Nodes poll the shared value every two seconds.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogVersionService {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final VideoSearchIndex videoSearchIndex;
+
+    private static final String VERSION_KEY = "search:catalog:version";
+
+    @Value("${search.cache.redis.enabled:true}")
+    private boolean redisEnabled;
+
+    private volatile long version = 0;
+
+    public long current() {
+        return version;
+    }
+
+    /**
+     * Move to a new version; runs after commit when called inside a transaction
+     */
+    public void bump() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpNow();
+                }
+            });
+        } else {
+            bumpNow();
+        }
+    }
+
+    /**
+     * Pick up version bumps made by other nodes, and bring the search index up to the current version
+     */
+    @Scheduled(fixedDelay = 2000)
+    public void refresh() {
+        if (redisEnabled) {
+            try {
+                String shared = stringRedisTemplate.opsForValue().get(VERSION_KEY);
+                if (shared != null) {
+                    version = Long.parseLong(shared);
+                }
+            } catch (Exception e) {
+                log.debug("Redis unavailable, keeping catalog version {}: {}", version, e.getMessage());
+            }
+        }
+        long current = version;
+        if (!videoSearchIndex.isCaughtUpTo(current)) {
+            videoSearchIndex.catchUpTo(current);
+        }
+    }
+
+    private void bumpNow() {
+        if (redisEnabled) {
+            try {
+                Long shared = stringRedisTemplate.opsForValue().increment(VERSION_KEY);
+                if (shared != null) {
+                    version = shared;
+                    return;
+                }
+            } catch (Exception e) {
+                log.warn("Failed to bump catalog version in Redis: {}", e.getMessage());
+            }
+        }
+        version++;
+    }
+}
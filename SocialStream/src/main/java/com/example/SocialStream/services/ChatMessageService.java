@@ -5,13 +5,14 @@ import com.example.SocialStream.DTO.SendRoomMessageDTO;
 import com.example.SocialStream.entities.ChatMessage;
 import com.example.SocialStream.entities.Room;
 import com.example.SocialStream.entities.User;
-import com.example.SocialStream.enums.Reaction;
+import com.example.SocialStream.enums.ReactionTarget;
 import com.example.SocialStream.exceptions.InvalidOperationException;
 import com.example.SocialStream.exceptions.UserNotFoundException;
 import com.example.SocialStream.repositories.ChatMessageRepository;
 import com.example.SocialStream.repositories.RoomMemberRepository;
 import com.example.SocialStream.repositories.RoomRepository;
 import com.example.SocialStream.repositories.UserRepository;
+import com.example.SocialStream.services.ReactionAggregateService.MessageReactions;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -21,6 +22,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +32,8 @@ public class ChatMessageService {
     private final RoomRepository roomRepository;
     private final UserRepository userRepository;
     private final RoomMemberRepository roomMemberRepository;
+    private final ReadReceiptService readReceiptService;
+    private final ReactionAggregateService reactionAggregateService;
 
     /**
      * Send a message to a room
@@ -59,25 +63,6 @@ public class ChatMessageService {
         return new ChatMessageDTO(saved);
     }
 
-    /**
-     * Add a reaction to a chat message
-     */
-    @Transactional
-    public ChatMessageDTO addReaction(Long messageId, Long userId, Reaction reaction) {
-        ChatMessage message = chatMessageRepository.findById(messageId)
-                .orElseThrow(() -> new InvalidOperationException("Message not found with id: " + messageId));
-
-        // Validate that the user is a member of the room
-        if (!roomMemberRepository.existsByRoomIdAndUserId(message.getRoom().getId(), userId)) {
-            throw new InvalidOperationException("You must be a member of the room to react to messages");
-        }
-
-        // Update reaction
-        message.setReaction(reaction);
-        ChatMessage saved = chatMessageRepository.save(message);
-        return new ChatMessageDTO(saved);
-    }
-
     /**
      * Get room messages with pagination
      */
@@ -88,8 +73,10 @@ public class ChatMessageService {
         }
 
         Pageable pageable = PageRequest.of(page, size);
-        return chatMessageRepository.findByRoomIdWithSenderAndRoom(roomId, pageable)
+        Page<ChatMessageDTO> messages = chatMessageRepository.findByRoomIdWithSenderAndRoom(roomId, pageable)
                 .map(ChatMessageDTO::new);
+        attachReactions(messages.getContent(), userId);
+        return messages;
     }
 
     /**
@@ -102,10 +89,25 @@ public class ChatMessageService {
         }
 
         Pageable limit = PageRequest.of(0, 50);
-        return chatMessageRepository.findTop50ByRoomIdWithSender(roomId, limit)
+        List<ChatMessageDTO> messages = chatMessageRepository.findTop50ByRoomIdWithSender(roomId, limit)
                 .stream()
                 .map(ChatMessageDTO::new)
                 .collect(Collectors.toList());
+        attachReactions(messages, userId);
+        return messages;
+    }
+
+    /**
+     * Count room messages newer than the user's read watermark
+     */
+    public long getUnreadCount(Long roomId, Long userId) {
+        // Validate room membership
+        if (!roomMemberRepository.existsByRoomIdAndUserId(roomId, userId)) {
+            throw new InvalidOperationException("You must be a member of the room to view messages");
+        }
+
+        long watermark = readReceiptService.getRoomReadWatermark(userId, roomId);
+        return chatMessageRepository.countByRoomIdAndIdGreaterThanAndSenderIdNot(roomId, watermark, userId);
     }
 
     /**
@@ -115,4 +117,17 @@ public class ChatMessageService {
         return chatMessageRepository.findById(messageId)
                 .orElseThrow(() -> new InvalidOperationException("Message not found with id: " + messageId));
     }
+
+    /**
+     * Attach reaction counts and the viewer's own reaction for a page of messages in one batch
+     */
+    private void attachReactions(List<ChatMessageDTO> messages, Long viewerId) {
+        Map<Long, MessageReactions> reactions = reactionAggregateService.getReactions(
+                ReactionTarget.ROOM_MESSAGE, messages.stream().map(ChatMessageDTO::getId).toList(), viewerId);
+        messages.forEach(dto -> {
+            MessageReactions messageReactions = reactions.getOrDefault(dto.getId(), MessageReactions.NONE);
+            dto.setReactionCounts(messageReactions.counts());
+            dto.setMyReaction(messageReactions.mine());
+        });
+    }
 }
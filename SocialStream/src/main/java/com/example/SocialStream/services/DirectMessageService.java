@@ -2,38 +2,59 @@ package com.example.SocialStream.services;
 
 import com.example.SocialStream.DTO.ConversationSummaryDTO;
 import com.example.SocialStream.DTO.DirectMessageDTO;
+import com.example.SocialStream.DTO.ReactionDeltaDTO;
 import com.example.SocialStream.DTO.SendMessageRequestDTO;
 import com.example.SocialStream.entities.DirectMessage;
 import com.example.SocialStream.entities.User;
 import com.example.SocialStream.enums.Reaction;
+import com.example.SocialStream.enums.ReactionTarget;
 import com.example.SocialStream.exceptions.InvalidOperationException;
 import com.example.SocialStream.exceptions.UserNotFoundException;
 import com.example.SocialStream.repositories.DirectMessageRepository;
-import com.example.SocialStream.repositories.FriendRepository;
 import com.example.SocialStream.repositories.UserRepository;
+import com.example.SocialStream.services.ReactionAggregateService.MessageReactions;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class DirectMessageService {
      private final DirectMessageRepository directMessageRepository;
      private final UserRepository userRepository;
-     private final FriendRepository friendRepository;
+     private final FriendshipCacheService friendshipCacheService;
+     private final ReadReceiptService readReceiptService;
+     private final ReactionAggregateService reactionAggregateService;
+     private final PendingDeliveryService pendingDeliveryService;
+     private final SimpMessagingTemplate messagingTemplate;
 
      public Page<DirectMessageDTO> getChatHistory(User currentUser, User chatPartner, int pageNo, int pageSize) {
          Pageable pageable = PageRequest.of(pageNo, pageSize);
 
-         return directMessageRepository.findConversation(currentUser, chatPartner, pageable)
+         Page<DirectMessageDTO> messages = directMessageRepository.findConversation(currentUser, chatPartner, pageable)
                  .map(DirectMessageDTO::new);
+
+         // Attach reaction counts and the viewer's own reaction for the whole page in one batch
+         Map<Long, MessageReactions> reactions = reactionAggregateService.getReactions(
+                 ReactionTarget.DIRECT_MESSAGE, messages.map(DirectMessageDTO::getId).getContent(), currentUser.getId());
+         messages.forEach(dto -> {
+             MessageReactions messageReactions = reactions.getOrDefault(dto.getId(), MessageReactions.NONE);
+             dto.setReactionCounts(messageReactions.counts());
+             dto.setMyReaction(messageReactions.mine());
+         });
+         return messages;
      }
 
      public Page<DirectMessageDTO> getChatHistoryByIds(Long currentUserId, Long chatPartnerId, int pageNo, int pageSize) {
@@ -48,7 +69,7 @@ public class DirectMessageService {
      @Transactional
      public DirectMessageDTO sendMessage(Long senderId, SendMessageRequestDTO dto) {
          // Validate friendship
-         if (!friendRepository.areFriends(senderId, dto.getRecipientId())) {
+         if (!friendshipCacheService.areFriends(senderId, dto.getRecipientId())) {
              throw new InvalidOperationException("You can only send messages to friends");
          }
 
@@ -65,31 +86,39 @@ public class DirectMessageService {
          message.setContent(dto.getContent());
          message.setSendTime(LocalDateTime.now());
 
-         // Save and return
          DirectMessage saved = directMessageRepository.save(message);
+
+         // Log for the recipient and push only once the message is stored, so a rolled back send is never replayed.
+         // The sequence belongs to the recipient's log; the sender's copy goes back without one.
+         DirectMessageDTO delivered = new DirectMessageDTO(saved);
+         afterCommit(() -> {
+             delivered.setSequence(pendingDeliveryService.append(recipient.getId(), delivered));
+             messagingTemplate.convertAndSend("/queue/" + recipient.getId() + "/messages", (Object) delivered);
+         });
          return new DirectMessageDTO(saved);
      }
 
-     @Transactional
      public DirectMessageDTO addReaction(Long messageId, Long userId, Reaction reaction) {
-         DirectMessage message = directMessageRepository.findById(messageId)
-                 .orElseThrow(() -> new InvalidOperationException("Message not found with id: " + messageId));
-
-         // Validate that the user is part of the conversation
-         if (!message.getSender().getId().equals(userId) && !message.getRecipient().getId().equals(userId)) {
-             throw new InvalidOperationException("You can only react to messages you're part of");
-         }
-
-         // Update reaction
-         message.setReaction(reaction);
-         DirectMessage saved = directMessageRepository.save(message);
-         return new DirectMessageDTO(saved);
+         // Toggle in the reaction aggregate (validates that the user is part of the conversation)
+         ReactionDeltaDTO delta = reactionAggregateService.toggleDirectReaction(messageId, userId, reaction);
+
+         DirectMessageDTO dto = new DirectMessageDTO(getMessage(messageId));
+         dto.setReactionCounts(reactionAggregateService.getReactions(ReactionTarget.DIRECT_MESSAGE, List.of(messageId), userId)
+                 .getOrDefault(messageId, MessageReactions.NONE).counts());
+         dto.setMyReaction(delta.getReaction());
+         return dto;
      }
 
      public List<ConversationSummaryDTO> getConversations(Long userId) {
          // Get latest message for each conversation using optimized query
          List<DirectMessage> latestMessages = directMessageRepository.findLatestMessagesByUserId(userId);
 
+         // Unread counts per partner in one grouped query against stored watermarks
+         Map<Long, Long> unreadBySender = new HashMap<>();
+         for (Object[] row : directMessageRepository.countUnreadBySender(userId)) {
+             unreadBySender.put((Long) row[0], (Long) row[1]);
+         }
+
          // Create conversation summaries
          List<ConversationSummaryDTO> summaries = new ArrayList<>();
          for (DirectMessage message : latestMessages) {
@@ -97,13 +126,21 @@ public class DirectMessageService {
                      ? message.getRecipient() 
                      : message.getSender();
 
+             long unreadCount = unreadBySender.getOrDefault(partner.getId(), 0L);
+             Long unflushedWatermark = readReceiptService.getUnflushedDirectReadWatermark(userId, partner.getId());
+             if (unreadCount > 0 && unflushedWatermark != null) {
+                 // Watermark advanced since the last flush, recount against the in-memory value
+                 unreadCount = directMessageRepository.countBySenderIdAndRecipientIdAndIdGreaterThan(
+                         partner.getId(), userId, unflushedWatermark);
+             }
+
              ConversationSummaryDTO summary = new ConversationSummaryDTO(
                      partner.getId(),
                      partner.getUsername(),
                      partner.getProfilePictureUrl(),
                      message.getContent(),
                      message.getSendTime(),
-                     0 // unreadCount - can be implemented later
+                     (int) unreadCount
              );
              summaries.add(summary);
          }
@@ -115,4 +152,17 @@ public class DirectMessageService {
          DirectMessage directMessage = directMessageRepository.findById(messageId).orElseThrow(() -> new InvalidOperationException("Message not found with id: " + messageId));
          return directMessage;
      }
+
+     private void afterCommit(Runnable action) {
+         if (TransactionSynchronizationManager.isSynchronizationActive()) {
+             TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                 @Override
+                 public void afterCommit() {
+                     action.run();
+                 }
+             });
+         } else {
+             action.run();
+         }
+     }
 }
@@ -0,0 +1,353 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.DTO.FriendReqResponseDTO;
+import com.example.SocialStream.repositories.FriendRepository;
+import com.example.SocialStream.repositories.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Friends-of-friends suggestions ranked by mutual friend count.
+ * The friend graph is held in memory as sorted long[] adjacency arrays: one graph of accepted
+ * friendships and one of every requested pair (any status), which are never suggested.
+ * Both are loaded at startup, patched as requests are sent and accepted, and reloaded every 10 minutes
+ * to pick up changes made on other nodes. Patches only add edges: a friendship that is removed or
+ * declined stays in the graph until the next reload.
+ * Ranked lists are cached per user with a TTL. A stale or patched list is still served while the
+ * service's own fork-join pool recomputes it, and the lists of recently active users are recomputed
+ * in parallel after each reload. Only a user's first request, with nothing cached to serve, ranks
+ * on the calling thread.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FriendSuggestionService {
+
+    private final FriendRepository friendRepository;
+    private final UserRepository userRepository;
+
+    private static final int MAX_SUGGESTIONS = 100;
+    private static final long SUGGESTION_TTL_MILLIS = 10 * 60_000;
+    private static final long ACTIVE_WINDOW_MILLIS = 30 * 60_000; // refresh users who asked within this window
+    private static final long[] NO_EDGES = new long[0];
+
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private final Map<Long, Suggestions> suggestionCache = new ConcurrentHashMap<>();
+    private final Set<Long> recomputing = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile Graph graph; // null until the first load completes
+
+    // Edges committed while a load is running; the load may have read before them, so they are re-applied
+    private final Object patchLock = new Object();
+    private final List<Patch> patchesDuringLoad = new ArrayList<>();
+    private boolean loading;
+
+    private record Graph(Map<Long, long[]> friends, Map<Long, long[]> connected) {}
+
+    private record Patch(Long userId, Long friendId, boolean accepted) {}
+
+    private record Suggestions(long[] userIds, int[] mutualCounts, long computedAt, long requestedAt) {
+        boolean isFresh(long now) {
+            return now - computedAt < SUGGESTION_TTL_MILLIS;
+        }
+
+        Suggestions requested(long now) {
+            return new Suggestions(userIds, mutualCounts, computedAt, now);
+        }
+
+        Suggestions expired() {
+            return new Suggestions(userIds, mutualCounts, 0, requestedAt);
+        }
+    }
+
+    /**
+     * A page of suggestions for the user, best first
+     */
+    public List<FriendReqResponseDTO> getSuggestions(Long userId, int page, int size) {
+        Suggestions suggestions = suggestionsFor(userId);
+        int from = Math.min(page * size, suggestions.userIds().length);
+        int to = Math.min(from + size, suggestions.userIds().length);
+        if (from == to) {
+            return List.of();
+        }
+
+        // A stale list may still hold users connected since it was ranked
+        Graph current = graph;
+        long[] connected = current != null ? current.connected().getOrDefault(userId, NO_EDGES) : NO_EDGES;
+
+        Map<Long, String> usernames = new HashMap<>();
+        List<Long> ids = Arrays.stream(suggestions.userIds(), from, to).boxed().toList();
+        for (Object[] row : userRepository.findUsernamesByIds(ids)) {
+            usernames.put((Long) row[0], (String) row[1]);
+        }
+
+        List<FriendReqResponseDTO> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            long candidateId = suggestions.userIds()[i];
+            String username = usernames.get(candidateId);
+            if (username != null && Arrays.binarySearch(connected, candidateId) < 0) {
+                result.add(new FriendReqResponseDTO(null, candidateId, username, suggestions.mutualCounts()[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether the user has any friends-of-friends to rank; if not, callers fall back to other suggestions
+     */
+    public boolean hasCandidates(Long userId) {
+        return suggestionsFor(userId).userIds().length > 0;
+    }
+
+    /**
+     * Record a new friend request so the pair is no longer suggested
+     */
+    public void onRequestSent(Long userId, Long friendId) {
+        afterCommit(() -> patch(new Patch(userId, friendId, false)));
+    }
+
+    /**
+     * Record an accepted friendship
+     */
+    public void onFriendshipAccepted(Long userId, Long friendId) {
+        // Friends of either user see new candidates once their cached lists expire
+        afterCommit(() -> patch(new Patch(userId, friendId, true)));
+    }
+
+    /**
+     * Load the graph in the background at startup; until it is loaded users get no friends-of-friends
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        refresh();
+    }
+
+    /**
+     * Reload the graph and recompute the lists of recently active users, in the background
+     */
+    @Scheduled(fixedDelay = 10 * 60_000, initialDelay = 10 * 60_000)
+    public void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        pool.execute(() -> {
+            try {
+                refreshNow();
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    private void refreshNow() {
+        long now = System.currentTimeMillis();
+        suggestionCache.entrySet().removeIf(entry -> now - entry.getValue().requestedAt() > ACTIVE_WINDOW_MILLIS);
+
+        // Reload even when no one asked lately, so an idle node does not serve a stale graph later
+        synchronized (patchLock) {
+            loading = true;
+            patchesDuringLoad.clear();
+        }
+        try {
+            Graph loaded = loadGraph();
+            synchronized (patchLock) {
+                patchesDuringLoad.forEach(patch -> applyTo(loaded, patch));
+                graph = loaded;
+            }
+            // Runs inside the pool, so the parallel stream uses the pool's workers
+            List<Long> activeUsers = List.copyOf(suggestionCache.keySet());
+            activeUsers.parallelStream().forEach(userId -> {
+                Suggestions previous = suggestionCache.get(userId);
+                Suggestions computed = compute(userId, now);
+                suggestionCache.put(userId, previous != null ? computed.requested(previous.requestedAt()) : computed);
+            });
+            log.debug("Refreshed friend suggestions for {} users", activeUsers.size());
+        } catch (Exception e) {
+            log.warn("Failed to refresh friend suggestions: {}", e.getMessage());
+        } finally {
+            synchronized (patchLock) {
+                loading = false;
+                patchesDuringLoad.clear();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private Suggestions suggestionsFor(Long userId) {
+        long now = System.currentTimeMillis();
+        Suggestions cached = suggestionCache.get(userId);
+        if (cached != null && !cached.isFresh(now)) {
+            recomputeInBackground(userId);
+        }
+        // Nothing to serve on a user's first request, so that one is ranked here
+        Suggestions fallback = cached != null ? cached : compute(userId, now);
+        return suggestionCache.compute(userId, (id, current) -> (current != null ? current : fallback).requested(now));
+    }
+
+    private void recomputeInBackground(Long userId) {
+        if (!recomputing.add(userId)) {
+            return;
+        }
+        pool.execute(() -> {
+            try {
+                Suggestions computed = compute(userId, System.currentTimeMillis());
+                suggestionCache.computeIfPresent(userId, (id, current) -> computed.requested(current.requestedAt()));
+            } finally {
+                recomputing.remove(userId);
+            }
+        });
+    }
+
+    private Suggestions compute(Long userId, long now) {
+        Graph current = graph;
+        if (current == null) {
+            return new Suggestions(NO_EDGES, new int[0], 0, now); // never fresh, so recomputed once loaded
+        }
+        long[] friends = current.friends().getOrDefault(userId, NO_EDGES);
+        long[] connected = current.connected().getOrDefault(userId, NO_EDGES);
+
+        // Count how many of the user's friends each friend-of-friend is connected to
+        Map<Long, int[]> mutualCounts = new HashMap<>();
+        for (long friendId : friends) {
+            for (long candidateId : current.friends().getOrDefault(friendId, NO_EDGES)) {
+                if (candidateId != userId && Arrays.binarySearch(connected, candidateId) < 0) {
+                    mutualCounts.computeIfAbsent(candidateId, id -> new int[1])[0]++;
+                }
+            }
+        }
+
+        List<Map.Entry<Long, int[]>> ranked = new ArrayList<>(mutualCounts.entrySet());
+        ranked.sort((a, b) -> a.getValue()[0] != b.getValue()[0]
+                ? Integer.compare(b.getValue()[0], a.getValue()[0])
+                : Long.compare(a.getKey(), b.getKey()));
+
+        int count = Math.min(ranked.size(), MAX_SUGGESTIONS);
+        long[] userIds = new long[count];
+        int[] counts = new int[count];
+        for (int i = 0; i < count; i++) {
+            userIds[i] = ranked.get(i).getKey();
+            counts[i] = ranked.get(i).getValue()[0];
+        }
+        return new Suggestions(userIds, counts, now, now);
+    }
+
+    private Graph loadGraph() {
+        List<Object[]> pairs = friendRepository.findAllPairs();
+        Map<Long, long[]> friends = new ConcurrentHashMap<>();
+        Map<Long, long[]> connected = new ConcurrentHashMap<>();
+
+        // Two passes: count degrees, then fill exactly sized arrays
+        Map<Long, int[]> friendDegrees = new HashMap<>();
+        Map<Long, int[]> connectedDegrees = new HashMap<>();
+        for (Object[] pair : pairs) {
+            boolean accepted = (Boolean) pair[2];
+            for (int side = 0; side < 2; side++) {
+                Long id = (Long) pair[side];
+                connectedDegrees.computeIfAbsent(id, k -> new int[1])[0]++;
+                if (accepted) {
+                    friendDegrees.computeIfAbsent(id, k -> new int[1])[0]++;
+                }
+            }
+        }
+        friendDegrees.forEach((id, degree) -> friends.put(id, new long[degree[0]]));
+        connectedDegrees.forEach((id, degree) -> connected.put(id, new long[degree[0]]));
+
+        Map<Long, int[]> friendFill = new HashMap<>();
+        Map<Long, int[]> connectedFill = new HashMap<>();
+        for (Object[] pair : pairs) {
+            Long a = (Long) pair[0];
+            Long b = (Long) pair[1];
+            boolean accepted = (Boolean) pair[2];
+            connected.get(a)[connectedFill.computeIfAbsent(a, k -> new int[1])[0]++] = b;
+            connected.get(b)[connectedFill.computeIfAbsent(b, k -> new int[1])[0]++] = a;
+            if (accepted) {
+                friends.get(a)[friendFill.computeIfAbsent(a, k -> new int[1])[0]++] = b;
+                friends.get(b)[friendFill.computeIfAbsent(b, k -> new int[1])[0]++] = a;
+            }
+        }
+        // Pairs requested in both directions show up twice; keep each neighbour once
+        friends.replaceAll((id, edges) -> Arrays.stream(edges).sorted().distinct().toArray());
+        connected.replaceAll((id, edges) -> Arrays.stream(edges).sorted().distinct().toArray());
+
+        log.debug("Loaded friend graph with {} users and {} pairs", connected.size(), pairs.size());
+        return new Graph(friends, connected);
+    }
+
+    private void patch(Patch patch) {
+        synchronized (patchLock) {
+            if (loading) {
+                patchesDuringLoad.add(patch);
+            }
+            Graph current = graph;
+            if (current != null) {
+                applyTo(current, patch);
+            }
+        }
+        // Keep serving the old lists until they are recomputed in the background
+        suggestionCache.computeIfPresent(patch.userId(), (id, suggestions) -> suggestions.expired());
+        suggestionCache.computeIfPresent(patch.friendId(), (id, suggestions) -> suggestions.expired());
+    }
+
+    private void applyTo(Graph target, Patch patch) {
+        addEdge(target.connected(), patch.userId(), patch.friendId());
+        if (patch.accepted()) {
+            addEdge(target.friends(), patch.userId(), patch.friendId());
+        }
+    }
+
+    // Copy-on-write insert keeps readers of the old array safe without locking
+    private void addEdge(Map<Long, long[]> edges, Long a, Long b) {
+        edges.compute(a, (id, current) -> withEdge(current, b));
+        edges.compute(b, (id, current) -> withEdge(current, a));
+    }
+
+    private long[] withEdge(long[] current, long id) {
+        long[] base = current != null ? current : NO_EDGES;
+        int position = Arrays.binarySearch(base, id);
+        if (position >= 0) {
+            return base;
+        }
+        int insertAt = -position - 1;
+        long[] updated = new long[base.length + 1];
+        System.arraycopy(base, 0, updated, 0, insertAt);
+        updated[insertAt] = id;
+        System.arraycopy(base, insertAt, updated, insertAt + 1, base.length - insertAt);
+        return updated;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.repositories.FriendRepository;
+import com.example.SocialStream.utils.TinyLfuCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adjacency cache for accepted friendships.
+ * Each user's friend ids are kept as a sorted long[] in process (binary search lookups)
+ * and as a Redis set shared across nodes, so DM sends and typing indicators
+ * authorize without a COUNT query against the friendships table.
+ * Evictions bump a per-user generation key; a set loaded from the database is only written back
+ * if the generation is still the one seen before the load, so an eviction that lands between
+ * the read and the write cannot be undone by it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FriendshipCacheService {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final FriendRepository friendRepository;
+
+    private static final String FRIENDS_PREFIX = "friends:";
+    private static final String GENERATION_PREFIX = "friends:gen:";
+    private static final String EMPTY_MARKER = "-1"; // Redis cannot hold an empty set
+    private static final long EXPIRATION_HOURS = 24;
+    private static final long LOCAL_TTL_MILLIS = 30_000; // bounds staleness on other nodes after eviction
+    private static final int LOCAL_CAPACITY = 50_000;
+    private static final int SADD_CHUNK = 1_000; // keeps unpack() below Lua's stack limit
+
+    // Replaces the set only if no eviction bumped the generation since the caller read it
+    private static final DefaultRedisScript<Long> SAVE_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then return 0 end " +
+            "redis.call('DEL', KEYS[1]) " +
+            "for i = 3, #ARGV, " + SADD_CHUNK + " do " +
+            "  redis.call('SADD', KEYS[1], unpack(ARGV, i, math.min(i + " + (SADD_CHUNK - 1) + ", #ARGV))) " +
+            "end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "return 1",
+            Long.class);
+
+    // Bumps the generation and drops the set, so in-flight loads of the old state are discarded
+    private static final DefaultRedisScript<Long> EVICT_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[2]) " +
+            "redis.call('EXPIRE', KEYS[2], ARGV[1]) " +
+            "return redis.call('DEL', KEYS[1])",
+            Long.class);
+
+    private final TinyLfuCache<Long, long[]> localCache = new TinyLfuCache<>(LOCAL_CAPACITY, LOCAL_TTL_MILLIS);
+    private final AtomicLong localEvictions = new AtomicLong(); // same guard for this node's local entries
+
+    /**
+     * Check whether two users have an accepted friendship
+     */
+    public boolean areFriends(Long userId, Long friendId) {
+        if (userId == null || friendId == null) {
+            return false;
+        }
+        return Arrays.binarySearch(getFriendIds(userId), friendId) >= 0;
+    }
+
+    /**
+     * Get the sorted friend ids of a user, loading from Redis or the database on a miss
+     */
+    public long[] getFriendIds(Long userId) {
+        long[] cached = localCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long evictionsBefore = localEvictions.get();
+        long[] friendIds = loadFromRedis(userId);
+        boolean current = true;
+        if (friendIds == null) {
+            String generation = readGeneration(userId);
+            friendIds = loadFromDatabase(userId);
+            current = generation == null || saveToRedis(userId, generation, friendIds);
+        }
+
+        if (current && localEvictions.get() == evictionsBefore) {
+            localCache.put(userId, friendIds);
+        }
+        return friendIds;
+    }
+
+    /**
+     * Drop cached adjacency for both sides of a friendship.
+     * Runs after commit when called inside a transaction so readers cannot re-cache the old state.
+     */
+    public void evict(Long userId, Long friendId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(userId, friendId);
+                }
+            });
+        } else {
+            evictNow(userId, friendId);
+        }
+    }
+
+    private void evictNow(Long userId, Long friendId) {
+        localEvictions.incrementAndGet();
+        localCache.remove(userId);
+        localCache.remove(friendId);
+        String ttl = String.valueOf(TimeUnit.HOURS.toSeconds(EXPIRATION_HOURS));
+        for (Long id : List.of(userId, friendId)) {
+            try {
+                stringRedisTemplate.execute(EVICT_SCRIPT, List.of(friendsKey(id), generationKey(id)), ttl);
+            } catch (Exception e) {
+                log.warn("Failed to evict friend set of user {} from Redis: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    // The set and its generation share a hash slot so the scripts also run on Redis Cluster
+    private static String friendsKey(Long userId) {
+        return FRIENDS_PREFIX + "{" + userId + "}";
+    }
+
+    private static String generationKey(Long userId) {
+        return GENERATION_PREFIX + "{" + userId + "}";
+    }
+
+    private long[] loadFromRedis(Long userId) {
+        try {
+            Set<String> members = stringRedisTemplate.opsForSet().members(friendsKey(userId));
+            if (members == null || members.isEmpty()) {
+                return null;
+            }
+            return members.stream()
+                    .filter(member -> !EMPTY_MARKER.equals(member))
+                    .mapToLong(Long::parseLong)
+                    .sorted()
+                    .toArray();
+        } catch (Exception e) {
+            log.debug("Redis unavailable, loading friends from database: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Current eviction generation of a user, or null if Redis is unavailable
+     */
+    private String readGeneration(Long userId) {
+        try {
+            String generation = stringRedisTemplate.opsForValue().get(generationKey(userId));
+            return generation != null ? generation : "0";
+        } catch (Exception e) {
+            log.debug("Redis unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private long[] loadFromDatabase(Long userId) {
+        return friendRepository.findFriendIds(userId).stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    /**
+     * Write a freshly loaded set back to Redis
+     * @return false if an eviction happened since the generation was read
+     */
+    private boolean saveToRedis(Long userId, String generation, long[] friendIds) {
+        try {
+            List<String> args = new ArrayList<>(friendIds.length + 3);
+            args.add(generation);
+            args.add(String.valueOf(TimeUnit.HOURS.toSeconds(EXPIRATION_HOURS)));
+            if (friendIds.length == 0) {
+                args.add(EMPTY_MARKER);
+            }
+            for (long friendId : friendIds) {
+                args.add(String.valueOf(friendId));
+            }
+            Long saved = stringRedisTemplate.execute(SAVE_SCRIPT,
+                    List.of(friendsKey(userId), generationKey(userId)), args.toArray());
+            return saved == null || saved == 1;
+        } catch (Exception e) {
+            log.debug("Redis unavailable: {}", e.getMessage());
+            return true;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.entities.Friendship;
+import com.example.SocialStream.enums.FriendshipStatus;
+import com.example.SocialStream.repositories.FriendRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Normalizes friendship rows created before the unordered-pair constraint existed.
+ * Works through un-normalized rows in batches; where a pair has several rows (duplicates
+ * or requests in both directions) the most significant one is kept and the rest deleted,
+ * and the pair's friend edges and cached friendships are brought in line with the survivor.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FriendshipDedupeService {
+
+    private final FriendRepository friendRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FriendshipCacheService friendshipCacheService;
+    private final TimelineService timelineService;
+
+    private static final int BATCH_SIZE = 500;
+
+    // Which row survives when a pair has several: a block or friendship outranks a request
+    private static final Comparator<Friendship> KEEP_FIRST = Comparator
+            .comparingInt((Friendship f) -> rank(f.getStatus()))
+            .thenComparing(Friendship::getId);
+
+    private record Pair(Long low, Long high) {}
+
+    /**
+     * Normalize and dedupe legacy rows until none are left
+     */
+    @Scheduled(fixedDelay = 60 * 60_000, initialDelay = 60_000)
+    public void dedupeFriendships() {
+        int deleted = 0;
+        int processed;
+        try {
+            do {
+                int[] result = transactionTemplate.execute(status -> dedupeBatch());
+                processed = result[0];
+                deleted += result[1];
+            } while (processed == BATCH_SIZE);
+        } catch (Exception e) {
+            log.warn("Failed to dedupe friendships, will retry: {}", e.getMessage());
+            return;
+        }
+        if (deleted > 0) {
+            log.info("Removed {} duplicate friendships", deleted);
+        }
+    }
+
+    /**
+     * @return {rows processed, rows deleted}
+     */
+    private int[] dedupeBatch() {
+        List<Friendship> batch = friendRepository.findUnnormalized(PageRequest.of(0, BATCH_SIZE));
+
+        Map<Pair, List<Friendship>> byPair = new LinkedHashMap<>();
+        for (Friendship friendship : batch) {
+            Long requesterId = friendship.getRequester().getId();
+            Long receiverId = friendship.getReceiver().getId();
+            Pair pair = new Pair(Math.min(requesterId, receiverId), Math.max(requesterId, receiverId));
+            byPair.computeIfAbsent(pair, p -> new ArrayList<>()).add(friendship);
+        }
+
+        Map<Pair, Friendship> normalized = new HashMap<>();
+        if (!byPair.isEmpty()) {
+            List<Friendship> existing = friendRepository.findNormalizedPairs(
+                    byPair.keySet().stream().map(Pair::low).collect(Collectors.toSet()),
+                    byPair.keySet().stream().map(Pair::high).collect(Collectors.toSet()));
+            for (Friendship friendship : existing) {
+                normalized.put(new Pair(friendship.getUserLowId(), friendship.getUserHighId()), friendship);
+            }
+        }
+
+        List<Friendship> duplicates = new ArrayList<>();
+        Map<Friendship, Pair> keepers = new LinkedHashMap<>();
+        Map<Pair, FriendshipStatus> contested = new LinkedHashMap<>(); // surviving status of pairs that had several rows
+        byPair.forEach((pair, rows) -> {
+            List<Friendship> candidates = new ArrayList<>(rows);
+            Friendship current = normalized.get(pair);
+            if (current != null) {
+                candidates.add(current);
+            }
+            candidates.sort(KEEP_FIRST);
+
+            keepers.put(candidates.get(0), pair);
+            duplicates.addAll(candidates.subList(1, candidates.size()));
+            if (candidates.size() > 1) {
+                contested.put(pair, candidates.get(0).getStatus());
+            }
+        });
+
+        // Delete before touching the keepers so their pair columns never collide with a row about to go
+        if (!duplicates.isEmpty()) {
+            friendRepository.deleteAllInBatch(duplicates);
+        }
+        keepers.forEach((keeper, pair) -> {
+            keeper.setUserLowId(pair.low());
+            keeper.setUserHighId(pair.high());
+        });
+        reconcileEdges(contested);
+        return new int[]{batch.size(), duplicates.size()};
+    }
+
+    /**
+     * Give each pair friend edges only if its surviving row is accepted, and drop the pair's
+     * cached friendship and timelines once the batch commits
+     */
+    private void reconcileEdges(Map<Pair, FriendshipStatus> survivors) {
+        List<Object[]> edgesToInsert = new ArrayList<>();
+        List<Object[]> edgesToDelete = new ArrayList<>();
+        survivors.forEach((pair, status) -> {
+            List<Object[]> target = status == FriendshipStatus.ACCEPTED ? edgesToInsert : edgesToDelete;
+            target.add(new Object[]{pair.low(), pair.high()});
+            target.add(new Object[]{pair.high(), pair.low()});
+        });
+        if (!edgesToDelete.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM friend_edge WHERE user_id = ? AND friend_id = ?", edgesToDelete);
+        }
+        if (!edgesToInsert.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT IGNORE INTO friend_edge (user_id, friend_id) VALUES (?, ?)", edgesToInsert);
+        }
+
+        survivors.keySet().forEach(pair -> {
+            friendshipCacheService.evict(pair.low(), pair.high());
+            timelineService.invalidate(pair.low(), pair.high());
+        });
+    }
+
+    private static int rank(FriendshipStatus status) {
+        return switch (status) {
+            case BLOCKED -> 0;
+            case ACCEPTED -> 1;
+            case PENDING -> 2;
+            case DECLINED -> 3;
+        };
+    }
+}
@@ -4,14 +4,13 @@ import com.example.SocialStream.DTO.InteractionResponseDTO;
 import com.example.SocialStream.DTO.SearchRequestDTO;
 import com.example.SocialStream.DTO.VideoLikeRequestDTO;
 import com.example.SocialStream.DTO.VideoViewRequestDTO;
-import com.example.SocialStream.entities.SearchHistory;
 import com.example.SocialStream.entities.User;
 import com.example.SocialStream.entities.Video;
 import com.example.SocialStream.entities.VideoLike;
 import com.example.SocialStream.entities.VideoView;
-import com.example.SocialStream.repositories.SearchHistoryRepository;
 import com.example.SocialStream.repositories.UserRepository;
 import com.example.SocialStream.repositories.VideoLikeRepository;
+import com.example.SocialStream.repositories.VideoCatalogRepository;
 import com.example.SocialStream.repositories.VideoRepository;
 import com.example.SocialStream.repositories.VideoViewRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,11 +29,14 @@ public class InteractionService {
     private VideoLikeRepository videoLikeRepository;
 
     @Autowired
-    private SearchHistoryRepository searchHistoryRepository;
+    private SearchHistoryIngestService searchHistoryIngestService;
 
     @Autowired
     private VideoRepository videoRepository;
 
+    @Autowired
+    private VideoCatalogRepository videoCatalogRepository;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -55,9 +57,9 @@ public class InteractionService {
 
         videoViewRepository.save(videoView);
 
-        // Increment view count
-        video.setViewCount(video.getViewCount() + 1);
-        videoRepository.save(video);
+        // Increment view count atomically on both the entity table and the catalog copy
+        videoRepository.incrementViewCount(video.getId());
+        videoCatalogRepository.incrementViewCount(video.getId());
 
         return new InteractionResponseDTO("Video view recorded successfully", true);
     }
@@ -104,18 +106,11 @@ public class InteractionService {
         }
     }
 
-    @Transactional
     public InteractionResponseDTO recordSearch(Long userId, SearchRequestDTO request) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-
-        SearchHistory searchHistory = new SearchHistory();
-        searchHistory.setUser(user);
-        searchHistory.setQuery(request.getQuery());
-        searchHistory.setSearchedAt(LocalDateTime.now());
-
-        searchHistoryRepository.save(searchHistory);
-
+        // Written in batches by the ingest service; the user is the authenticated caller
+        if (!searchHistoryIngestService.submit(userId, request.getQuery())) {
+            return new InteractionResponseDTO("Search not recorded, try again later", false);
+        }
         return new InteractionResponseDTO("Search recorded successfully", true);
     }
 
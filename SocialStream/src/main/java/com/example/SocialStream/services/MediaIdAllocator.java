@@ -0,0 +1,56 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.entities.Media;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Media ids come from the "media" row of id_generator, which Hibernate reads in pooled blocks of
+ * Media.ID_BLOCK_SIZE. Bulk writers reserve larger contiguous blocks from the same row so their
+ * JDBC inserts never collide with ids handed out to entities.
+ */
+@Service
+@RequiredArgsConstructor
+public class MediaIdAllocator implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchemaMigrationService schemaMigrationService;
+
+    private static final String GENERATOR_NAME = "media";
+
+    /**
+     * Move the generator past ids assigned before it existed (media ids used to be AUTO_INCREMENT).
+     * Runs before the web server starts and fails startup if it cannot be applied, since every id handed
+     * out by an unaligned generator would collide with an existing row.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        schemaMigrationService.applyOnce("align-media-id-generator", () -> jdbcTemplate.update(
+                "INSERT INTO id_generator (name, next_id) " +
+                "SELECT ?, COALESCE(MAX(id), 0) + ? FROM media " +
+                "ON DUPLICATE KEY UPDATE next_id = GREATEST(next_id, VALUES(next_id))",
+                GENERATOR_NAME, Media.ID_BLOCK_SIZE + 1));
+    }
+
+    /**
+     * Reserve a contiguous block of ids; call outside a transaction so the row lock is released at once
+     * @return the first id of the block, followed by count - 1 more
+     */
+    public long reserve(int count) {
+        // Hibernate's optimizer claims a block next to each value it reads (below it for "pooled", above it
+        // for "pooled-lo"); skipping one extra block on both sides keeps the reservation clear either way
+        long blocks = (count + Media.ID_BLOCK_SIZE - 1) / Media.ID_BLOCK_SIZE + 1;
+        Long first = transactionTemplate.execute(status -> {
+            Long current = jdbcTemplate.queryForObject(
+                    "SELECT next_id FROM id_generator WHERE name = ? FOR UPDATE", Long.class, GENERATOR_NAME);
+            jdbcTemplate.update("UPDATE id_generator SET next_id = next_id + ? WHERE name = ?",
+                    blocks * Media.ID_BLOCK_SIZE, GENERATOR_NAME);
+            return current + 1;
+        });
+        return first;
+    }
+}
@@ -1,27 +1,35 @@
 package com.example.SocialStream.services;
 
+import com.example.SocialStream.DTO.CommentPageDTO;
 import com.example.SocialStream.DTO.CommentRequestDTO;
 import com.example.SocialStream.DTO.CommentResponseDTO;
+import com.example.SocialStream.DTO.FeedCursor;
+import com.example.SocialStream.DTO.FeedPageDTO;
+import com.example.SocialStream.DTO.MediaDTO;
 import com.example.SocialStream.DTO.PostRequestDTO;
 import com.example.SocialStream.DTO.PostResponseDTO;
+import com.example.SocialStream.DTO.VideoDescriptor;
 import com.example.SocialStream.entities.Comments;
 import com.example.SocialStream.entities.Media;
 import com.example.SocialStream.entities.Post;
-import com.example.SocialStream.entities.PostLike;
 import com.example.SocialStream.entities.User;
+import com.example.SocialStream.exceptions.InvalidOperationException;
 import com.example.SocialStream.exceptions.UserNotFoundException;
 import com.example.SocialStream.repositories.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
-public class NewsFeedService {
+public class NewsFeedService implements SmartInitializingSingleton {
     private final MediaRepository mediaRepository;
     private final AudioRepository audioRepository;
     private final VideoRepository videoRepository;
@@ -29,6 +37,15 @@ public class NewsFeedService {
     private final PostRepository postrepository;
     private final CommentRepository commentRepository;
     private final PostLikeRepository postLikeRepository;
+    private final TimelineService timelineService;
+    private final PostHydrationService postHydrationService;
+    private final PostLikeCounterService postLikeCounterService;
+    private final VideoCatalogCache videoCatalogCache;
+    private final SchemaMigrationService schemaMigrationService;
+
+    private static final int FEED_SIZE = 50;
+    private static final int COMMENT_PAGE_MAX = 50;
+    private static final int LIKE_STATUS_MAX = 100;
 
     public PostResponseDTO createPostAudio(PostRequestDTO requestDTO,  Long audioId, Long userId) {
 
@@ -39,8 +56,9 @@ public class NewsFeedService {
         Media audio  = audioRepository.findById(audioId).orElseThrow(()->new RuntimeException("Media not found with id: "+audioId));
         post.setMedia(audio);
         postrepository.save(post);
+        timelineService.fanOut(post);
 
-        return new PostResponseDTO(post);
+        return new PostResponseDTO(post, List.of());
     }
 
     public PostResponseDTO createPostVideo(PostRequestDTO requestDTO, Long videoId, Long userId) {
@@ -49,33 +67,58 @@ public class NewsFeedService {
         post.setDescription(requestDTO.getDescription());
         post.setUploadedAt(LocalDateTime.now());
         post.setUser(userRepository.findById(userId).orElseThrow(()->new UserNotFoundException("User not found with id: "+userId)));
-        Media video = videoRepository.findById(videoId).orElseThrow(()->new RuntimeException("Video not found with id: "+videoId));
-        post.setMedia(video);
+        VideoDescriptor video = videoCatalogCache.get(videoId).orElseThrow(()->new RuntimeException("Video not found with id: "+videoId));
+        post.setMedia(videoRepository.getReferenceById(videoId));
         postrepository.save(post);
+        timelineService.fanOut(post);
 
-        return new PostResponseDTO(post);
+        return new PostResponseDTO(post, new MediaDTO(video), List.of());
     }
 
     /**
-     * Get posts created by the user's friends
-     * Returns posts from all accepted friendships, ordered by upload date
+     * Get the first page of posts created by the user's friends
      * @param userId The ID of the current user
-     * @return List of PostResponseDTO containing friend posts
+     * @return List of PostResponseDTO containing friend posts, newest first
      */
     public List<PostResponseDTO> getFriendsPosts(Long userId) {
+        return getFriendsPostsPage(userId, null, FEED_SIZE).getPosts();
+    }
+
+    /**
+     * Get a page of posts created by the user's friends, older than the cursor
+     * Reads post ids from the user's cached timeline, then hydrates the page in batched queries
+     * @param userId The ID of the current user
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param size Page size, capped at FEED_SIZE
+     * @return The page and the cursor for the next one
+     */
+    public FeedPageDTO getFriendsPostsPage(Long userId, String cursor, int size) {
         // Verify user exists
         userRepository.findById(userId)
             .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
-        
-        // Fetch posts from friends and convert to DTOs
-        return postrepository.findFriendsPosts(userId)
-            .stream()
-            .map(PostResponseDTO::new)
-            .collect(Collectors.toList());
+
+        int pageSize = Math.max(1, Math.min(size, FEED_SIZE));
+        // One extra id tells us whether another page exists
+        List<Long> postIds = timelineService.getTimeline(userId, FeedCursor.parse(cursor), pageSize + 1);
+        boolean hasMore = postIds.size() > pageSize;
+        if (hasMore) {
+            postIds = postIds.subList(0, pageSize);
+        }
+
+        List<PostResponseDTO> posts = postHydrationService.hydrate(postIds, userId);
+
+        String nextCursor = null;
+        if (hasMore && !posts.isEmpty()) {
+            PostResponseDTO last = posts.get(posts.size() - 1);
+            nextCursor = FeedCursor.of(last.getUploadDate(), last.getId()).encode();
+        }
+
+        return new FeedPageDTO(posts, nextCursor, hasMore);
     }
 
     /**
      * Toggle like on a post (like if not liked, unlike if already liked)
+     * The like row decides the outcome atomically; the count change is handed to the like counter
      * @param postId The ID of the post
      * @param userId The ID of the user liking/unliking
      * @return Updated PostResponseDTO with liked status
@@ -85,28 +128,18 @@ public class NewsFeedService {
         Post post = postrepository.findById(postId)
             .orElseThrow(() -> new RuntimeException("Post not found with id: " + postId));
         
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
-        
-        // Check if user already liked this post
-        boolean alreadyLiked = postLikeRepository.existsByPostIdAndUserId(postId, userId);
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found with id: " + userId);
+        }
         
-        if (alreadyLiked) {
-            // Unlike: Remove the like
-            postLikeRepository.deleteByPostIdAndUserId(postId, userId);
-            post.setLikesCount(Math.max(0, post.getLikesCount() - 1));
-        } else {
-            // Like: Add new like
-            PostLike postLike = new PostLike();
-            postLike.setPost(post);
-            postLike.setUser(user);
-            postLike.setCreatedAt(LocalDateTime.now());
-            postLikeRepository.save(postLike);
-            post.setLikesCount(post.getLikesCount() + 1);
+        // Unlike if a like was removed, otherwise like
+        int delta = -postLikeRepository.deleteByPostIdAndUserId(postId, userId);
+        if (delta == 0) {
+            delta = postLikeRepository.insertIfAbsent(postId, userId, LocalDateTime.now());
         }
         
-        postrepository.save(post);
-        return new PostResponseDTO(post);
+        // delta 0 means a concurrent request already inserted the like
+        return recordLikeChange(post, delta, delta >= 0);
     }
 
     /**
@@ -120,26 +153,15 @@ public class NewsFeedService {
         Post post = postrepository.findById(postId)
             .orElseThrow(() -> new RuntimeException("Post not found with id: " + postId));
         
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found with id: " + userId);
+        }
         
-        // Check if user already liked this post
-        if (postLikeRepository.existsByPostIdAndUserId(postId, userId)) {
+        if (postLikeRepository.insertIfAbsent(postId, userId, LocalDateTime.now()) == 0) {
             throw new RuntimeException("User has already liked this post");
         }
         
-        // Create new like
-        PostLike postLike = new PostLike();
-        postLike.setPost(post);
-        postLike.setUser(user);
-        postLike.setCreatedAt(LocalDateTime.now());
-        postLikeRepository.save(postLike);
-        
-        // Update like count
-        post.setLikesCount(post.getLikesCount() + 1);
-        postrepository.save(post);
-        
-        return new PostResponseDTO(post);
+        return recordLikeChange(post, 1, true);
     }
 
     /**
@@ -153,22 +175,24 @@ public class NewsFeedService {
         Post post = postrepository.findById(postId)
             .orElseThrow(() -> new RuntimeException("Post not found with id: " + postId));
         
-        userRepository.findById(userId)
-            .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found with id: " + userId);
+        }
         
-        // Check if user has liked this post
-        if (!postLikeRepository.existsByPostIdAndUserId(postId, userId)) {
+        if (postLikeRepository.deleteByPostIdAndUserId(postId, userId) == 0) {
             throw new RuntimeException("User has not liked this post");
         }
         
-        // Remove the like
-        postLikeRepository.deleteByPostIdAndUserId(postId, userId);
-        
-        // Update like count
-        post.setLikesCount(Math.max(0, post.getLikesCount() - 1));
-        postrepository.save(post);
-        
-        return new PostResponseDTO(post);
+        return recordLikeChange(post, -1, false);
+    }
+
+    private PostResponseDTO recordLikeChange(Post post, int delta, boolean liked) {
+        postLikeCounterService.record(post.getId(), delta);
+        // The counter applies the delta after commit, so add it to the response ourselves
+        PostResponseDTO response = postHydrationService.hydrate(post);
+        response.setLikesCount(Math.max(0, response.getLikesCount() + delta));
+        response.setLikedByMe(liked);
+        return response;
     }
 
     /**
@@ -181,6 +205,25 @@ public class NewsFeedService {
         return postLikeRepository.existsByPostIdAndUserId(postId, userId);
     }
 
+    /**
+     * Check which of a page of posts the user has liked, in one query
+     * @param postIds The IDs of the posts, at most LIKE_STATUS_MAX
+     * @param userId The ID of the user
+     * @return Liked flag for every requested post id
+     */
+    public Map<Long, Boolean> getLikeStatuses(List<Long> postIds, Long userId) {
+        if (postIds.size() > LIKE_STATUS_MAX) {
+            throw new InvalidOperationException("At most " + LIKE_STATUS_MAX + " posts can be checked at once");
+        }
+
+        Map<Long, Boolean> statuses = new LinkedHashMap<>();
+        postIds.forEach(postId -> statuses.put(postId, false));
+        if (!postIds.isEmpty()) {
+            postLikeRepository.findLikedPostIds(userId, postIds).forEach(postId -> statuses.put(postId, true));
+        }
+        return statuses;
+    }
+
     /**
      * Add a comment to a post
      * @param postId The ID of the post
@@ -203,8 +246,41 @@ public class NewsFeedService {
         comment.setCreatedAt(LocalDateTime.now());
         
         commentRepository.save(comment);
+        postrepository.incrementCommentsCount(postId);
         
         return new CommentResponseDTO(comment);
     }
 
+    /**
+     * Get a page of a post's comments, newest first
+     * @param postId The ID of the post
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param size Page size, capped at COMMENT_PAGE_MAX
+     * @return The page and the cursor for the next one
+     */
+    public CommentPageDTO getComments(Long postId, Long cursor, int size) {
+        if (!postrepository.existsById(postId)) {
+            throw new RuntimeException("Post not found with id: " + postId);
+        }
+
+        int pageSize = Math.max(1, Math.min(size, COMMENT_PAGE_MAX));
+        List<CommentResponseDTO> comments = commentRepository.findPageByPostId(
+            postId, cursor != null ? cursor : Long.MAX_VALUE, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = comments.size() > pageSize;
+        if (hasMore) {
+            comments = comments.subList(0, pageSize);
+        }
+
+        Long nextCursor = hasMore ? comments.get(comments.size() - 1).getId() : null;
+        return new CommentPageDTO(comments, nextCursor, hasMore);
+    }
+
+    /**
+     * Fill the denormalized comment count of posts created before it existed, once per database
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        schemaMigrationService.applyOnce("backfill-post-comments-count", postrepository::backfillCommentsCount);
+    }
+
 }
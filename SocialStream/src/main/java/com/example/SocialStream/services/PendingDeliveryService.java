@@ -0,0 +1,93 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.DTO.DirectMessageDTO;
+import com.example.SocialStream.DTO.PendingMessagesDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Per-user bounded log of recently delivered direct messages.
+ * Every message pushed to a recipient gets the next sequence number of that recipient's log,
+ * so a reconnecting client can fetch everything after its last seen sequence in one call
+ * instead of re-paging each conversation.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PendingDeliveryService {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+
+    private static final String SEQUENCE_PREFIX = "dm:seq:";
+    private static final String PENDING_PREFIX = "dm:pending:";
+    private static final int MAX_PENDING = 500; // older entries are dropped; clients fall back to history
+    private static final long EXPIRATION_SECONDS = 24 * 60 * 60;
+
+    // Assigns the next sequence, appends the message and trims the log in one round trip
+    private static final DefaultRedisScript<Long> APPEND_SCRIPT = new DefaultRedisScript<>(
+            "local seq = redis.call('INCR', KEYS[1]) " +
+            "redis.call('ZADD', KEYS[2], seq, ARGV[1]) " +
+            "redis.call('ZREMRANGEBYRANK', KEYS[2], 0, -(tonumber(ARGV[2]) + 1)) " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[3]) " +
+            "redis.call('EXPIRE', KEYS[2], ARGV[3]) " +
+            "return seq",
+            Long.class);
+
+    /**
+     * Append a message to the recipient's log
+     * @return the assigned sequence number, or null if Redis is unavailable
+     */
+    public Long append(Long recipientId, DirectMessageDTO message) {
+        try {
+            return stringRedisTemplate.execute(APPEND_SCRIPT,
+                    List.of(SEQUENCE_PREFIX + recipientId, PENDING_PREFIX + recipientId),
+                    objectMapper.writeValueAsString(message),
+                    String.valueOf(MAX_PENDING),
+                    String.valueOf(EXPIRATION_SECONDS));
+        } catch (Exception e) {
+            log.warn("Failed to append message to delivery log: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Get all messages delivered to the user after the given sequence
+     */
+    public PendingMessagesDTO getMessagesAfter(Long userId, long afterSequence) {
+        try {
+            Set<ZSetOperations.TypedTuple<String>> entries = stringRedisTemplate.opsForZSet()
+                    .rangeByScoreWithScores(PENDING_PREFIX + userId, afterSequence + 1, Double.POSITIVE_INFINITY);
+            String latest = stringRedisTemplate.opsForValue().get(SEQUENCE_PREFIX + userId);
+            long latestSequence = latest != null ? Long.parseLong(latest) : 0;
+
+            List<DirectMessageDTO> messages = new ArrayList<>();
+            if (entries != null) {
+                for (ZSetOperations.TypedTuple<String> entry : entries) {
+                    DirectMessageDTO message = objectMapper.readValue(entry.getValue(), DirectMessageDTO.class);
+                    message.setSequence(entry.getScore().longValue());
+                    messages.add(message);
+                }
+            }
+
+            // Truncated if entries after the client's sequence were trimmed, or the log expired and restarted
+            long firstSequence = messages.isEmpty() ? latestSequence + 1 : messages.get(0).getSequence();
+            boolean truncated = afterSequence > latestSequence
+                    || (afterSequence < latestSequence && firstSequence > afterSequence + 1);
+
+            return new PendingMessagesDTO(messages, latestSequence, truncated);
+        } catch (Exception e) {
+            log.warn("Failed to read delivery log: {}", e.getMessage());
+            return new PendingMessagesDTO(List.of(), afterSequence, true);
+        }
+    }
+}
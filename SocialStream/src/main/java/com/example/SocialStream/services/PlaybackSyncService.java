@@ -17,6 +17,7 @@ import lombok.RequiredArgsConstructor;
 public class PlaybackSyncService {
 
     private final VideoRepository videoRepository;
+    private final VideoCatalogCache videoCatalogCache;
     private final UserRepository userRepository;
     private final SimpMessagingTemplate messagingTemplate;
     private final RedisRoomStateService redisRoomStateService;
@@ -73,8 +74,9 @@ public class PlaybackSyncService {
      */
     public void changeVideo(Long roomId, Long userId, Long videoId) {
         // Just validate video exists
-        videoRepository.findById(videoId)
-                .orElseThrow(() -> new RuntimeException("Video not found"));
+        if (!videoCatalogCache.exists(videoId)) {
+            throw new RuntimeException("Video not found");
+        }
 
         // Update Redis cache only
         redisRoomStateService.updateCurrentVideo(roomId, videoId);
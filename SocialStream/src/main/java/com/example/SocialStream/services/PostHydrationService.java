@@ -0,0 +1,101 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.DTO.CommentResponseDTO;
+import com.example.SocialStream.DTO.PostResponseDTO;
+import com.example.SocialStream.entities.Post;
+import com.example.SocialStream.repositories.CommentRepository;
+import com.example.SocialStream.repositories.PostLikeRepository;
+import com.example.SocialStream.repositories.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Turns a page of post ids into response DTOs with a fixed number of queries:
+ * one for posts with their authors and media, one for the latest comments of every post,
+ * one for the viewer's likes, and one Redis read for like counts not yet flushed.
+ * The cost of a feed page no longer grows with the number of posts or comments on it.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostHydrationService {
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final PostLikeCounterService postLikeCounterService;
+    private final PostLikeRepository postLikeRepository;
+
+    private static final int COMMENT_PREVIEW_SIZE = 3;
+
+    /**
+     * Hydrate posts in the given order, skipping ids that no longer exist
+     * @param viewerId user the page is rendered for, used for likedByMe; null if anonymous
+     */
+    @Transactional(readOnly = true)
+    public List<PostResponseDTO> hydrate(List<Long> postIds, Long viewerId) {
+        if (postIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Post> postsById = postRepository.findWithAuthorAndMediaByIdIn(postIds)
+                .stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity(), (first, second) -> first));
+        if (postsById.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<CommentResponseDTO>> commentsByPost = new HashMap<>();
+        for (Object[] row : commentRepository.findLatestByPostIds(postsById.keySet(), COMMENT_PREVIEW_SIZE)) {
+            commentsByPost.computeIfAbsent(((Number) row[1]).longValue(), id -> new ArrayList<>())
+                    .add(new CommentResponseDTO(((Number) row[0]).longValue(), (String) row[2], (String) row[3]));
+        }
+
+        Map<Long, Long> pendingLikes = postLikeCounterService.getPendingDeltas(postsById.keySet());
+        Set<Long> liked = viewerId == null
+                ? Set.of()
+                : new HashSet<>(postLikeRepository.findLikedPostIds(viewerId, postsById.keySet()));
+
+        return postIds.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .map(post -> {
+                    PostResponseDTO dto = withPendingLikes(new PostResponseDTO(post,
+                            List.copyOf(commentsByPost.getOrDefault(post.getId(), List.of()))), pendingLikes);
+                    dto.setLikedByMe(liked.contains(post.getId()));
+                    return dto;
+                })
+                .toList();
+    }
+
+    /**
+     * Hydrate a single post that is already loaded, e.g. after a write
+     */
+    @Transactional(readOnly = true)
+    public PostResponseDTO hydrate(Post post) {
+        List<CommentResponseDTO> comments = commentRepository
+                .findLatestByPostIds(List.of(post.getId()), COMMENT_PREVIEW_SIZE)
+                .stream()
+                .map(row -> new CommentResponseDTO(((Number) row[0]).longValue(), (String) row[2], (String) row[3]))
+                .toList();
+        return withPendingLikes(new PostResponseDTO(post, comments),
+                postLikeCounterService.getPendingDeltas(List.of(post.getId())));
+    }
+
+    private PostResponseDTO withPendingLikes(PostResponseDTO dto, Map<Long, Long> pendingLikes) {
+        Long pending = pendingLikes.get(dto.getId());
+        if (pending != null) {
+            dto.setLikesCount((int) Math.max(0, dto.getLikesCount() + pending));
+        }
+        return dto;
+    }
+}
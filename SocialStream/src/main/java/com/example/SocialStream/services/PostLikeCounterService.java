@@ -0,0 +1,201 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.repositories.PostRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Post like counts without rewriting the post row on every like.
+ * Each like/unlike adds its delta to a Redis hash with HINCRBY; a scheduled flusher moves the hash to an
+ * in-flight key and applies all deltas with one batched "likes_count = likes_count + ?" update.
+ * The in-flight hash is deleted only after that update commits, and a flush id recorded in the same
+ * transaction keeps a replayed flush from being applied twice.
+ * Displayed counts are the stored count plus the deltas still pending or in flight in Redis.
+ */
+@Slf4j
+@Service
+public class PostLikeCounterService {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final PostRepository postRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+
+    static final String PENDING_KEY = "post:likes:pending";
+    static final String IN_FLIGHT_KEY = "post:likes:in-flight";
+    static final String FLUSH_ID_FIELD = "_flush";
+    private static final long FLUSH_RETENTION_HOURS = 24;
+
+    // Moves the pending deltas to the in-flight key, tagged with a flush id, unless an earlier flush is still
+    // in flight; returns the in-flight hash. Concurrent HINCRBYs land in a new pending hash for the next flush.
+    static final DefaultRedisScript<List> DRAIN_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[2]) == 0 then " +
+            "  if redis.call('EXISTS', KEYS[1]) == 0 then return {} end " +
+            "  redis.call('RENAME', KEYS[1], KEYS[2]) " +
+            "  redis.call('HSET', KEYS[2], ARGV[1], ARGV[2]) " +
+            "end " +
+            "return redis.call('HGETALL', KEYS[2])",
+            List.class);
+
+    // Deletes the in-flight hash if it still belongs to the given flush
+    static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], ARGV[1]) == ARGV[2] then return redis.call('DEL', KEYS[1]) end " +
+            "return 0",
+            Long.class);
+
+    public PostLikeCounterService(StringRedisTemplate stringRedisTemplate,
+                                  PostRepository postRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  PlatformTransactionManager transactionManager) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.postRepository = postRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        // The Redis fallback runs from afterCommit hooks, where the caller's transaction is already over
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Record a like count change; applied after commit when called inside a transaction
+     */
+    public void record(Long postId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recordNow(postId, delta);
+                }
+            });
+        } else {
+            recordNow(postId, delta);
+        }
+    }
+
+    /**
+     * Like count changes not yet written to the database, by post id
+     */
+    public Map<Long, Long> getPendingDeltas(Collection<Long> postIds) {
+        Map<Long, Long> deltas = new HashMap<>();
+        if (postIds.isEmpty()) {
+            return deltas;
+        }
+
+        List<Long> ids = new ArrayList<>(postIds);
+        List<Object> fields = ids.stream().map(id -> (Object) String.valueOf(id)).toList();
+        try {
+            for (String key : List.of(PENDING_KEY, IN_FLIGHT_KEY)) {
+                List<Object> values = stringRedisTemplate.opsForHash().multiGet(key, fields);
+                for (int i = 0; i < ids.size(); i++) {
+                    if (values.get(i) != null) {
+                        deltas.merge(ids.get(i), Long.parseLong((String) values.get(i)), Long::sum);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.debug("Redis unavailable, showing stored like counts: {}", e.getMessage());
+        }
+        return deltas;
+    }
+
+    /**
+     * Apply pending like count changes to the database in one batch
+     */
+    @Scheduled(fixedDelay = 5000)
+    public void flushLikeCounts() {
+        String flushId;
+        List<Object[]> batch = new ArrayList<>();
+        try {
+            @SuppressWarnings("unchecked")
+            List<String> drained = stringRedisTemplate.execute(DRAIN_SCRIPT, List.of(PENDING_KEY, IN_FLIGHT_KEY),
+                    FLUSH_ID_FIELD, UUID.randomUUID().toString());
+            if (drained == null || drained.isEmpty()) {
+                return;
+            }
+            flushId = null;
+            for (int i = 0; i + 1 < drained.size(); i += 2) {
+                if (FLUSH_ID_FIELD.equals(drained.get(i))) {
+                    flushId = drained.get(i + 1);
+                    continue;
+                }
+                long delta = Long.parseLong(drained.get(i + 1));
+                if (delta != 0) {
+                    batch.add(new Object[]{delta, Long.valueOf(drained.get(i))});
+                }
+            }
+        } catch (Exception e) {
+            log.debug("Redis unavailable, skipping like count flush: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            String id = flushId;
+            transactionTemplate.executeWithoutResult(status -> {
+                // Fails with a duplicate key if this flush was committed before its in-flight hash was released
+                jdbcTemplate.update("INSERT INTO like_flush_batch (id, applied_at) VALUES (?, ?)",
+                        id, Timestamp.valueOf(LocalDateTime.now()));
+                jdbcTemplate.batchUpdate(
+                        "UPDATE post SET likes_count = GREATEST(0, likes_count + ?) WHERE id = ?", batch);
+                jdbcTemplate.update("DELETE FROM like_flush_batch WHERE applied_at < ?",
+                        Timestamp.valueOf(LocalDateTime.now().minusHours(FLUSH_RETENTION_HOURS)));
+            });
+            log.debug("Flushed like counts for {} posts", batch.size());
+        } catch (DuplicateKeyException e) {
+            log.info("Like count flush {} was already applied, releasing it", flushId);
+        } catch (Exception e) {
+            // The in-flight hash stays in Redis and is retried by the next flush
+            log.warn("Failed to flush like counts, will retry: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(IN_FLIGHT_KEY), FLUSH_ID_FIELD, flushId);
+        } catch (Exception e) {
+            log.warn("Failed to release like count flush {}: {}", flushId, e.getMessage());
+        }
+    }
+
+    /**
+     * Replay a flush left in flight by a node that stopped before releasing it
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayInFlight() {
+        flushLikeCounts();
+    }
+
+    private void recordNow(Long postId, long delta) {
+        try {
+            stringRedisTemplate.opsForHash().increment(PENDING_KEY, String.valueOf(postId), delta);
+        } catch (Exception e) {
+            // Without Redis, fall back to an atomic in-place update
+            log.debug("Redis unavailable, updating like count directly: {}", e.getMessage());
+            newTransactionTemplate.executeWithoutResult(status -> postRepository.addLikes(postId, delta));
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.DTO.ReactionDeltaDTO;
+import com.example.SocialStream.entities.MessageReaction;
+import com.example.SocialStream.enums.Reaction;
+import com.example.SocialStream.enums.ReactionTarget;
+import com.example.SocialStream.exceptions.InvalidOperationException;
+import com.example.SocialStream.repositories.ChatMessageRepository;
+import com.example.SocialStream.repositories.DirectMessageRepository;
+import com.example.SocialStream.repositories.MessageReactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-user reaction aggregate for room chat and direct messages.
+ * Each message has a Redis hash holding one field per reacting user ("u:{userId}" -> reaction)
+ * and one counter per reaction ("c:{REACTION}"). Toggles are applied atomically in Redis,
+ * only the count deltas are broadcast, and changed messages are flushed to message_reactions in batches.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactionAggregateService {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MessageReactionRepository messageReactionRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final DirectMessageRepository directMessageRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final String REACTIONS_PREFIX = "reactions:";
+    private static final String DIRTY_KEY = "reactions:dirty";
+    private static final String USER_FIELD_PREFIX = "u:";
+    private static final String COUNT_FIELD_PREFIX = "c:";
+    private static final long EXPIRATION_SECONDS = 24 * 60 * 60;
+    private static final long FLUSH_BATCH_SIZE = 500;
+
+    /**
+     * Reaction counts of one message and the reaction the viewing user holds on it, null if none
+     */
+    public record MessageReactions(Map<Reaction, Long> counts, Reaction mine) {
+        public static final MessageReactions NONE = new MessageReactions(Map.of(), null);
+    }
+
+    // Returns {previous reaction, current reaction}, empty string for none
+    private static final DefaultRedisScript<List> TOGGLE_SCRIPT = new DefaultRedisScript<>(
+            "local prev = redis.call('HGET', KEYS[1], ARGV[1]) or '' " +
+            "local now = '' " +
+            "if prev ~= '' then redis.call('HINCRBY', KEYS[1], 'c:' .. prev, -1) end " +
+            "if prev == ARGV[2] then " +
+            "  redis.call('HDEL', KEYS[1], ARGV[1]) " +
+            "else " +
+            "  redis.call('HSET', KEYS[1], ARGV[1], ARGV[2]) " +
+            "  redis.call('HINCRBY', KEYS[1], 'c:' .. ARGV[2], 1) " +
+            "  now = ARGV[2] " +
+            "end " +
+            "redis.call('HSET', KEYS[1], '_', '1') " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[3]) " +
+            "redis.call('SADD', KEYS[2], ARGV[4]) " +
+            "return {prev, now}",
+            List.class);
+
+    // Seeds a hash from the database only if no node has created it in the meantime.
+    // The "_" field marks a hash as loaded even when the message has no reactions.
+    private static final DefaultRedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+            "redis.call('HSET', KEYS[1], '_', '1') " +
+            "for i = 2, #ARGV, 2 do " +
+            "  redis.call('HSET', KEYS[1], 'u:' .. ARGV[i], ARGV[i + 1]) " +
+            "  redis.call('HINCRBY', KEYS[1], 'c:' .. ARGV[i + 1], 1) " +
+            "end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[1]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * Toggle a user's reaction on a room chat message and broadcast the count delta to the room
+     */
+    public ReactionDeltaDTO toggleRoomReaction(Long roomId, Long messageId, Long userId, Reaction reaction) {
+        if (!chatMessageRepository.isMessageVisibleToMember(messageId, roomId, userId)) {
+            throw new InvalidOperationException("You must be a member of the room to react to messages");
+        }
+
+        ReactionDeltaDTO delta = toggle(ReactionTarget.ROOM_MESSAGE, messageId, userId, reaction);
+        messagingTemplate.convertAndSend("/topic/room/" + roomId + "/reaction", (Object) delta);
+        return delta;
+    }
+
+    /**
+     * Toggle a user's reaction on a direct message and send the count delta to both participants
+     */
+    public ReactionDeltaDTO toggleDirectReaction(Long messageId, Long userId, Reaction reaction) {
+        Long partnerId = directMessageRepository.findPartnerId(messageId, userId)
+                .orElseThrow(() -> new InvalidOperationException("You can only react to messages you're part of"));
+
+        ReactionDeltaDTO delta = toggle(ReactionTarget.DIRECT_MESSAGE, messageId, userId, reaction);
+        messagingTemplate.convertAndSend("/queue/" + partnerId + "/reaction", (Object) delta);
+        messagingTemplate.convertAndSend("/queue/" + userId + "/reaction", (Object) delta);
+        return delta;
+    }
+
+    /**
+     * Reaction counts and the viewer's own reaction for a page of messages: one pipelined Redis round trip,
+     * with grouped queries for messages that are not cached
+     */
+    public Map<Long, MessageReactions> getReactions(ReactionTarget target, Collection<Long> messageIds, Long viewerId) {
+        Map<Long, MessageReactions> reactions = new HashMap<>();
+        if (messageIds.isEmpty()) {
+            return reactions;
+        }
+
+        List<Long> ids = new ArrayList<>(messageIds);
+        List<Long> missing = new ArrayList<>();
+        String viewerField = USER_FIELD_PREFIX + viewerId;
+        try {
+            List<Object> hashes = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                ids.forEach(id -> stringConnection.hGetAll(key(target, id)));
+                return null;
+            });
+            for (int i = 0; i < ids.size(); i++) {
+                @SuppressWarnings("unchecked")
+                Map<String, String> hash = (Map<String, String>) hashes.get(i);
+                if (hash == null || hash.isEmpty()) {
+                    missing.add(ids.get(i));
+                } else {
+                    String mine = hash.get(viewerField);
+                    reactions.put(ids.get(i), new MessageReactions(toCounts(hash),
+                            mine == null ? null : Reaction.valueOf(mine)));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Redis unavailable, loading reactions from database: {}", e.getMessage());
+            missing = ids;
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Long, Map<Reaction, Long>> counts = new HashMap<>();
+            for (Object[] row : messageReactionRepository.countByMessageIds(target, missing)) {
+                counts.computeIfAbsent((Long) row[0], id -> new EnumMap<>(Reaction.class))
+                        .put((Reaction) row[1], (Long) row[2]);
+            }
+            Map<Long, Reaction> mine = new HashMap<>();
+            for (MessageReaction row : messageReactionRepository.findByTargetAndUserIdAndMessageIdIn(target, viewerId, missing)) {
+                mine.put(row.getMessageId(), row.getReaction());
+            }
+            for (Long id : missing) {
+                reactions.put(id, new MessageReactions(counts.getOrDefault(id, Map.of()), mine.get(id)));
+            }
+        }
+        return reactions;
+    }
+
+    /**
+     * Write the reaction sets of messages changed since the last flush
+     */
+    @Scheduled(fixedDelay = 5000)
+    public void flushReactions() {
+        List<String> dirty;
+        try {
+            dirty = stringRedisTemplate.opsForSet().pop(DIRTY_KEY, FLUSH_BATCH_SIZE);
+        } catch (Exception e) {
+            log.debug("Redis unavailable, skipping reaction flush: {}", e.getMessage());
+            return;
+        }
+        if (dirty == null || dirty.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<String, Map<Object, Object>> snapshots = new HashMap<>();
+            for (String member : dirty) {
+                int separator = member.indexOf(':');
+                ReactionTarget target = ReactionTarget.valueOf(member.substring(0, separator));
+                Long messageId = Long.valueOf(member.substring(separator + 1));
+                snapshots.put(member, stringRedisTemplate.opsForHash().entries(key(target, messageId)));
+            }
+
+            transactionTemplate.executeWithoutResult(status -> snapshots.forEach((member, hash) -> {
+                if (hash.isEmpty()) {
+                    return; // Hash expired before flush; keep what is stored
+                }
+                int separator = member.indexOf(':');
+                ReactionTarget target = ReactionTarget.valueOf(member.substring(0, separator));
+                Long messageId = Long.valueOf(member.substring(separator + 1));
+
+                List<MessageReaction> rows = new ArrayList<>();
+                hash.forEach((field, value) -> {
+                    String name = (String) field;
+                    if (name.startsWith(USER_FIELD_PREFIX)) {
+                        rows.add(new MessageReaction(null, target, messageId,
+                                Long.valueOf(name.substring(USER_FIELD_PREFIX.length())),
+                                Reaction.valueOf((String) value)));
+                    }
+                });
+                messageReactionRepository.deleteByTargetAndMessageId(target, messageId);
+                messageReactionRepository.saveAll(rows);
+            }));
+            log.debug("Flushed reactions for {} messages", dirty.size());
+        } catch (Exception e) {
+            log.warn("Failed to flush reactions, will retry: {}", e.getMessage());
+            try {
+                stringRedisTemplate.opsForSet().add(DIRTY_KEY, dirty.toArray(new String[0]));
+            } catch (Exception redisException) {
+                log.warn("Failed to requeue reaction flush: {}", redisException.getMessage());
+            }
+        }
+    }
+
+    private ReactionDeltaDTO toggle(ReactionTarget target, Long messageId, Long userId, Reaction reaction) {
+        String key = key(target, messageId);
+        try {
+            seedIfAbsent(target, messageId, key);
+
+            @SuppressWarnings("unchecked")
+            List<String> result = stringRedisTemplate.execute(TOGGLE_SCRIPT,
+                    List.of(key, DIRTY_KEY),
+                    USER_FIELD_PREFIX + userId,
+                    reaction.name(),
+                    String.valueOf(EXPIRATION_SECONDS),
+                    target.name() + ":" + messageId);
+
+            Reaction previous = result.get(0).isEmpty() ? null : Reaction.valueOf(result.get(0));
+            Reaction current = result.get(1).isEmpty() ? null : Reaction.valueOf(result.get(1));
+
+            Map<Reaction, Integer> deltas = new EnumMap<>(Reaction.class);
+            if (previous != null) {
+                deltas.merge(previous, -1, Integer::sum);
+            }
+            if (current != null) {
+                deltas.merge(current, 1, Integer::sum);
+            }
+            return new ReactionDeltaDTO(messageId, userId, current, deltas);
+        } catch (InvalidOperationException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("Failed to toggle reaction in Redis: {}", e.getMessage());
+            throw new InvalidOperationException("Reactions are temporarily unavailable");
+        }
+    }
+
+    private void seedIfAbsent(ReactionTarget target, Long messageId, String key) {
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(key))) {
+            return;
+        }
+
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(EXPIRATION_SECONDS));
+        for (MessageReaction row : messageReactionRepository.findByTargetAndMessageId(target, messageId)) {
+            args.add(String.valueOf(row.getUserId()));
+            args.add(row.getReaction().name());
+        }
+        stringRedisTemplate.execute(SEED_SCRIPT, List.of(key), args.toArray());
+    }
+
+    private Map<Reaction, Long> toCounts(Map<String, String> hash) {
+        Map<Reaction, Long> counts = new EnumMap<>(Reaction.class);
+        hash.forEach((field, value) -> {
+            if (field.startsWith(COUNT_FIELD_PREFIX)) {
+                long count = Long.parseLong(value);
+                if (count > 0) {
+                    counts.put(Reaction.valueOf(field.substring(COUNT_FIELD_PREFIX.length())), count);
+                }
+            }
+        });
+        return counts;
+    }
+
+    private String key(ReactionTarget target, Long messageId) {
+        return REACTIONS_PREFIX + (target == ReactionTarget.ROOM_MESSAGE ? "room:" : "dm:") + messageId;
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.DTO.ReadReceiptDTO;
+import com.example.SocialStream.entities.ReadWatermark;
+import com.example.SocialStream.enums.WatermarkScope;
+import com.example.SocialStream.exceptions.InvalidOperationException;
+import com.example.SocialStream.repositories.ChatMessageRepository;
+import com.example.SocialStream.repositories.DirectMessageRepository;
+import com.example.SocialStream.repositories.ReadWatermarkRepository;
+import com.example.SocialStream.repositories.RoomMemberRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Delivered/read watermarks per (user, conversation) and (user, room).
+ * Clients advance a single high-water message id; advances are applied in memory,
+ * broadcast as receipts, and only the latest value per key is written back on each flush.
+ * Client-supplied ids are clamped to the newest message the user can actually have received.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReadReceiptService {
+
+    private final ReadWatermarkRepository readWatermarkRepository;
+    private final RoomMemberRepository roomMemberRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final DirectMessageRepository directMessageRepository;
+    private final FriendshipCacheService friendshipCacheService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final long IDLE_EVICT_MILLIS = 10 * 60_000; // drop clean entries untouched for 10 minutes
+
+    private final Map<WatermarkKey, Watermark> watermarks = new ConcurrentHashMap<>();
+
+    private record WatermarkKey(Long userId, WatermarkScope scope, Long scopeId) {}
+
+    private record Watermark(long delivered, long read, boolean dirty, long touchedAt) {
+        static final Watermark EMPTY = new Watermark(0, 0, false, 0);
+
+        Watermark clean() {
+            return new Watermark(delivered, read, false, touchedAt);
+        }
+    }
+
+    /**
+     * Mark direct messages from a friend as delivered up to messageId
+     */
+    public void markDirectDelivered(Long userId, Long friendId, long messageId) {
+        advanceDirect(userId, friendId, messageId, 0);
+    }
+
+    /**
+     * Mark direct messages from a friend as read up to messageId (implies delivered)
+     */
+    public void markDirectRead(Long userId, Long friendId, long messageId) {
+        advanceDirect(userId, friendId, messageId, messageId);
+    }
+
+    /**
+     * Mark room messages as read up to messageId
+     */
+    public void markRoomRead(Long userId, Long roomId, long messageId) {
+        if (!roomMemberRepository.existsByRoomIdAndUserId(roomId, userId)) {
+            throw new InvalidOperationException("You must be a member of the room to mark messages as read");
+        }
+        WatermarkKey key = new WatermarkKey(userId, WatermarkScope.ROOM, roomId);
+        if (getWatermark(key).read() >= messageId) {
+            return;
+        }
+        long readUpTo = Math.min(messageId, chatMessageRepository.findLatestMessageId(roomId));
+
+        Watermark advanced = advance(key, readUpTo, readUpTo);
+        if (advanced != null) {
+            messagingTemplate.convertAndSend("/topic/room/" + roomId + "/read",
+                    (Object) new ReadReceiptDTO(userId, roomId, advanced.delivered(), advanced.read()));
+        }
+    }
+
+    /**
+     * Last message id the user has read in a direct conversation
+     */
+    public long getDirectReadWatermark(Long userId, Long friendId) {
+        return getWatermark(new WatermarkKey(userId, WatermarkScope.DIRECT, friendId)).read();
+    }
+
+    /**
+     * Read watermark advanced in memory but not yet flushed, or null if the stored value is current
+     */
+    public Long getUnflushedDirectReadWatermark(Long userId, Long friendId) {
+        Watermark current = watermarks.get(new WatermarkKey(userId, WatermarkScope.DIRECT, friendId));
+        return current != null && current.dirty() ? current.read() : null;
+    }
+
+    /**
+     * Last message id the user has read in a room
+     */
+    public long getRoomReadWatermark(Long userId, Long roomId) {
+        return getWatermark(new WatermarkKey(userId, WatermarkScope.ROOM, roomId)).read();
+    }
+
+    /**
+     * Write back the latest watermark of every key advanced since the previous flush
+     */
+    @Scheduled(fixedDelay = 5000)
+    public void flushWatermarks() {
+        long now = System.currentTimeMillis();
+        watermarks.entrySet().removeIf(entry ->
+                !entry.getValue().dirty() && now - entry.getValue().touchedAt() > IDLE_EVICT_MILLIS);
+
+        List<Map.Entry<WatermarkKey, Watermark>> dirty = watermarks.entrySet().stream()
+                .filter(entry -> entry.getValue().dirty())
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .toList();
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        try {
+            LocalDateTime updatedAt = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status -> dirty.forEach(entry ->
+                    readWatermarkRepository.upsert(
+                            entry.getKey().userId(),
+                            entry.getKey().scope().name(),
+                            entry.getKey().scopeId(),
+                            entry.getValue().delivered(),
+                            entry.getValue().read(),
+                            updatedAt)));
+
+            // Only clear the flag if nothing advanced while we were writing
+            dirty.forEach(entry -> watermarks.computeIfPresent(entry.getKey(),
+                    (key, current) -> current.equals(entry.getValue()) ? current.clean() : current));
+            log.debug("Flushed {} read watermarks", dirty.size());
+        } catch (Exception e) {
+            log.warn("Failed to flush read watermarks, will retry: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushWatermarks();
+    }
+
+    private void advanceDirect(Long userId, Long friendId, long delivered, long read) {
+        if (!friendshipCacheService.areFriends(userId, friendId)) {
+            throw new InvalidOperationException("You can only acknowledge messages from friends");
+        }
+        WatermarkKey key = new WatermarkKey(userId, WatermarkScope.DIRECT, friendId);
+        Watermark current = getWatermark(key);
+        if (current.delivered() >= delivered && current.read() >= read) {
+            return;
+        }
+        long latest = directMessageRepository.findLatestMessageId(friendId, userId);
+
+        Watermark advanced = advance(key, Math.min(delivered, latest), Math.min(read, latest));
+        if (advanced != null) {
+            messagingTemplate.convertAndSend("/queue/" + friendId + "/read",
+                    (Object) new ReadReceiptDTO(userId, null, advanced.delivered(), advanced.read()));
+        }
+    }
+
+    /**
+     * Move a watermark forward; returns the new value, or null if it did not advance
+     */
+    private Watermark advance(WatermarkKey key, long delivered, long read) {
+        Watermark loaded = watermarks.containsKey(key) ? null : load(key);
+        long now = System.currentTimeMillis();
+        Watermark[] advanced = {null};
+
+        watermarks.compute(key, (k, current) -> {
+            Watermark base = current != null ? current : (loaded != null ? loaded : Watermark.EMPTY);
+            long newRead = Math.max(base.read(), read);
+            long newDelivered = Math.max(base.delivered(), Math.max(delivered, newRead));
+            if (newRead == base.read() && newDelivered == base.delivered()) {
+                return new Watermark(base.delivered(), base.read(), base.dirty(), now);
+            }
+            advanced[0] = new Watermark(newDelivered, newRead, true, now);
+            return advanced[0];
+        });
+
+        return advanced[0];
+    }
+
+    private Watermark getWatermark(WatermarkKey key) {
+        Watermark current = watermarks.get(key);
+        if (current != null) {
+            return current;
+        }
+        Watermark loaded = load(key);
+        Watermark existing = watermarks.putIfAbsent(key, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private Watermark load(WatermarkKey key) {
+        return readWatermarkRepository.findByUserIdAndScopeAndScopeId(key.userId(), key.scope(), key.scopeId())
+                .map(watermark -> new Watermark(
+                        watermark.getLastDeliveredMessageId(),
+                        watermark.getLastReadMessageId(),
+                        false,
+                        System.currentTimeMillis()))
+                .orElse(new Watermark(0, 0, false, System.currentTimeMillis()));
+    }
+}
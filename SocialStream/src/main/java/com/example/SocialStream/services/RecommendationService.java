@@ -2,11 +2,12 @@ package com.example.SocialStream.services;
 
 import com.example.SocialStream.DTO.RecommendationResponseDTO;
 import com.example.SocialStream.DTO.RecommendedVideoDTO;
-import com.example.SocialStream.entities.Video;
-import com.example.SocialStream.repositories.VideoRepository;
+import com.example.SocialStream.DTO.VideoDescriptor;
+import com.example.SocialStream.repositories.VideoCatalogRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -24,7 +25,8 @@ import java.util.stream.Collectors;
 public class RecommendationService {
 
     private final RestTemplate restTemplate;
-    private final VideoRepository videoRepository;
+    private final VideoCatalogRepository videoCatalogRepository;
+    private final VideoCatalogCache videoCatalogCache;
     private final RedisTemplate<String, Object> redisTemplate;
 
     @Value("${fastapi.service.url:http://localhost:8001}")
@@ -101,16 +103,10 @@ public class RecommendationService {
             log.warn("FastAPI trending endpoint unavailable, using local fallback: {}", e.getMessage());
         }
 
-        // Fallback: Get videos sorted by popularity (viewCount * rating)
-        List<Video> videos = videoRepository.findAll();
+        // Fallback: Get videos sorted by popularity (viewCount * rating), ranked by the database
+        List<Long> videoIds = videoCatalogRepository.findIdsByPopularity(PageRequest.of(0, Math.max(limit, 1)));
         
-        List<RecommendedVideoDTO> recommendedVideos = videos.stream()
-            .sorted((v1, v2) -> {
-                double score1 = calculatePopularityScore(v1);
-                double score2 = calculatePopularityScore(v2);
-                return Double.compare(score2, score1);
-            })
-            .limit(limit)
+        List<RecommendedVideoDTO> recommendedVideos = videoCatalogCache.getAll(videoIds).values().stream()
             .map(this::convertToRecommendedVideoDTO)
             .collect(Collectors.toList());
 
@@ -127,35 +123,35 @@ public class RecommendationService {
     /**
      * Calculate popularity score for a video
      */
-    private double calculatePopularityScore(Video video) {
-        double viewScore = video.getViewCount();
-        double ratingScore = video.getRating() != null ? video.getRating().doubleValue() : 5.0;
+    private double calculatePopularityScore(VideoDescriptor video) {
+        double viewScore = video.viewCount();
+        double ratingScore = video.rating() != null ? video.rating().doubleValue() : 5.0;
         
         // Weight views and rating
         return (viewScore * 0.7) + (ratingScore * 0.3 * 100);
     }
 
     /**
-     * Convert Video entity to RecommendedVideoDTO
+     * Convert a catalog video descriptor to RecommendedVideoDTO
      */
-    private RecommendedVideoDTO convertToRecommendedVideoDTO(Video video) {
+    private RecommendedVideoDTO convertToRecommendedVideoDTO(VideoDescriptor video) {
         RecommendedVideoDTO dto = new RecommendedVideoDTO();
-        dto.setId(video.getId());
-        dto.setTitle(video.getTitle());
-        dto.setMediaUrl(video.getMediaurl());
-        dto.setThumbnailUrl(video.getThumbnailurl());
-        dto.setDurationInSeconds(video.getDuration());
-        dto.setDirector(video.getDirector());
-        dto.setYear(video.getYear());
-        dto.setGenre(video.getGenre());
-        dto.setRating(video.getRating());
-        dto.setViewCount(video.getViewCount());
-        dto.setDescription(video.getDescription());
-        dto.setUploadedAt(video.getUploadedAt());
+        dto.setId(video.id());
+        dto.setTitle(video.title());
+        dto.setMediaUrl(video.mediaUrl());
+        dto.setThumbnailUrl(video.thumbnailUrl());
+        dto.setDurationInSeconds(video.durationInSeconds());
+        dto.setDirector(video.director());
+        dto.setYear(video.year());
+        dto.setGenre(video.genre());
+        dto.setRating(video.rating());
+        dto.setViewCount(video.viewCount());
+        dto.setDescription(video.description());
+        dto.setUploadedAt(video.uploadedAt());
         dto.setRecommendationScore(calculatePopularityScore(video));
         
-        if (video.getCast() != null && !video.getCast().isEmpty()) {
-            dto.setCast(List.of(video.getCast().split(",")));
+        if (video.cast() != null && !video.cast().isEmpty()) {
+            dto.setCast(List.of(video.cast().split(",")));
         } else {
             dto.setCast(new ArrayList<>());
         }
@@ -0,0 +1,44 @@
+package com.example.SocialStream.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.IntSupplier;
+
+/**
+ * Runs one-off data migrations (backfills of denormalized columns and tables) once per database.
+ * Services call it from SmartInitializingSingleton.afterSingletonsInstantiated, which runs after Hibernate
+ * has updated the schema and before the web server starts, so no request sees unmigrated data.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SchemaMigrationService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Apply the migration unless schema_migration already records it.
+     * The marker row is inserted in the migration's own transaction: a node starting at the same time blocks
+     * on that row until the first one commits and then skips the migration, and a migration that fails leaves
+     * no marker behind, so the next start retries it. Failures propagate and stop startup.
+     * @param migration applies the change and returns the number of rows it touched
+     */
+    public void applyOnce(String name, IntSupplier migration) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int claimed = jdbcTemplate.update("INSERT IGNORE INTO schema_migration (name, applied_at) VALUES (?, ?)",
+                    name, Timestamp.valueOf(LocalDateTime.now()));
+            if (claimed == 0) {
+                return;
+            }
+            int rows = migration.getAsInt();
+            log.info("Applied migration {} ({} rows)", name, rows);
+        });
+    }
+}
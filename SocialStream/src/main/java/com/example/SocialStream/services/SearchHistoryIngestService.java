@@ -0,0 +1,154 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.utils.SearchText;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Asynchronous search-history ingestion.
+ * Searches are queued in memory and written in JDBC batches, together with per-day query counts
+ * in search_query_daily, instead of one user lookup and INSERT per search. Trending counts are
+ * updated immediately in memory.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchHistoryIngestService implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TrendingQueryService trendingQueryService;
+    private final SchemaMigrationService schemaMigrationService;
+
+    private static final int QUEUE_CAPACITY = 50_000; // searches beyond this are dropped, not blocked on
+    private static final int FLUSH_BATCH_SIZE = 5_000;
+    private static final int MAX_FLUSH_ATTEMPTS = 5; // a batch that keeps failing is dropped instead of requeued forever
+
+    private static final String UPSERT_DAILY_COUNT = "INSERT INTO search_query_daily (query, day, search_count) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE search_count = ";
+
+    private final BlockingQueue<SearchEvent> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    private record SearchEvent(Long userId, String query, LocalDateTime searchedAt, int attempts) {}
+
+    /**
+     * Queue a search for writing
+     * @return false if the queue is full and the search was dropped
+     */
+    public boolean submit(Long userId, String query) {
+        trendingQueryService.record(query);
+        boolean queued = queue.offer(new SearchEvent(userId, query, LocalDateTime.now(), 0));
+        if (!queued) {
+            log.warn("Search history queue full, dropping search by user {}", userId);
+        }
+        return queued;
+    }
+
+    /**
+     * Write queued searches and their daily query counts in one transaction
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void flush() {
+        List<SearchEvent> batch = new ArrayList<>();
+        queue.drainTo(batch, FLUSH_BATCH_SIZE);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Map<List<Object>, Long> dailyCounts = new HashMap<>();
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (SearchEvent event : batch) {
+            // Selecting from users skips searches by accounts deleted since they searched
+            rows.add(new Object[]{event.userId(), event.query(), Timestamp.valueOf(event.searchedAt()), event.userId()});
+            String key = SearchText.normalize(event.query());
+            if (!key.isEmpty()) {
+                dailyCounts.merge(List.of(key, event.searchedAt().toLocalDate()), 1L, Long::sum);
+            }
+        }
+        List<Object[]> counts = toRows(dailyCounts);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO search_history (user_id, query, searched_at) SELECT ?, ?, ? FROM users WHERE id = ?",
+                        rows);
+                jdbcTemplate.batchUpdate(UPSERT_DAILY_COUNT + "search_count + VALUES(search_count)", counts);
+            });
+            log.debug("Flushed {} searches", batch.size());
+        } catch (Exception e) {
+            List<SearchEvent> retries = batch.stream()
+                    .filter(event -> event.attempts() + 1 < MAX_FLUSH_ATTEMPTS)
+                    .map(event -> new SearchEvent(event.userId(), event.query(), event.searchedAt(), event.attempts() + 1))
+                    .toList();
+            log.warn("Failed to flush search history, retrying {} and dropping {} searches: {}",
+                    retries.size(), batch.size() - retries.size(), e.getMessage());
+            retries.forEach(queue::offer);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Fill the daily counts from search history recorded before they existed, once per database.
+     * History is keyed with SearchText.normalize, the same as live ingestion, and rows an earlier backfill
+     * keyed by LOWER(TRIM(query)) are replaced. GREATEST keeps counts that live ingestion has already moved
+     * past the history snapshot, and makes the backfill safe to run again.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        schemaMigrationService.applyOnce("backfill-search-query-daily", this::backfillDailyCounts);
+    }
+
+    private int backfillDailyCounts() {
+        List<Object[]> stale = new ArrayList<>();
+        jdbcTemplate.query("SELECT DISTINCT query FROM search_query_daily", (RowCallbackHandler) rs -> {
+            String query = rs.getString(1);
+            if (!query.equals(SearchText.normalize(query))) {
+                stale.add(new Object[]{query});
+            }
+        });
+        jdbcTemplate.batchUpdate("DELETE FROM search_query_daily WHERE query = ?", stale);
+
+        Map<List<Object>, Long> dailyCounts = new HashMap<>();
+        jdbcTemplate.query("SELECT query, DATE(searched_at), COUNT(*) FROM search_history " +
+                "GROUP BY query, DATE(searched_at)", (RowCallbackHandler) rs -> {
+            String key = SearchText.normalize(rs.getString(1));
+            if (!key.isEmpty()) {
+                dailyCounts.merge(List.of(key, rs.getDate(2).toLocalDate()), rs.getLong(3), Long::sum);
+            }
+        });
+        List<Object[]> counts = toRows(dailyCounts);
+        for (int from = 0; from < counts.size(); from += FLUSH_BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(UPSERT_DAILY_COUNT + "GREATEST(search_count, VALUES(search_count))",
+                    counts.subList(from, Math.min(from + FLUSH_BATCH_SIZE, counts.size())));
+        }
+        return counts.size();
+    }
+
+    private static List<Object[]> toRows(Map<List<Object>, Long> dailyCounts) {
+        return dailyCounts.entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey().get(0), Date.valueOf((LocalDate) entry.getKey().get(1)), entry.getValue()})
+                .toList();
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.DTO.SearchCacheStatsDTO;
+import com.example.SocialStream.DTO.VideoSearchPageDTO;
+import com.example.SocialStream.enums.VideoFacet;
+import com.example.SocialStream.utils.SearchText;
+import com.example.SocialStream.utils.TinyLfuCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache of search result pages, keyed by normalized query, facet filters and page.
+ * The local tier is a bounded TinyLFU cache; the optional Redis tier is shared by all nodes.
+ * Keys carry the catalog version, so a catalog change invalidates every cached page at once.
+ * A page is shared only once the local index has caught up with that version, so a lagging node
+ * cannot publish a page that misses a video under the version that added it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchResultCache {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final VideoSearchIndex videoSearchIndex;
+    private final CatalogVersionService catalogVersionService;
+
+    private static final String RESULT_PREFIX = "search:result:";
+    private static final int LOCAL_CAPACITY = 10_000;
+    private static final long LOCAL_TTL_MILLIS = 5 * 60_000;
+    // Version bumps already retire shared pages; the TTL only bounds how long unused ones stay in Redis
+    private static final long REDIS_TTL_SECONDS = 60;
+
+    @Value("${search.cache.redis.enabled:true}")
+    private boolean redisEnabled;
+
+    private final TinyLfuCache<String, VideoSearchPageDTO> local = new TinyLfuCache<>(LOCAL_CAPACITY, LOCAL_TTL_MILLIS);
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder redisHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder localHitNanos = new LongAdder();
+    private final LongAdder redisHitNanos = new LongAdder();
+    private final LongAdder missNanos = new LongAdder();
+    private final LongAccumulator maxMissNanos = new LongAccumulator(Long::max, 0);
+
+    /**
+     * Cached page for the search, computing and storing it on a miss
+     */
+    public VideoSearchPageDTO get(String query, Map<VideoFacet, Set<String>> filters, int page, int size,
+                                  boolean fuzzy, Supplier<VideoSearchPageDTO> loader) {
+        long start = System.nanoTime();
+        long catalogVersion = catalogVersionService.current();
+        String sharedKey = RESULT_PREFIX + catalogVersion + ":" + normalizedKey(query, filters, page, size, fuzzy);
+        // The local index may lag the shared catalog version, so local entries also carry its generation
+        String localKey = videoSearchIndex.generation() + ":" + sharedKey;
+
+        VideoSearchPageDTO cached = local.get(localKey);
+        if (cached != null) {
+            localHits.increment();
+            localHitNanos.add(System.nanoTime() - start);
+            return cached;
+        }
+
+        cached = readShared(sharedKey);
+        if (cached != null) {
+            local.put(localKey, cached);
+            redisHits.increment();
+            redisHitNanos.add(System.nanoTime() - start);
+            return cached;
+        }
+
+        boolean caughtUp = videoSearchIndex.isCaughtUpTo(catalogVersion);
+        VideoSearchPageDTO loaded = loader.get();
+        local.put(localKey, loaded);
+        if (caughtUp) {
+            writeShared(sharedKey, loaded);
+        }
+        long elapsed = System.nanoTime() - start;
+        misses.increment();
+        missNanos.add(elapsed);
+        maxMissNanos.accumulate(elapsed);
+        return loaded;
+    }
+
+    public SearchCacheStatsDTO getStats() {
+        long local = localHits.sum();
+        long shared = redisHits.sum();
+        long missed = misses.sum();
+        long total = local + shared + missed;
+        return new SearchCacheStatsDTO(
+                local,
+                shared,
+                missed,
+                total == 0 ? 0 : (double) (local + shared) / total,
+                micros(localHitNanos.sum(), local),
+                micros(redisHitNanos.sum(), shared),
+                micros(missNanos.sum(), missed),
+                TimeUnit.NANOSECONDS.toMicros(maxMissNanos.get()),
+                this.local.size(),
+                catalogVersionService.current());
+    }
+
+    private VideoSearchPageDTO readShared(String key) {
+        if (!redisEnabled) {
+            return null;
+        }
+        try {
+            String json = stringRedisTemplate.opsForValue().get(key);
+            return json != null ? objectMapper.readValue(json, VideoSearchPageDTO.class) : null;
+        } catch (Exception e) {
+            log.debug("Failed to read cached search page: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeShared(String key, VideoSearchPageDTO page) {
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(page),
+                    REDIS_TTL_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.debug("Failed to cache search page: {}", e.getMessage());
+        }
+    }
+
+    // Same key for queries that differ only in case, accents, punctuation or filter order
+    private String normalizedKey(String query, Map<VideoFacet, Set<String>> filters, int page, int size, boolean fuzzy) {
+        StringBuilder key = new StringBuilder(SearchText.normalize(query));
+        new TreeMap<>(filters).forEach((facet, values) -> {
+            Set<String> sorted = new TreeSet<>();
+            values.forEach(value -> sorted.add(value.trim().toLowerCase(Locale.ROOT)));
+            key.append('|').append(facet.name()).append('=').append(String.join(",", sorted));
+        });
+        return key.append('|').append(page).append('|').append(size).append('|').append(fuzzy).toString();
+    }
+
+    private double micros(long nanos, long count) {
+        return count == 0 ? 0 : nanos / 1000.0 / count;
+    }
+}
@@ -1,40 +1,102 @@
 package com.example.SocialStream.services;
 
+import com.example.SocialStream.DTO.AutocompleteSuggestionDTO;
+import com.example.SocialStream.DTO.SearchCacheStatsDTO;
+import com.example.SocialStream.DTO.TrendingQueryDTO;
+import com.example.SocialStream.DTO.VideoDescriptor;
 import com.example.SocialStream.DTO.VideoResponseDTO;
-import com.example.SocialStream.repositories.VideoRepository;
+import com.example.SocialStream.DTO.VideoSearchPageDTO;
+import com.example.SocialStream.enums.VideoFacet;
+import com.example.SocialStream.repositories.VideoCatalogRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class SearchService {
 
-    private final VideoRepository videoRepository;
+    private final VideoCatalogRepository videoCatalogRepository;
+    private final VideoSearchIndex videoSearchIndex;
+    private final AutocompleteService autocompleteService;
+    private final SearchResultCache searchResultCache;
+    private final TrendingQueryService trendingQueryService;
+
+    private static final int MAX_PAGE_SIZE = 50;
+
+    /**
+     * Ranked full-text search over title, director, cast, genre and description, with facet counts
+     * Every query word must match, either as a whole word or as the start of one
+     * @param filters selected values per facet; a video needs one value of every filtered facet
+     * @param fuzzy let misspelled words match words a few edits away
+     */
+    public VideoSearchPageDTO searchVideos(String query, Map<VideoFacet, Set<String>> filters,
+                                           int page, int size, boolean fuzzy) {
+        PageRequest pageable = pageOf(page, size);
+        if (!videoSearchIndex.isReady()) {
+            return loadPage(query, filters, pageable, fuzzy); // not cached: the index is still empty
+        }
+        return searchResultCache.get(query, filters, pageable.getPageNumber(), pageable.getPageSize(), fuzzy,
+            () -> loadPage(query, filters, pageable, fuzzy));
+    }
+
+    /**
+     * Most searched queries within the last few minutes
+     */
+    public List<TrendingQueryDTO> getTrendingQueries(int minutes, int limit) {
+        return trendingQueryService.getTrending(minutes, limit);
+    }
+
+    /**
+     * Hit ratio and latency of the search result cache
+     */
+    public SearchCacheStatsDTO getCacheStats() {
+        return searchResultCache.getStats();
+    }
+
+    private VideoSearchPageDTO loadPage(String query, Map<VideoFacet, Set<String>> filters,
+                                        PageRequest pageable, boolean fuzzy) {
+        VideoSearchIndex.Hits hits = videoSearchIndex.search(query, filters,
+            pageable.getPageNumber(), pageable.getPageSize(), fuzzy);
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        hits.facets().forEach((facet, counts) -> facets.put(facet.name().toLowerCase(Locale.ROOT), counts));
+        return new VideoSearchPageDTO(loadInOrder(hits.videoIds()), hits.total(),
+            pageable.getPageNumber(), pageable.getPageSize(), facets);
+    }
+
+    /**
+     * Completions for a partially typed query: video titles weighted by views, and popular queries
+     */
+    public List<AutocompleteSuggestionDTO> autocomplete(String prefix, int limit) {
+        return autocompleteService.complete(prefix, limit);
+    }
 
     /**
      * Search videos by title containing the given pattern (case-insensitive)
      * @param titlePattern The pattern to search for in video titles
-     * @return List of VideoResponseDTO matching the pattern
+     * @return One page of VideoResponseDTO matching the pattern
      */
-    public List<VideoResponseDTO> searchVideosByTitlePattern(String titlePattern) {
-        return videoRepository.findByTitleContainingIgnoreCase(titlePattern)
-            .stream()
-            .map(VideoResponseDTO::new)
-            .toList();
+    public List<VideoResponseDTO> searchVideosByTitlePattern(String titlePattern, int page, int size) {
+        return searchPage(titlePattern, pageOf(page, size));
     }
 
     /**
      * Advanced search using custom query pattern
      * @param pattern The search pattern
-     * @return List of VideoResponseDTO matching the pattern
+     * @return One page of VideoResponseDTO matching the pattern
      */
-    public List<VideoResponseDTO> advancedVideoSearch(String pattern) {
-        return videoRepository.searchByTitlePattern(pattern)
-            .stream()
-            .map(VideoResponseDTO::new)
-            .toList();
+    public List<VideoResponseDTO> advancedVideoSearch(String pattern, int page, int size) {
+        return searchPage(pattern, pageOf(page, size));
     }
 
     /**
@@ -43,8 +105,29 @@ public class SearchService {
      * @return VideoResponseDTO if found
      */
     public VideoResponseDTO searchVideoByExactTitle(String title) {
-        return videoRepository.findByTitle(title)
-            .map(VideoResponseDTO::new)
+        return videoCatalogRepository.findFirstByTitle(title)
+            .map(entry -> new VideoResponseDTO(VideoDescriptor.of(entry)))
             .orElse(null);
     }
+
+    // Kept as a substring match ("ark" finds "Dark"); ranked word and prefix search is searchVideos
+    private List<VideoResponseDTO> searchPage(String pattern, PageRequest pageable) {
+        return videoCatalogRepository.searchByTitlePattern(pattern, pageable);
+    }
+
+    private List<VideoResponseDTO> loadInOrder(List<Long> videoIds) {
+        if (videoIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, VideoResponseDTO> videos = videoCatalogRepository.findResponsesByIdIn(videoIds).stream()
+            .collect(Collectors.toMap(VideoResponseDTO::getId, Function.identity()));
+        return videoIds.stream()
+            .map(videos::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    private PageRequest pageOf(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+    }
 }
@@ -2,35 +2,65 @@ package com.example.SocialStream.services;
 
 import com.example.SocialStream.DTO.FriendReqResponseDTO;
 import com.example.SocialStream.entities.Friendship;
-import com.example.SocialStream.entities.User;
 import com.example.SocialStream.enums.FriendshipStatus;
+import com.example.SocialStream.exceptions.InvalidOperationException;
+import com.example.SocialStream.exceptions.UserNotFoundException;
+import com.example.SocialStream.repositories.FriendEdgeRepository;
 import com.example.SocialStream.repositories.FriendRepository;
 import com.example.SocialStream.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
-public class SocialService {
+public class SocialService implements SmartInitializingSingleton {
     private final UserRepository userRepository;
     private final FriendRepository friendRepository;
+    private final FriendEdgeRepository friendEdgeRepository;
+    private final FriendshipCacheService friendshipCacheService;
+    private final TimelineService timelineService;
+    private final FriendSuggestionService friendSuggestionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaMigrationService schemaMigrationService;
 
+    private static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Send a friend request; repeating it, or sending one to a user who already has a pending,
+     * accepted or blocked friendship with the sender in either direction, changes nothing.
+     * A declined friendship of the pair is reopened as a new request.
+     */
     @Transactional
     public String sendFriendRequest(Long userId,Long friendId){
-        User reqsender = userRepository.findById(userId)
-                .orElseThrow(()-> new RuntimeException("User not found with id: "+userId));
-        User reqReceiver = userRepository.findById(friendId)
-                .orElseThrow(()-> new RuntimeException("User not found with id: "+friendId));
-        Friendship friendship = new Friendship();
-        friendship.setRequester(reqsender);
-        friendship.setReceiver(reqReceiver);
-        friendship.setStatus(FriendshipStatus.PENDING);
-        friendship.setCreatedAt(LocalDateTime.now());
-        friendRepository.save(friendship);
+        if (userId.equals(friendId)) {
+            throw new InvalidOperationException("You cannot send a friend request to yourself");
+        }
+        if (!userRepository.existsById(friendId)) {
+            throw new UserNotFoundException("User not found with id: "+friendId);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (friendRepository.reopenDeclinedRequest(userId, friendId, now) == 0) {
+            try {
+                // Through JdbcTemplate so a duplicate does not mark the transaction rollback-only
+                jdbcTemplate.update("INSERT INTO friendships " +
+                        "(requester_id, receiver_id, status, created_at, user_low_id, user_high_id) " +
+                        "VALUES (?, ?, 'PENDING', ?, ?, ?)",
+                        userId, friendId, Timestamp.valueOf(now), Math.min(userId, friendId), Math.max(userId, friendId));
+            } catch (DuplicateKeyException e) {
+                return "Friend request already exists";
+            }
+        }
+        friendSuggestionService.onRequestSent(userId, friendId);
         return "Friend request sent successfully";
     }
 
@@ -40,6 +70,10 @@ public class SocialService {
                 .orElseThrow(()-> new RuntimeException("Friendship not found with id: "+friendshipId));
         friendship.setStatus(FriendshipStatus.ACCEPTED);
         friendRepository.save(friendship);
+        friendEdgeRepository.insertPair(friendship.getRequester().getId(), friendship.getReceiver().getId());
+        friendshipCacheService.evict(friendship.getRequester().getId(), friendship.getReceiver().getId());
+        timelineService.invalidate(friendship.getRequester().getId(), friendship.getReceiver().getId());
+        friendSuggestionService.onFriendshipAccepted(friendship.getRequester().getId(), friendship.getReceiver().getId());
     }
     @Transactional
     public void rejectFriendRequest(Long friendshipId){
@@ -47,46 +81,49 @@ public class SocialService {
                 .orElseThrow(()-> new RuntimeException("Friendship not found with id: "+friendshipId));
         friendship.setStatus(FriendshipStatus.DECLINED);
         friendRepository.save(friendship);
+        friendEdgeRepository.deletePair(friendship.getRequester().getId(), friendship.getReceiver().getId());
+        friendshipCacheService.evict(friendship.getRequester().getId(), friendship.getReceiver().getId());
+        timelineService.invalidate(friendship.getRequester().getId(), friendship.getReceiver().getId());
+    }
+    /**
+     * Create friend edges for friendships accepted before the friend_edge table existed, once per database
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        schemaMigrationService.applyOnce("backfill-friend-edges", friendEdgeRepository::backfill);
     }
-    public List<FriendReqResponseDTO> getFriendRequests(Long receiverId){
-        List<Friendship> friendrequests = friendRepository.findPendingRequestsByReceiverId(receiverId);
 
-        return friendrequests.stream()
-                .map(FriendReqResponseDTO::new)
-                .toList();
+    public List<FriendReqResponseDTO> getFriendRequests(Long receiverId){
+        return friendRepository.findPendingRequestsByReceiverId(receiverId);
     }
-    public List<FriendReqResponseDTO> getFriendSuggestions(Long userId){
-        List<User> allUsers = userRepository.findAll();
-        List<Friendship> existingFriendships = friendRepository.findAll();
 
-        return allUsers.stream()
-                .filter(user -> !user.getId().equals(userId)) // Exclude self
-                .filter(user -> existingFriendships.stream()
-                        .noneMatch(f -> (f.getRequester().getId().equals(userId) && f.getReceiver().getId().equals(user.getId())) ||
-                                (f.getReceiver().getId().equals(userId) && f.getRequester().getId().equals(user.getId()))
-                        )) // Exclude existing friendships
-                .map(user -> {
-                    Friendship dummyFriendship = new Friendship();
-                    dummyFriendship.setRequester(user); // Set the suggested user as requester so DTO shows their info
-                    dummyFriendship.setReceiver(userRepository.findById(userId).orElse(null));
-                    return new FriendReqResponseDTO(dummyFriendship);
-                })
-                .toList();
+    /**
+     * Friends of friends ranked by mutual friends, one page at a time
+     * Users without any friends-of-friends get users they have no friendship with instead
+     */
+    public List<FriendReqResponseDTO> getFriendSuggestions(Long userId, int page, int size){
+        Pageable pageable = pageOf(page, size);
+        if (friendSuggestionService.hasCandidates(userId)) {
+            return friendSuggestionService.getSuggestions(userId, pageable.getPageNumber(), pageable.getPageSize());
+        }
+        return friendRepository.findUnconnectedUsers(userId, pageable);
     }
+
+    /**
+     * All of the current user's accepted friends, for clients that do not page
+     */
     public List<FriendReqResponseDTO> getMyFriends(Long userId){
-        List<Friendship> friendships = friendRepository.findAll().stream()
-                .filter(f -> (f.getRequester().getId().equals(userId) || f.getReceiver().getId().equals(userId))
-                        && f.getStatus() == FriendshipStatus.ACCEPTED)
-                .toList();
+        return friendRepository.findFriends(userId, Pageable.unpaged());
+    }
+
+    /**
+     * The current user's accepted friends, one page at a time
+     */
+    public List<FriendReqResponseDTO> getMyFriends(Long userId, int page, int size){
+        return friendRepository.findFriends(userId, pageOf(page, size));
+    }
 
-        return friendships.stream()
-                .map(f -> {
-                    User friend = f.getRequester().getId().equals(userId) ? f.getReceiver() : f.getRequester();
-                    Friendship dummyFriendship = new Friendship();
-                    dummyFriendship.setRequester(friend); // Set friend as requester so DTO shows friend's info
-                    dummyFriendship.setReceiver(userRepository.findById(userId).orElse(null));
-                    return new FriendReqResponseDTO(dummyFriendship);
-                })
-                .toList();
+    private Pageable pageOf(int page, int size){
+        return PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
     }
 }
@@ -0,0 +1,273 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.DTO.FeedCursor;
+import com.example.SocialStream.entities.Post;
+import com.example.SocialStream.repositories.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Friends-feed timelines as bounded Redis sorted sets of post ids scored by upload time.
+ * New posts are pushed to every friend's timeline (fan-out-on-write). Authors with more friends
+ * than FANOUT_LIMIT are not fanned out; their posts are merged in when a timeline is read.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TimelineService {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final PostRepository postRepository;
+    private final FriendshipCacheService friendshipCacheService;
+
+    private static final String TIMELINE_PREFIX = "timeline:";
+    private static final String FANOUT_ON_READ_KEY = "timeline:fanout-on-read"; // authors too large to fan out
+    private static final String EMPTY_MARKER = "0"; // keeps an empty rebuilt timeline from looking cold
+    private static final int TIMELINE_MAX = 500;
+    private static final int FANOUT_LIMIT = 5_000;
+    private static final long EXPIRATION_HOURS = 72;
+    private static final int TIE_SLACK = 16;
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final Comparator<TimelineEntry> NEWEST_FIRST = Comparator
+            .comparingLong(TimelineEntry::timestamp)
+            .thenComparingLong(TimelineEntry::postId)
+            .reversed();
+
+    private record TimelineEntry(long postId, long timestamp) {
+        FeedCursor toCursor() {
+            return new FeedCursor(timestamp, postId);
+        }
+    }
+
+    private record CachedPage(List<TimelineEntry> entries, boolean complete) {}
+
+    private static final int FANOUT_CHUNK = 500; // timelines per pipeline round trip
+    private static final int ZADD_CHUNK = 100; // members per ZADD call, keeps unpack() below Lua's stack limit
+
+    // Adds the post to one timeline if it exists and trims it; cold timelines are rebuilt on read.
+    // Single-key so each call stays on one slot and never holds the server for the whole fan-out.
+    private static final String FANOUT_SCRIPT =
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1]) " +
+            "redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -(tonumber(ARGV[3]) + 2)) " +
+            "return 1";
+
+    // Replaces a timeline in one step, so readers never see it deleted or half filled.
+    // ARGV[1] is the TTL, followed by score/member pairs.
+    private static final DefaultRedisScript<Long> REBUILD_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1]) " +
+            "for i = 2, #ARGV, " + (2 * ZADD_CHUNK) + " do " +
+            "  redis.call('ZADD', KEYS[1], unpack(ARGV, i, math.min(i + " + (2 * ZADD_CHUNK - 1) + ", #ARGV))) " +
+            "end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[1]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * Push a new post into the timelines of the author's friends
+     */
+    public void fanOut(Post post) {
+        Long authorId = post.getUser().getId();
+        long[] friendIds = friendshipCacheService.getFriendIds(authorId);
+        String postId = String.valueOf(post.getId());
+        String score = String.valueOf(score(post));
+        String max = String.valueOf(TIMELINE_MAX);
+
+        try {
+            if (friendIds.length > FANOUT_LIMIT) {
+                stringRedisTemplate.opsForSet().add(FANOUT_ON_READ_KEY, String.valueOf(authorId));
+                return;
+            }
+
+            for (int from = 0; from < friendIds.length; from += FANOUT_CHUNK) {
+                long[] chunk = Arrays.copyOfRange(friendIds, from, Math.min(from + FANOUT_CHUNK, friendIds.length));
+                stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                    for (long friendId : chunk) {
+                        stringConnection.eval(FANOUT_SCRIPT, ReturnType.INTEGER, 1,
+                                TIMELINE_PREFIX + friendId, postId, score, max);
+                    }
+                    return null;
+                });
+            }
+        } catch (Exception e) {
+            log.warn("Failed to fan out post {}: {}", post.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Post ids of the user's friends feed older than the cursor, newest first
+     * @param cursor last item already returned, or null for the first page
+     */
+    public List<Long> getTimeline(Long userId, FeedCursor cursor, int limit) {
+        CachedPage cached = readTimeline(userId, cursor, limit);
+        List<TimelineEntry> page;
+        boolean complete;
+        if (cached != null) {
+            page = cached.entries();
+            complete = cached.complete();
+        } else {
+            List<TimelineEntry> rebuilt = rebuild(userId);
+            page = pageOf(rebuilt, cursor, limit);
+            complete = rebuilt.size() < TIMELINE_MAX;
+        }
+
+        // The cache only holds the newest TIMELINE_MAX posts; older pages continue from the database
+        if (page.size() < limit && !complete) {
+            FeedCursor from = page.isEmpty() ? cursor : page.get(page.size() - 1).toCursor();
+            page.addAll(toEntries(postRepository.findFriendsPostIdsBefore(userId,
+                    fromOf(from), toOf(from), postIdOf(from), PageRequest.of(0, limit - page.size()))));
+        }
+
+        return mergeFanoutOnReadAuthors(userId, page, cursor, limit);
+    }
+
+    /**
+     * Drop the timelines of both users, e.g. after their friendship changes.
+     * Runs after commit when called inside a transaction so a rebuild sees the new friendship.
+     */
+    public void invalidate(Long userId, Long friendId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow(userId, friendId);
+                }
+            });
+        } else {
+            invalidateNow(userId, friendId);
+        }
+    }
+
+    private void invalidateNow(Long userId, Long friendId) {
+        try {
+            stringRedisTemplate.delete(List.of(TIMELINE_PREFIX + userId, TIMELINE_PREFIX + friendId));
+        } catch (Exception e) {
+            log.warn("Failed to invalidate timelines: {}", e.getMessage());
+        }
+    }
+
+    private CachedPage readTimeline(Long userId, FeedCursor cursor, int limit) {
+        try {
+            String key = TIMELINE_PREFIX + userId;
+            double max = cursor == null ? Double.POSITIVE_INFINITY : cursor.getUploadedAtMillis();
+            // Min score 1 skips the empty marker; extra rows cover posts sharing the cursor's millisecond
+            Set<ZSetOperations.TypedTuple<String>> tuples = stringRedisTemplate.opsForZSet()
+                    .reverseRangeByScoreWithScores(key, 1, max, 0, limit + TIE_SLACK);
+            Long size = stringRedisTemplate.opsForZSet().zCard(key);
+            if (size == null || size == 0) {
+                return null;
+            }
+
+            List<TimelineEntry> entries = new ArrayList<>();
+            if (tuples != null) {
+                for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                    entries.add(new TimelineEntry(Long.parseLong(tuple.getValue()), tuple.getScore().longValue()));
+                }
+            }
+            return new CachedPage(pageOf(entries, cursor, limit), size <= TIMELINE_MAX);
+        } catch (Exception e) {
+            log.debug("Redis unavailable, building timeline from database: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private List<TimelineEntry> rebuild(Long userId) {
+        List<TimelineEntry> entries = toEntries(
+                postRepository.findFriendsPostIds(userId, PageRequest.of(0, TIMELINE_MAX)));
+        try {
+            List<String> args = new ArrayList<>(2 * entries.size() + 3);
+            args.add(String.valueOf(TimeUnit.HOURS.toSeconds(EXPIRATION_HOURS)));
+            args.add("0");
+            args.add(EMPTY_MARKER);
+            for (TimelineEntry entry : entries) {
+                args.add(String.valueOf(entry.timestamp()));
+                args.add(String.valueOf(entry.postId()));
+            }
+            stringRedisTemplate.execute(REBUILD_SCRIPT, List.of(TIMELINE_PREFIX + userId), args.toArray());
+        } catch (Exception e) {
+            log.debug("Redis unavailable, timeline not cached: {}", e.getMessage());
+        }
+        return entries;
+    }
+
+    private List<Long> mergeFanoutOnReadAuthors(Long userId, List<TimelineEntry> page, FeedCursor cursor, int limit) {
+        List<Long> authorIds = List.of();
+        try {
+            Set<String> members = stringRedisTemplate.opsForSet().members(FANOUT_ON_READ_KEY);
+            if (members != null && !members.isEmpty()) {
+                long[] friendIds = friendshipCacheService.getFriendIds(userId);
+                authorIds = members.stream()
+                        .map(Long::valueOf)
+                        .filter(authorId -> Arrays.binarySearch(friendIds, authorId) >= 0)
+                        .toList();
+            }
+        } catch (Exception e) {
+            log.debug("Redis unavailable, skipping fan-out-on-read authors: {}", e.getMessage());
+        }
+
+        List<TimelineEntry> merged = new ArrayList<>(page);
+        if (!authorIds.isEmpty()) {
+            // Both lists are newest first and older than the cursor; merge and dedupe
+            merged.addAll(toEntries(postRepository.findPostIdsByAuthorsBefore(authorIds,
+                    fromOf(cursor), toOf(cursor), postIdOf(cursor), PageRequest.of(0, limit))));
+            merged.sort(NEWEST_FIRST);
+        }
+
+        return merged.stream()
+                .map(TimelineEntry::postId)
+                .distinct()
+                .limit(limit)
+                .toList();
+    }
+
+    private List<TimelineEntry> pageOf(List<TimelineEntry> entries, FeedCursor cursor, int limit) {
+        return entries.stream()
+                .filter(entry -> cursor == null || cursor.isAfter(entry.timestamp(), entry.postId()))
+                .sorted(NEWEST_FIRST)
+                .limit(limit)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private List<TimelineEntry> toEntries(List<Object[]> rows) {
+        return rows.stream()
+                .map(row -> new TimelineEntry((Long) row[0], FeedCursor.toMillis((LocalDateTime) row[1])))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    // A null cursor means "before everything": the range predicates then match every post
+    private LocalDateTime fromOf(FeedCursor cursor) {
+        return cursor == null ? END_OF_TIME : cursor.getFrom();
+    }
+
+    private LocalDateTime toOf(FeedCursor cursor) {
+        return cursor == null ? END_OF_TIME : cursor.getTo();
+    }
+
+    private Long postIdOf(FeedCursor cursor) {
+        return cursor == null ? Long.MAX_VALUE : cursor.getPostId();
+    }
+
+    private double score(Post post) {
+        return FeedCursor.toMillis(post.getUploadedAt());
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.DTO.TrendingQueryDTO;
+import com.example.SocialStream.utils.CountMinSketch;
+import com.example.SocialStream.utils.SearchText;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Rolling trending-query counts over the last hour, kept in memory as they are searched.
+ * Each minute has its own count-min sketch and its top candidates ordered by estimated count;
+ * a window's trending list sums the sketches of its minutes for the union of their candidates,
+ * so no search history is scanned.
+ */
+@Service
+public class TrendingQueryService {
+
+    private static final long BUCKET_MILLIS = 60_000;
+    private static final int BUCKETS = 60;
+    private static final int SKETCH_WIDTH = 4096;
+    private static final int CANDIDATES_PER_BUCKET = 100;
+    private static final int MAX_LIMIT = 50;
+
+    private final Bucket[] buckets = new Bucket[BUCKETS];
+
+    private record Candidate(String query, int count) {}
+
+    private static final class Bucket {
+        private static final Comparator<Candidate> BY_COUNT = Comparator
+                .comparingInt(Candidate::count)
+                .thenComparing(Candidate::query);
+
+        private final long minute;
+        private final CountMinSketch sketch = new CountMinSketch(SKETCH_WIDTH);
+        private final Map<String, Candidate> candidates = new HashMap<>();
+        private final TreeSet<Candidate> heap = new TreeSet<>(BY_COUNT); // smallest first
+
+        Bucket(long minute) {
+            this.minute = minute;
+        }
+
+        void record(String query) {
+            int estimate = sketch.increment(query);
+            Candidate previous = candidates.get(query);
+            if (previous != null) {
+                heap.remove(previous);
+            } else if (candidates.size() >= CANDIDATES_PER_BUCKET) {
+                Candidate smallest = heap.first();
+                if (smallest.count() >= estimate) {
+                    return;
+                }
+                heap.pollFirst();
+                candidates.remove(smallest.query());
+            }
+            Candidate updated = new Candidate(query, estimate);
+            candidates.put(query, updated);
+            heap.add(updated);
+        }
+    }
+
+    /**
+     * Count one search
+     */
+    public synchronized void record(String query) {
+        String key = SearchText.normalize(query);
+        if (key.isEmpty()) {
+            return;
+        }
+        long minute = System.currentTimeMillis() / BUCKET_MILLIS;
+        int slot = (int) (minute % BUCKETS);
+        if (buckets[slot] == null || buckets[slot].minute != minute) {
+            buckets[slot] = new Bucket(minute);
+        }
+        buckets[slot].record(key);
+    }
+
+    /**
+     * Most searched queries of the last few minutes, with estimated counts
+     * @param minutes window length, 1 to 60
+     */
+    public synchronized List<TrendingQueryDTO> getTrending(int minutes, int limit) {
+        int window = Math.min(Math.max(minutes, 1), BUCKETS);
+        int wanted = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        long now = System.currentTimeMillis() / BUCKET_MILLIS;
+
+        List<Bucket> inWindow = new ArrayList<>();
+        Set<String> queries = new HashSet<>();
+        for (Bucket bucket : buckets) {
+            if (bucket != null && bucket.minute > now - window) {
+                inWindow.add(bucket);
+                queries.addAll(bucket.candidates.keySet());
+            }
+        }
+
+        List<TrendingQueryDTO> trending = new ArrayList<>(queries.size());
+        for (String query : queries) {
+            long count = 0;
+            for (Bucket bucket : inWindow) {
+                count += bucket.sketch.estimate(query);
+            }
+            trending.add(new TrendingQueryDTO(query, count));
+        }
+        trending.sort(Comparator.comparingLong(TrendingQueryDTO::getCount).reversed()
+                .thenComparing(TrendingQueryDTO::getQuery));
+        return trending.size() > wanted ? new ArrayList<>(trending.subList(0, wanted)) : trending;
+    }
+}
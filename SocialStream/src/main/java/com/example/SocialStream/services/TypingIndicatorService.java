@@ -0,0 +1,118 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.DTO.TypingIndicatorDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ephemeral typing-indicator relay.
+ * Typing state lives only in memory per (sender, recipient) pair: repeated "typing" frames
+ * are debounced, "stopped" frames are only forwarded when the pair was typing, and pairs that
+ * go quiet are expired with a final "stopped" signal. Nothing here touches the database.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TypingIndicatorService {
+
+    private final FriendshipCacheService friendshipCacheService;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // Re-forward "typing" at most this often; the client clears its indicator after 5 seconds
+    private static final long DEBOUNCE_MILLIS = 3_000;
+    // A pair with no typing frame for this long is considered stopped
+    private static final long EXPIRY_MILLIS = 6_000;
+
+    private final Map<String, TypingState> activeTyping = new ConcurrentHashMap<>();
+
+    private static final class TypingState {
+        private final Long senderId;
+        private final String senderName;
+        private final Long recipientId;
+        private volatile long lastForwardedAt;
+        private volatile long lastSeenAt;
+
+        private TypingState(Long senderId, String senderName, Long recipientId, long now) {
+            this.senderId = senderId;
+            this.senderName = senderName;
+            this.recipientId = recipientId;
+            this.lastForwardedAt = now;
+            this.lastSeenAt = now;
+        }
+    }
+
+    /**
+     * Handle a typing frame from a client
+     */
+    public void onTypingFrame(Long senderId, String senderName, Long recipientId, boolean isTyping) {
+        if (!friendshipCacheService.areFriends(senderId, recipientId)) {
+            return; // Silently ignore if not friends
+        }
+
+        String key = senderId + ":" + recipientId;
+        long now = System.currentTimeMillis();
+
+        if (!isTyping) {
+            if (activeTyping.remove(key) != null) {
+                forward(senderId, senderName, recipientId, false);
+            }
+            return;
+        }
+
+        boolean[] shouldForward = {false};
+        activeTyping.compute(key, (k, state) -> {
+            if (state == null) {
+                shouldForward[0] = true;
+                return new TypingState(senderId, senderName, recipientId, now);
+            }
+            state.lastSeenAt = now;
+            if (now - state.lastForwardedAt >= DEBOUNCE_MILLIS) {
+                state.lastForwardedAt = now;
+                shouldForward[0] = true;
+            }
+            return state;
+        });
+
+        if (shouldForward[0]) {
+            forward(senderId, senderName, recipientId, true);
+        }
+    }
+
+    /**
+     * Clear typing state for a pair, e.g. once a message has actually been sent
+     */
+    public void clear(Long senderId, Long recipientId) {
+        TypingState state = activeTyping.remove(senderId + ":" + recipientId);
+        if (state != null) {
+            forward(state.senderId, state.senderName, state.recipientId, false);
+        }
+    }
+
+    /**
+     * Expire pairs that stopped sending typing frames without an explicit stop
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void expireStaleTyping() {
+        long cutoff = System.currentTimeMillis() - EXPIRY_MILLIS;
+        activeTyping.forEach((key, state) -> {
+            if (state.lastSeenAt < cutoff && activeTyping.remove(key, state)) {
+                forward(state.senderId, state.senderName, state.recipientId, false);
+            }
+        });
+    }
+
+    private void forward(Long senderId, String senderName, Long recipientId, boolean isTyping) {
+        try {
+            TypingIndicatorDTO indicator = new TypingIndicatorDTO(senderId, senderName, isTyping);
+            messagingTemplate.convertAndSend("/queue/" + recipientId + "/typing", (Object) indicator);
+        } catch (Exception e) {
+            log.debug("Failed to forward typing indicator: {}", e.getMessage());
+        }
+    }
+}
@@ -25,6 +25,7 @@ public class UserService {
     private final PasswordEncoder bCryptPasswordEncoder;
     private final RoleRepository roleRepository;
     private final PostRepository postRepository;
+    private final PostHydrationService postHydrationService;
 
     public UserDTO registerUser(CreateUserDTO createUserDTO) {
         if (userRepository.findByEmail(createUserDTO.getEmail()).isPresent()) {
@@ -46,16 +47,13 @@ public class UserService {
         return new UserDTO(savedUser);
     }
 
-    public List<PostResponseDTO> getUserPosts(Long userId) {
+    public List<PostResponseDTO> getUserPosts(Long userId, Long viewerId) {
         // Verify user exists
         userRepository.findById(userId)
             .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
 
-        // Get all posts for the user
-        return postRepository.findByUserId(userId)
-            .stream()
-            .map(PostResponseDTO::new)
-            .toList();
+        // Get all posts for the user, newest first
+        return postHydrationService.hydrate(postRepository.findIdsByUserId(userId), viewerId);
     }
 
     public UserDTO updateProfilePicture(Long userId, String profilePictureUrl) {
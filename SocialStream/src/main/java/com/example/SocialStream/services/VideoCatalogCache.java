@@ -0,0 +1,154 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.DTO.VideoDescriptor;
+import com.example.SocialStream.entities.Video;
+import com.example.SocialStream.repositories.VideoCatalogRepository;
+import com.example.SocialStream.repositories.VideoRepository;
+import com.example.SocialStream.utils.TinyLfuCache;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Read-through cache of immutable video descriptors, so hot videos are not re-read through the
+ * media/video join on every lookup. Misses for a batch of ids are loaded with one projection query.
+ * Only videos that exist are cached, so adding videos never makes an entry stale; writers evict the
+ * ids they touched, and the TTL bounds how far the snapshot view counts lag.
+ * With catalog.cache.mode=hibernate (off by default) the local tier is skipped and lookups go through
+ * the Hibernate second-level cache on Media/Video instead, which needs a JCache provider; see application.properties.
+ */
+@Service
+public class VideoCatalogCache {
+
+    private final VideoCatalogRepository videoCatalogRepository;
+    private final VideoRepository videoRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private static final int CAPACITY = 50_000;
+    private static final long TTL_MILLIS = 5 * 60_000; // bounds how stale the snapshot view count gets
+
+    @Value("${catalog.cache.mode:local}")
+    private String mode;
+
+    private final TinyLfuCache<Long, VideoDescriptor> cache = new TinyLfuCache<>(CAPACITY, TTL_MILLIS);
+
+    public VideoCatalogCache(VideoCatalogRepository videoCatalogRepository,
+                             VideoRepository videoRepository,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager) {
+        this.videoCatalogRepository = videoCatalogRepository;
+        this.videoRepository = videoRepository;
+        this.entityManager = entityManager;
+        // Lookups also come from STOMP and scheduler threads; a transaction binds the shared EntityManager to one session
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    public Optional<VideoDescriptor> get(Long videoId) {
+        return Optional.ofNullable(getAll(List.of(videoId)).get(videoId));
+    }
+
+    public boolean exists(Long videoId) {
+        return get(videoId).isPresent();
+    }
+
+    /**
+     * Descriptors of the given videos in request order; unknown ids are left out
+     */
+    public Map<Long, VideoDescriptor> getAll(Collection<Long> videoIds) {
+        List<Long> ids = videoIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        Map<Long, VideoDescriptor> found = isHibernateMode() ? loadThroughSecondLevelCache(ids) : loadThroughLocalCache(ids);
+
+        Map<Long, VideoDescriptor> ordered = new LinkedHashMap<>();
+        for (Long id : ids) {
+            VideoDescriptor descriptor = found.get(id);
+            if (descriptor != null) {
+                ordered.put(id, descriptor);
+            }
+        }
+        return ordered;
+    }
+
+    private Map<Long, VideoDescriptor> loadThroughLocalCache(List<Long> ids) {
+        Map<Long, VideoDescriptor> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            VideoDescriptor descriptor = cache.get(id);
+            if (descriptor != null) {
+                found.put(id, descriptor);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (VideoDescriptor descriptor : videoCatalogRepository.findDescriptorsByIdIn(missing)) {
+                cache.put(descriptor.id(), descriptor);
+                found.put(descriptor.id(), descriptor);
+            }
+        }
+        return found;
+    }
+
+    private Map<Long, VideoDescriptor> loadThroughSecondLevelCache(List<Long> ids) {
+        return readOnlyTransactionTemplate.execute(status -> {
+            Cache secondLevel = entityManager.getEntityManagerFactory().getCache();
+            Map<Long, VideoDescriptor> found = new HashMap<>();
+            List<Long> missing = new ArrayList<>();
+            for (Long id : ids) {
+                Video video = secondLevel.contains(Video.class, id) ? entityManager.find(Video.class, id) : null;
+                if (video != null) {
+                    found.put(id, VideoDescriptor.of(video));
+                } else {
+                    missing.add(id);
+                }
+            }
+
+            // One query for the misses; Hibernate puts the loaded entities into the second-level cache
+            if (!missing.isEmpty()) {
+                for (Video video : videoRepository.findAllById(missing)) {
+                    found.put(video.getId(), VideoDescriptor.of(video));
+                }
+            }
+            return found;
+        });
+    }
+
+    private boolean isHibernateMode() {
+        return "hibernate".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Drop the given videos so the next lookup reads them again; runs after commit when called inside a transaction
+     */
+    public void evict(Collection<Long> videoIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    videoIds.forEach(cache::remove);
+                }
+            });
+        } else {
+            videoIds.forEach(cache::remove);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.DTO.CreateVideoDTO;
+import com.example.SocialStream.DTO.VideoImportProgressDTO;
+import com.example.SocialStream.enums.ImportStatus;
+import com.example.SocialStream.exceptions.InvalidOperationException;
+import com.example.SocialStream.repositories.VideoCatalogRepository;
+import com.example.SocialStream.utils.CsvReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Bulk video import from a streamed JSON-lines or CSV body.
+ * Rows are parsed and validated one at a time and written in JDBC batches to media, video and video_catalog,
+ * using ids reserved up front from MediaIdAllocator. Invalid rows are skipped and reported;
+ * progress of running and recent imports can be polled by import id.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VideoImportService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MediaIdAllocator mediaIdAllocator;
+    private final VideoSearchIndex videoSearchIndex;
+    private final CatalogVersionService catalogVersionService;
+    private final VideoCatalogCache videoCatalogCache;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int MAX_ERRORS = 100;
+    private static final int MAX_COLUMN_LENGTH = 255; // varchar columns not covered by CreateVideoDTO constraints
+    private static final long RETENTION_MILLIS = 60 * 60_000; // finished imports stay visible for an hour
+
+    private final Map<String, ImportJob> imports = new ConcurrentHashMap<>();
+
+    private record ParsedRow(long line, CreateVideoDTO video) {}
+
+    private static final class ImportJob {
+        final String importId;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final long startedNanos = System.nanoTime();
+        final AtomicLong rowsRead = new AtomicLong();
+        final AtomicLong imported = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        volatile ImportStatus status = ImportStatus.RUNNING;
+        volatile long finishedNanos;
+        volatile long finishedAtMillis;
+
+        ImportJob(String importId) {
+            this.importId = importId;
+        }
+
+        void reject(long line, String reason) {
+            rejected.incrementAndGet();
+            if (errors.size() < MAX_ERRORS) {
+                errors.add("line " + line + ": " + reason);
+            }
+        }
+
+        void finish(ImportStatus finalStatus) {
+            finishedNanos = System.nanoTime();
+            finishedAtMillis = System.currentTimeMillis();
+            status = finalStatus;
+        }
+
+        VideoImportProgressDTO snapshot() {
+            long end = status == ImportStatus.RUNNING ? System.nanoTime() : finishedNanos;
+            long elapsedMillis = (end - startedNanos) / 1_000_000;
+            long written = imported.get();
+            double rowsPerSecond = elapsedMillis == 0 ? 0 : written * 1000.0 / elapsedMillis;
+            List<String> errorsCopy;
+            synchronized (errors) {
+                errorsCopy = List.copyOf(errors);
+            }
+            return new VideoImportProgressDTO(importId, status, rowsRead.get(), written, rejected.get(),
+                    errorsCopy, startedAt, elapsedMillis, rowsPerSecond);
+        }
+    }
+
+    /**
+     * Import every row of the input, blocking until it is consumed
+     * @param importId client-chosen id for polling progress, or null to generate one
+     * @param csv true for CSV with a header row of CreateVideoDTO field names, false for JSON lines
+     */
+    public VideoImportProgressDTO importVideos(String importId, InputStream input, boolean csv) {
+        evictFinished();
+        String id = importId == null || importId.isBlank() ? UUID.randomUUID().toString() : importId;
+        ImportJob job = new ImportJob(id);
+        if (imports.putIfAbsent(id, job) != null) {
+            throw new InvalidOperationException("An import with id " + id + " already exists");
+        }
+
+        List<ParsedRow> batch = new ArrayList<>(BATCH_SIZE);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            if (csv) {
+                readCsv(reader, job, batch);
+            } else {
+                readJsonLines(reader, job, batch);
+            }
+            write(batch, job);
+            job.finish(ImportStatus.COMPLETED);
+        } catch (Exception e) {
+            // Batches already written stay imported; the counts show how far the import got
+            log.warn("Video import {} failed: {}", id, e.getMessage());
+            job.errors.add("import aborted: " + e.getMessage());
+            job.finish(ImportStatus.FAILED);
+        } finally {
+            if (job.imported.get() > 0) {
+                catalogVersionService.bump(); // new videos change search results
+            }
+        }
+
+        VideoImportProgressDTO result = job.snapshot();
+        log.info("Video import {} {}: {} imported, {} rejected in {} ms", id, result.getStatus(),
+                result.getImported(), result.getRejected(), result.getElapsedMillis());
+        return result;
+    }
+
+    public Optional<VideoImportProgressDTO> getProgress(String importId) {
+        return Optional.ofNullable(imports.get(importId)).map(ImportJob::snapshot);
+    }
+
+    private void readJsonLines(BufferedReader reader, ImportJob job, List<ParsedRow> batch) throws IOException {
+        long line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            job.rowsRead.incrementAndGet();
+            try {
+                accept(new ParsedRow(line, objectMapper.readValue(text, CreateVideoDTO.class)), job, batch);
+            } catch (JacksonException e) {
+                job.reject(line, "malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, ImportJob job, List<ParsedRow> batch) throws IOException {
+        CsvReader csvReader = new CsvReader(reader);
+        List<String> header = csvReader.readRecord();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        List<String> record;
+        while ((record = csvReader.readRecord()) != null) {
+            long line = csvReader.getRecordLineNumber();
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            job.rowsRead.incrementAndGet();
+            try {
+                accept(new ParsedRow(line, toVideo(record, columns)), job, batch);
+            } catch (NumberFormatException e) {
+                job.reject(line, "invalid number: " + e.getMessage());
+            }
+        }
+    }
+
+    private CreateVideoDTO toVideo(List<String> record, Map<String, Integer> columns) {
+        CreateVideoDTO video = new CreateVideoDTO();
+        video.setMediaUrl(column(record, columns, "mediaurl"));
+        video.setThumbnailUrl(column(record, columns, "thumbnailurl"));
+        String duration = column(record, columns, "durationinseconds");
+        video.setDurationInSeconds(duration == null ? 0 : Integer.parseInt(duration));
+        video.setTitle(column(record, columns, "title"));
+        video.setDirector(column(record, columns, "director"));
+        video.setDescription(column(record, columns, "description"));
+        String rating = column(record, columns, "rating");
+        video.setRating(rating == null ? null : new BigDecimal(rating));
+        video.setCast(column(record, columns, "cast"));
+        video.setYear(column(record, columns, "year"));
+        video.setGenre(column(record, columns, "genre"));
+        return video;
+    }
+
+    private String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private void accept(ParsedRow row, ImportJob job, List<ParsedRow> batch) {
+        String problem = validate(row.video());
+        if (problem != null) {
+            job.reject(row.line(), problem);
+            return;
+        }
+        batch.add(row);
+        if (batch.size() >= BATCH_SIZE) {
+            write(batch, job);
+        }
+    }
+
+    private String validate(CreateVideoDTO video) {
+        Set<ConstraintViolation<CreateVideoDTO>> violations = validator.validate(video);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        for (String value : new String[]{video.getMediaUrl(), video.getThumbnailUrl(), video.getDirector(),
+                video.getYear(), video.getGenre()}) {
+            if (value != null && value.length() > MAX_COLUMN_LENGTH) {
+                return "values must not exceed " + MAX_COLUMN_LENGTH + " characters";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Insert a batch into media, video and video_catalog in one transaction, then index it for search
+     */
+    private void write(List<ParsedRow> batch, ImportJob job) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long firstId = mediaIdAllocator.reserve(batch.size());
+        Timestamp uploadedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> mediaRows = new ArrayList<>(batch.size());
+        List<Object[]> videoRows = new ArrayList<>(batch.size());
+        List<Object[]> catalogRows = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            CreateVideoDTO video = batch.get(i).video();
+            long id = firstId + i;
+            mediaRows.add(new Object[]{id, video.getMediaUrl(), video.getThumbnailUrl(),
+                    video.getDurationInSeconds(), video.getTitle(), uploadedAt});
+            videoRows.add(new Object[]{id, video.getDirector(), video.getYear(), video.getDescription(),
+                    video.getRating(), video.getCast(), video.getGenre()});
+            catalogRows.add(new Object[]{id, video.getMediaUrl(), video.getThumbnailUrl(),
+                    video.getDurationInSeconds(), video.getTitle(), uploadedAt, video.getDirector(), video.getYear(),
+                    video.getDescription(), video.getRating(), video.getCast(), video.getGenre()});
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO media (id, media_type, mediaurl, thumbnailurl, duration, title, uploaded_at) " +
+                    "VALUES (?, 'VIDEO', ?, ?, ?, ?, ?)",
+                    mediaRows);
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO video (id, director, `year`, view_count, description, rating, `cast`, genre) " +
+                    "VALUES (?, ?, ?, 0, ?, ?, ?, ?)",
+                    videoRows);
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO video_catalog (" + VideoCatalogRepository.COLUMNS + ") " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?, ?, ?)",
+                    catalogRows);
+        });
+
+        List<VideoSearchIndex.Document> documents = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            CreateVideoDTO video = batch.get(i).video();
+            documents.add(new VideoSearchIndex.Document(firstId + i, video.getTitle(), video.getDirector(),
+                    video.getCast(), video.getGenre(), video.getDescription(), 0, video.getYear(), video.getRating()));
+        }
+        videoSearchIndex.indexAll(documents);
+        videoCatalogCache.evict(LongStream.range(firstId, firstId + batch.size()).boxed().toList());
+        job.imported.addAndGet(batch.size());
+        batch.clear();
+    }
+
+    private void evictFinished() {
+        long cutoff = System.currentTimeMillis() - RETENTION_MILLIS;
+        imports.values().removeIf(job -> job.status != ImportStatus.RUNNING && job.finishedAtMillis < cutoff);
+    }
+}
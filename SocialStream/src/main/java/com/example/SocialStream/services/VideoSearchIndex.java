@@ -0,0 +1,692 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.entities.Video;
+import com.example.SocialStream.enums.VideoFacet;
+import com.example.SocialStream.repositories.VideoCatalogRepository;
+import com.example.SocialStream.utils.SearchText;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-process inverted index over the video catalog.
+ * Title, director, cast, genre and description are tokenized into weighted postings keyed by
+ * dense document numbers; tokens of the short fields also get edge n-gram (prefix) postings so
+ * partially typed words match. Queries are AND-ed across tokens and ranked by a tf-idf style score.
+ * A query word with no exact or prefix match can fall back to vocabulary words within a small edit
+ * distance, found through a trigram index of the vocabulary and verified with a bounded Levenshtein check.
+ * Genre, year, director and rating bucket are kept as one bitset of document numbers per value
+ * (a plain doc list while the value is rare), so facet counts for any result set are bitset intersections.
+ * The index is rebuilt from a streamed scan on startup, updated after each video insert,
+ * and polls for videos created on other nodes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VideoSearchIndex {
+
+    private final VideoCatalogRepository videoCatalogRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final float TITLE_WEIGHT = 5f;
+    private static final float PERSON_WEIGHT = 3f; // director and cast
+    private static final float GENRE_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_FACTOR = 0.5f; // a prefix match counts half of a whole-word match
+    private static final int MIN_PREFIX = 2;
+    private static final int MAX_PREFIX = 12;
+    private static final String PREFIX_MARKER = ">";
+    private static final float FUZZY_FACTOR = 0.4f; // divided by the edit distance
+    private static final int TRIGRAM = 3;
+    private static final int MAX_FACET_VALUES = 20;
+
+    @Value("${search.fuzzy.max-distance:2}")
+    private int fuzzyMaxDistance;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile State state = new State();
+    private volatile boolean ready = false;
+    private volatile long generation = 0; // changes whenever the indexed content changes
+    // Media ids are handed out in per-node blocks, so new videos are found by upload time rather than id
+    private static final long CATCH_UP_OVERLAP_MINUTES = 5; // covers commit lag and clock skew between nodes
+    private static final int CATCH_UP_CHUNK = 500;
+    private LocalDateTime catchUpFrom = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private volatile long indexedCatalogVersion = 0; // every change up to this catalog version is indexed
+
+    /**
+     * Fields of a video that are searchable
+     */
+    public record Document(Long id, String title, String director, String cast, String genre,
+                           String description, long viewCount, String year, BigDecimal rating) {
+        public static Document of(Video video) {
+            return new Document(video.getId(), video.getTitle(), video.getDirector(), video.getCast(),
+                    video.getGenre(), video.getDescription(), video.getViewCount(), video.getYear(), video.getRating());
+        }
+    }
+
+    /**
+     * One page of ranked matches
+     * @param videoIds ids of the videos on the page, best first
+     * @param total number of matching videos across all pages
+     * @param facets per facet, result counts of its most common values
+     */
+    public record Hits(List<Long> videoIds, int total, Map<VideoFacet, Map<String, Integer>> facets) {
+        public Hits(List<Long> videoIds, int total) {
+            this(videoIds, total, Map.of());
+        }
+    }
+
+    private static final class FacetValue {
+        private final String label;
+        private int[] docs = new int[4]; // increasing doc numbers, until the value is common enough for a bitset
+        private int size;
+        private BitSet bits;
+
+        FacetValue(String label) {
+            this.label = label;
+        }
+
+        void add(int doc) {
+            if (bits != null) {
+                bits.set(doc);
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+            // Switch once the bitset would be smaller than the array; keeps rare directors cheap
+            if (size >= 64 && (long) size * Integer.SIZE > doc) {
+                bits = new BitSet(doc + 1);
+                for (int i = 0; i < size; i++) {
+                    bits.set(docs[i]);
+                }
+                docs = null;
+            }
+        }
+
+        void orInto(BitSet target) {
+            if (bits != null) {
+                target.or(bits);
+            } else {
+                for (int i = 0; i < size; i++) {
+                    target.set(docs[i]);
+                }
+            }
+        }
+
+        int countIn(BitSet scope) {
+            if (bits != null) {
+                if (!bits.intersects(scope)) {
+                    return 0;
+                }
+                BitSet both = (BitSet) bits.clone();
+                both.and(scope);
+                return both.cardinality();
+            }
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (scope.get(docs[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void add(int doc, float weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+    }
+
+    private static final class State {
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final Map<String, List<String>> wordsByTrigram = new HashMap<>(); // whole words only
+        private final Map<Long, Integer> docByVideoId = new HashMap<>();
+        private final Map<VideoFacet, Map<String, FacetValue>> facets = new EnumMap<>(VideoFacet.class);
+        private long[] videoIds = new long[1024];
+        private long[] viewCounts = new long[1024];
+        private final BitSet deleted = new BitSet();
+        private int docCount;
+
+        State() {
+            for (VideoFacet facet : VideoFacet.values()) {
+                facets.put(facet, new HashMap<>());
+            }
+        }
+
+        int liveCount() {
+            return docCount - deleted.cardinality();
+        }
+    }
+
+    /**
+     * Whether the initial build has finished
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Counter that changes whenever a video is added or the index is rebuilt; results computed
+     * under one generation stay valid until it changes
+     */
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * Ranked page of videos matching every token of the query, exactly or by prefix
+     */
+    public Hits search(String query, int page, int size) {
+        return search(query, page, size, false);
+    }
+
+    /**
+     * Ranked page of videos matching every token of the query
+     * @param fuzzy let tokens without exact or prefix matches match words within the configured edit distance
+     */
+    public Hits search(String query, int page, int size, boolean fuzzy) {
+        return search(query, Map.of(), page, size, fuzzy);
+    }
+
+    /**
+     * Ranked page of videos matching the query and the facet filters, with facet counts.
+     * Values of one facet are OR-ed and facets are AND-ed. Each facet's counts ignore that facet's
+     * own filter, so selecting one genre still shows how many results the other genres would have.
+     * @param query may be blank when filters are given, to browse by facet alone
+     */
+    public Hits search(String query, Map<VideoFacet, Set<String>> filters, int page, int size, boolean fuzzy) {
+        List<String> tokens = SearchText.tokenize(query).stream().distinct().toList();
+        if (tokens.isEmpty() && filters.isEmpty()) {
+            return new Hits(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            State current = state;
+            Map<Integer, Float> scores = tokens.isEmpty() ? Map.of() : score(current, tokens, fuzzy);
+            if (!tokens.isEmpty() && scores.isEmpty()) {
+                return new Hits(List.of(), 0);
+            }
+
+            BitSet base = new BitSet(current.docCount);
+            if (tokens.isEmpty()) {
+                base.set(0, current.docCount);
+            } else {
+                scores.keySet().forEach(base::set);
+            }
+            base.andNot(current.deleted);
+
+            Map<VideoFacet, BitSet> filterBits = new EnumMap<>(VideoFacet.class);
+            filters.forEach((facet, values) -> filterBits.put(facet, union(current, facet, values)));
+
+            BitSet result = (BitSet) base.clone();
+            filterBits.values().forEach(result::and);
+
+            Map<VideoFacet, Map<String, Integer>> facetCounts = new EnumMap<>(VideoFacet.class);
+            for (VideoFacet facet : VideoFacet.values()) {
+                BitSet scope = (BitSet) base.clone();
+                filterBits.forEach((other, bits) -> {
+                    if (other != facet) {
+                        scope.and(bits);
+                    }
+                });
+                facetCounts.put(facet, count(current, facet, scope));
+            }
+
+            Comparator<Integer> bestFirst = (a, b) -> {
+                int byScore = Float.compare(scores.getOrDefault(b, 0f), scores.getOrDefault(a, 0f));
+                if (byScore != 0) {
+                    return byScore;
+                }
+                int byViews = Long.compare(current.viewCounts[b], current.viewCounts[a]);
+                return byViews != 0 ? byViews : Long.compare(current.videoIds[b], current.videoIds[a]);
+            };
+            int total = result.cardinality();
+            List<Integer> ranked = top(result, (int) Math.min(((long) page + 1) * size, total), bestFirst);
+
+            int from = (int) Math.min((long) page * size, ranked.size());
+            List<Long> ids = new ArrayList<>(ranked.size() - from);
+            for (int i = from; i < ranked.size(); i++) {
+                ids.add(current.videoIds[ranked.get(i)]);
+            }
+            return new Hits(ids, total, facetCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The best k documents of the set, best first; a bounded heap so a broad match is never fully sorted
+    private static List<Integer> top(BitSet docs, int k, Comparator<Integer> bestFirst) {
+        if (k <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k + 1, bestFirst.reversed()); // worst kept at the head
+        for (int doc = docs.nextSetBit(0); doc >= 0; doc = docs.nextSetBit(doc + 1)) {
+            if (heap.size() < k) {
+                heap.add(doc);
+            } else if (bestFirst.compare(doc, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(doc);
+            }
+        }
+        List<Integer> best = new ArrayList<>(heap);
+        best.sort(bestFirst);
+        return best;
+    }
+
+    // Summed token scores of documents matching every token; empty if any token matches nothing
+    private Map<Integer, Float> score(State current, List<String> tokens, boolean fuzzy) {
+        List<Map<Integer, Float>> perToken = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            Map<Integer, Float> matches = match(current, token);
+            if (matches.isEmpty() && fuzzy) {
+                matches = fuzzyMatch(current, token);
+            }
+            if (matches.isEmpty()) {
+                return Map.of();
+            }
+            perToken.add(matches);
+        }
+
+        // Intersect starting from the rarest token
+        perToken.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        Map<Integer, Float> scores = new HashMap<>(perToken.get(0));
+        for (Map<Integer, Float> matches : perToken.subList(1, perToken.size())) {
+            scores.keySet().retainAll(matches.keySet());
+            scores.replaceAll((doc, score) -> score + matches.get(doc));
+        }
+        return scores;
+    }
+
+    private BitSet union(State current, VideoFacet facet, Set<String> values) {
+        BitSet bits = new BitSet(current.docCount);
+        Map<String, FacetValue> facetValues = current.facets.get(facet);
+        for (String value : values) {
+            FacetValue facetValue = facetValues.get(facetKey(value));
+            if (facetValue != null) {
+                facetValue.orInto(bits);
+            }
+        }
+        return bits;
+    }
+
+    // Non-zero counts of the facet's values within the scope, largest first
+    private Map<String, Integer> count(State current, VideoFacet facet, BitSet scope) {
+        List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+        for (FacetValue value : current.facets.get(facet).values()) {
+            int count = value.countIn(scope);
+            if (count > 0) {
+                counts.add(Map.entry(value.label, count));
+            }
+        }
+        counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        Map<String, Integer> top = new LinkedHashMap<>();
+        counts.stream().limit(MAX_FACET_VALUES).forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+
+    /**
+     * Add or replace a video in the index; applied after commit when called inside a transaction
+     */
+    public void index(Document document) {
+        indexAll(List.of(document));
+    }
+
+    /**
+     * Add or replace several videos under one write lock and one generation change
+     */
+    public void indexAll(List<Document> documents) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    indexNow(documents);
+                }
+            });
+        } else {
+            indexNow(documents);
+        }
+    }
+
+    /**
+     * Rebuild the whole index from a streamed scan of the catalog
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            State rebuilt = new State();
+            LocalDateTime scanStart = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = videoCatalogRepository.streamSearchDocuments()) {
+                    rows.forEach(row -> add(rebuilt, toDocument(row)));
+                }
+            });
+
+            lock.writeLock().lock();
+            try {
+                state = rebuilt;
+                catchUpFrom = scanStart.minusMinutes(CATCH_UP_OVERLAP_MINUTES);
+                generation++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            // Videos committed while the scan was running went to the old state; fetch them again
+            catchUp();
+            log.info("Built video search index with {} videos", rebuilt.liveCount());
+        } catch (Exception e) {
+            log.warn("Failed to build video search index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Whether every catalog change up to the given version is in the index
+     */
+    public boolean isCaughtUpTo(long catalogVersion) {
+        return ready && indexedCatalogVersion >= catalogVersion;
+    }
+
+    /**
+     * Pick up videos committed before the given catalog version was published
+     */
+    public void catchUpTo(long catalogVersion) {
+        if (catchUpNow()) {
+            indexedCatalogVersion = Math.max(indexedCatalogVersion, catalogVersion);
+        }
+    }
+
+    /**
+     * Pick up videos inserted by other application instances
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void catchUp() {
+        catchUpNow();
+    }
+
+    private synchronized boolean catchUpNow() {
+        if (!ready) {
+            return false;
+        }
+        try {
+            LocalDateTime since;
+            lock.readLock().lock();
+            try {
+                since = catchUpFrom;
+            } finally {
+                lock.readLock().unlock();
+            }
+            LocalDateTime scanStart = LocalDateTime.now();
+
+            List<Long> recent = videoCatalogRepository.findIdsUploadedSince(since);
+            List<Long> missing = new ArrayList<>();
+            lock.readLock().lock();
+            try {
+                for (Long videoId : recent) {
+                    if (!state.docByVideoId.containsKey(videoId)) {
+                        missing.add(videoId);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            for (int from = 0; from < missing.size(); from += CATCH_UP_CHUNK) {
+                List<Long> chunk = missing.subList(from, Math.min(from + CATCH_UP_CHUNK, missing.size()));
+                indexNow(videoCatalogRepository.findSearchDocumentsByIdIn(chunk).stream().map(this::toDocument).toList());
+            }
+
+            lock.writeLock().lock();
+            try {
+                catchUpFrom = scanStart.minusMinutes(CATCH_UP_OVERLAP_MINUTES);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return true;
+        } catch (Exception e) {
+            log.debug("Failed to catch up video search index: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void indexNow(List<Document> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Document document : documents) {
+                add(state, document);
+            }
+            generation++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<Integer, Float> match(State current, String token) {
+        Map<Integer, Float> matches = new HashMap<>();
+        int liveCount = Math.max(1, current.liveCount());
+
+        Postings exact = current.postings.get(token);
+        if (exact != null) {
+            float idf = idf(liveCount, exact.size);
+            for (int i = 0; i < exact.size; i++) {
+                matches.merge(exact.docs[i], exact.weights[i] * idf, Math::max);
+            }
+        }
+
+        Postings prefix = token.length() <= MAX_PREFIX ? current.postings.get(PREFIX_MARKER + token) : null;
+        if (prefix != null) {
+            float idf = idf(liveCount, prefix.size);
+            for (int i = 0; i < prefix.size; i++) {
+                matches.merge(prefix.docs[i], prefix.weights[i] * PREFIX_FACTOR * idf, Math::max);
+            }
+        }
+        return matches;
+    }
+
+    private Map<Integer, Float> fuzzyMatch(State current, String token) {
+        Map<Integer, Float> matches = new HashMap<>();
+        int maxDistance = allowedDistance(token);
+        if (maxDistance == 0) {
+            return matches;
+        }
+
+        // Words within d edits share at least (trigrams - 3d) trigrams with the token
+        List<String> grams = trigrams(token).stream().distinct().toList();
+        int minShared = Math.max(1, grams.size() - TRIGRAM * maxDistance);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            for (String word : current.wordsByTrigram.getOrDefault(gram, List.of())) {
+                shared.merge(word, 1, Integer::sum);
+            }
+        }
+
+        int liveCount = Math.max(1, current.liveCount());
+        shared.forEach((word, count) -> {
+            if (count < minShared || Math.abs(word.length() - token.length()) > maxDistance) {
+                return;
+            }
+            int distance = boundedLevenshtein(token, word, maxDistance);
+            if (distance < 0) {
+                return;
+            }
+            Postings postings = current.postings.get(word);
+            float factor = FUZZY_FACTOR / distance * idf(liveCount, postings.size);
+            for (int i = 0; i < postings.size; i++) {
+                matches.merge(postings.docs[i], postings.weights[i] * factor, Math::max);
+            }
+        });
+        return matches;
+    }
+
+    // Short words get fewer edits, otherwise nearly every short word would match
+    private int allowedDistance(String token) {
+        int configured = Math.max(0, Math.min(fuzzyMaxDistance, 2));
+        if (token.length() <= 3) {
+            return 0;
+        }
+        return token.length() <= 5 ? Math.min(configured, 1) : configured;
+    }
+
+    /**
+     * Edit distance between a and b, or -1 once it is known to exceed max
+     */
+    private static int boundedLevenshtein(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] row = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            row[0] = i;
+            int rowMin = row[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                row[j] = Math.min(Math.min(row[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, row[j]);
+            }
+            if (rowMin > max) {
+                return -1;
+            }
+            int[] swap = previous;
+            previous = row;
+            row = swap;
+        }
+        return previous[b.length()] <= max ? previous[b.length()] : -1;
+    }
+
+    // Trigrams of the word padded with a boundary marker on both sides
+    private static List<String> trigrams(String word) {
+        String padded = "$" + word + "$";
+        List<String> grams = new ArrayList<>(padded.length());
+        for (int i = 0; i + TRIGRAM <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + TRIGRAM));
+        }
+        return grams;
+    }
+
+    private float idf(int liveCount, int documentFrequency) {
+        return (float) Math.log(1 + (double) liveCount / documentFrequency);
+    }
+
+    private void add(State target, Document document) {
+        Integer previous = target.docByVideoId.get(document.id());
+        if (previous != null) {
+            target.deleted.set(previous);
+        }
+
+        int doc = target.docCount++;
+        if (doc == target.videoIds.length) {
+            target.videoIds = Arrays.copyOf(target.videoIds, doc * 2);
+            target.viewCounts = Arrays.copyOf(target.viewCounts, doc * 2);
+        }
+        target.videoIds[doc] = document.id();
+        target.viewCounts[doc] = document.viewCount();
+        target.docByVideoId.put(document.id(), doc);
+
+        addFacet(target, VideoFacet.GENRE, doc, document.genre(), true);
+        addFacet(target, VideoFacet.DIRECTOR, doc, document.director(), true);
+        addFacet(target, VideoFacet.YEAR, doc, document.year(), false);
+        addFacet(target, VideoFacet.RATING, doc, ratingBucket(document.rating()), false);
+
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, document.title(), TITLE_WEIGHT, true);
+        addField(terms, document.director(), PERSON_WEIGHT, true);
+        addField(terms, document.cast(), PERSON_WEIGHT, true);
+        addField(terms, document.genre(), GENRE_WEIGHT, true);
+        // Descriptions are long; whole words only keeps the prefix postings small
+        addField(terms, document.description(), DESCRIPTION_WEIGHT, false);
+        terms.forEach((term, weight) -> target.postings.computeIfAbsent(term, t -> {
+            if (!t.startsWith(PREFIX_MARKER)) {
+                trigrams(t).stream().distinct().forEach(gram ->
+                        target.wordsByTrigram.computeIfAbsent(gram, g -> new ArrayList<>()).add(t));
+            }
+            return new Postings();
+        }).add(doc, weight));
+    }
+
+    private void addField(Map<String, Float> terms, String text, float weight, boolean prefixes) {
+        for (String token : SearchText.tokenize(text)) {
+            terms.merge(token, weight, Float::sum);
+            if (!prefixes) {
+                continue;
+            }
+            for (int length = MIN_PREFIX; length < Math.min(token.length(), MAX_PREFIX + 1); length++) {
+                terms.merge(PREFIX_MARKER + token.substring(0, length), weight, Math::max);
+            }
+        }
+    }
+
+    private void addFacet(State target, VideoFacet facet, int doc, String value, boolean commaSeparated) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        String[] values = commaSeparated ? value.split(",") : new String[]{value};
+        Set<String> seen = new HashSet<>();
+        for (String raw : values) {
+            String label = raw.trim();
+            if (!label.isEmpty() && seen.add(facetKey(label))) {
+                target.facets.get(facet)
+                        .computeIfAbsent(facetKey(label), key -> new FacetValue(label))
+                        .add(doc);
+            }
+        }
+    }
+
+    // Whole-point buckets such as "7-8"; 10.0 falls in "9-10"
+    private static String ratingBucket(BigDecimal rating) {
+        if (rating == null) {
+            return null;
+        }
+        int low = Math.max(1, Math.min(9, rating.intValue()));
+        return low + "-" + (low + 1);
+    }
+
+    private static String facetKey(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private Document toDocument(Object[] row) {
+        return new Document((Long) row[0], (String) row[1], (String) row[2], (String) row[3],
+                (String) row[4], (String) row[5], (Long) row[6], (String) row[7], (BigDecimal) row[8]);
+    }
+}
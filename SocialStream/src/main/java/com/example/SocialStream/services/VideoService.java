@@ -1,10 +1,15 @@
 package com.example.SocialStream.services;
 
 import com.example.SocialStream.DTO.CreateVideoDTO;
+import com.example.SocialStream.DTO.VideoDescriptor;
 import com.example.SocialStream.DTO.VideoResponseDTO;
 import com.example.SocialStream.entities.Video;
+import com.example.SocialStream.entities.VideoCatalogEntry;
+import com.example.SocialStream.repositories.VideoCatalogRepository;
 import com.example.SocialStream.repositories.VideoRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,11 +17,28 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
-public class VideoService {
+public class VideoService implements SmartInitializingSingleton {
 
     @Autowired
     private VideoRepository videoRepository;
 
+    @Autowired
+    private VideoCatalogRepository videoCatalogRepository;
+
+    @Autowired
+    private VideoSearchIndex videoSearchIndex;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private VideoCatalogCache videoCatalogCache;
+
+    @Autowired
+    private SchemaMigrationService schemaMigrationService;
+
+    private static final int MAX_PAGE_SIZE = 50;
+
     @Transactional
     public VideoResponseDTO createVideo(CreateVideoDTO createVideoDTO) {
         Video video = new Video();
@@ -35,37 +57,50 @@ public class VideoService {
         video.setDescription(createVideoDTO.getDescription());
         video.setRating(createVideoDTO.getRating());
         video.setCast(createVideoDTO.getCast());
+        video.setGenre(createVideoDTO.getGenre());
 
         // Save the video (this will save to both media and video tables due to inheritance)
-        Video savedVideo = videoRepository.save(video);
+        Video savedVideo = videoRepository.saveAndFlush(video);
+        videoCatalogRepository.refresh(List.of(savedVideo.getId()));
+        videoSearchIndex.index(VideoSearchIndex.Document.of(savedVideo));
+        videoCatalogCache.evict(List.of(savedVideo.getId()));
+        catalogVersionService.bump(); // new videos change search results
 
         return new VideoResponseDTO(savedVideo);
     }
 
     public VideoResponseDTO getVideoById(Long id) {
-        Video video = videoRepository.findById(id)
+        VideoDescriptor video = videoCatalogCache.get(id)
             .orElseThrow(() -> new RuntimeException("Video not found with id: " + id));
         return new VideoResponseDTO(video);
     }
 
     public VideoResponseDTO getVideoByTitle(String title) {
-        Video video = videoRepository.findByTitle(title)
+        VideoCatalogEntry video = videoCatalogRepository.findFirstByTitle(title)
             .orElseThrow(() -> new RuntimeException("Video not found with title: " + title));
-        return new VideoResponseDTO(video);
+        return new VideoResponseDTO(VideoDescriptor.of(video));
+    }
+
+    public List<VideoResponseDTO> searchVideosByTitle(String titlePattern, int page, int size) {
+        return videoCatalogRepository.searchByTitlePattern(titlePattern, pageOf(page, size));
+    }
+
+    public List<VideoResponseDTO> searchVideosByPattern(String pattern, int page, int size) {
+        return videoCatalogRepository.searchByTitlePattern(pattern, pageOf(page, size));
     }
 
-    public List<VideoResponseDTO> searchVideosByTitle(String titlePattern) {
-        List<Video> videos = videoRepository.findByTitleContainingIgnoreCase(titlePattern);
-        return videos.stream()
-            .map(VideoResponseDTO::new)
-            .toList();
+    /**
+     * Bring video_catalog in line with media/video once per database: copy missing and drifted rows and
+     * drop rows of deleted videos. Runs before the search index and autocomplete load from the catalog.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        schemaMigrationService.applyOnce("reconcile-video-catalog",
+                () -> videoCatalogRepository.refreshAll() + videoCatalogRepository.deleteOrphans());
     }
 
-    public List<VideoResponseDTO> searchVideosByPattern(String pattern) {
-        List<Video> videos = videoRepository.searchByTitlePattern(pattern);
-        return videos.stream()
-            .map(VideoResponseDTO::new)
-            .toList();
+    private PageRequest pageOf(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
     }
 }
 
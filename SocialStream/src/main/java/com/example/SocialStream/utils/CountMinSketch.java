@@ -0,0 +1,69 @@
+package com.example.SocialStream.utils;
+
+/**
+ * Fixed-size frequency estimator: counts can be over-estimated when keys collide, never under-estimated.
+ * Not thread-safe; callers synchronize.
+ */
+public final class CountMinSketch {
+
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final int[][] counters;
+    private final int mask;
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     */
+    public CountMinSketch(int width) {
+        int rounded = Integer.highestOneBit(Math.max(16, width) - 1) << 1;
+        this.counters = new int[DEPTH][rounded];
+        this.mask = rounded - 1;
+    }
+
+    /**
+     * Count one occurrence and return the new estimate
+     */
+    public int increment(Object key) {
+        int hash = spread(key.hashCode());
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(hash, row);
+            if (counters[row][index] < Integer.MAX_VALUE) {
+                counters[row][index]++;
+            }
+            min = Math.min(min, counters[row][index]);
+        }
+        return min;
+    }
+
+    public int estimate(Object key) {
+        int hash = spread(key.hashCode());
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counters[row][index(hash, row)]);
+        }
+        return min;
+    }
+
+    /**
+     * Halve every counter so old occurrences weigh less than recent ones
+     */
+    public void halve() {
+        for (int[] row : counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>>= 1;
+            }
+        }
+    }
+
+    private int index(int hash, int row) {
+        int mixed = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+        return (mixed ^ (mixed >>> 16)) & mask;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x45D9F3B;
+        return h ^ (h >>> 16);
+    }
+}
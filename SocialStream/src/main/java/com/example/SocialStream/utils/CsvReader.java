@@ -0,0 +1,102 @@
+package com.example.SocialStream.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental RFC 4180 CSV reader: one record per call, quoted fields may contain
+ * commas, doubled quotes and line breaks. Nothing beyond the current record is buffered.
+ */
+public final class CsvReader {
+
+    private static final int MAX_RECORD_CHARS = 1 << 20; // stops an unterminated quote from swallowing the input
+
+    private final Reader reader;
+    private long lineNumber = 1;
+    private long recordLineNumber;
+    private int pushedBack = -2;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Read the next record
+     * @return its fields, or null at end of input
+     */
+    public List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLineNumber = lineNumber;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        while (true) {
+            if (++length > MAX_RECORD_CHARS) {
+                throw new IOException("CSV record at line " + recordLineNumber + " is too long");
+            }
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field at line " + recordLineNumber);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        pushedBack = next;
+                    }
+                }
+                if (c != -1) {
+                    lineNumber++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Line on which the last record returned by readRecord started
+     */
+    public long getRecordLineNumber() {
+        return recordLineNumber;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.SocialStream.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded in-memory cache with W-TinyLFU style admission.
+ * New entries land in a small LRU window; when the window overflows, its oldest entry only moves into
+ * the main LRU region if a count-min sketch says it is used more often than the main region's eviction
+ * victim. One-off keys therefore cannot flush out popular ones. Entries also expire after a fixed age.
+ * All methods are synchronized; operations are O(1) and the lock is held only for map updates.
+ */
+public final class TinyLfuCache<K, V> {
+
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> main = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Frequency sketch; every counter is halved after sampleSize increments so old popularity fades
+    private final CountMinSketch sketch;
+    private final int sampleSize;
+    private int increments;
+
+    private record Entry<V>(V value, long expiresAt) {}
+
+    public TinyLfuCache(int capacity, long ttlMillis) {
+        int bounded = Math.max(capacity, 2);
+        this.windowCapacity = Math.max(1, bounded / 100);
+        this.mainCapacity = bounded - windowCapacity;
+        this.ttlMillis = ttlMillis;
+        this.sketch = new CountMinSketch(bounded * 4);
+        this.sampleSize = bounded * 10;
+    }
+
+    /**
+     * Cached value, or null if absent or expired
+     */
+    public synchronized V get(K key) {
+        recordAccess(key);
+        long now = System.currentTimeMillis();
+        Entry<V> entry = window.get(key);
+        Map<K, Entry<V>> region = window;
+        if (entry == null) {
+            entry = main.get(key);
+            region = main;
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= now) {
+            region.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public synchronized void put(K key, V value) {
+        Entry<V> entry = new Entry<>(value, System.currentTimeMillis() + ttlMillis);
+        if (main.containsKey(key)) {
+            main.put(key, entry);
+            return;
+        }
+        window.put(key, entry);
+        if (window.size() <= windowCapacity) {
+            return;
+        }
+
+        Iterator<Map.Entry<K, Entry<V>>> oldest = window.entrySet().iterator();
+        Map.Entry<K, Entry<V>> candidate = oldest.next();
+        oldest.remove();
+        if (main.size() < mainCapacity) {
+            main.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+
+        // Admit the window's candidate only if it is more popular than main's LRU victim
+        Iterator<Map.Entry<K, Entry<V>>> lru = main.entrySet().iterator();
+        Map.Entry<K, Entry<V>> victim = lru.next();
+        if (frequency(candidate.getKey()) > frequency(victim.getKey())) {
+            lru.remove();
+            main.put(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    public synchronized void remove(K key) {
+        window.remove(key);
+        main.remove(key);
+    }
+
+    public synchronized void clear() {
+        window.clear();
+        main.clear();
+    }
+
+    public synchronized int size() {
+        return window.size() + main.size();
+    }
+
+    private void recordAccess(K key) {
+        sketch.increment(key);
+        if (++increments >= sampleSize) {
+            sketch.halve();
+            increments /= 2;
+        }
+    }
+
+    private int frequency(K key) {
+        return sketch.estimate(key);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.SocialStream.repositories;
+
+import com.example.SocialStream.entities.Friendship;
+import com.example.SocialStream.entities.Post;
+import com.example.SocialStream.entities.User;
+import com.example.SocialStream.entities.Video;
+import com.example.SocialStream.enums.FriendshipStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The friend lookups that read friend_edge instead of OR-ing both directions of friendships
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class FriendEdgeQueriesTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private FriendRepository friendRepository;
+    @Autowired
+    private FriendEdgeRepository friendEdgeRepository;
+    @Autowired
+    private VideoRepository videoRepository;
+    @Autowired
+    private PostRepository postRepository;
+
+    private User alice;
+    private User bob;
+    private User carol;
+    private User dave;
+
+    @BeforeEach
+    void setUp() {
+        alice = user("alice");
+        bob = user("bob");
+        carol = user("carol");
+        dave = user("dave");
+
+        friendship(alice, bob, FriendshipStatus.ACCEPTED);
+        friendship(carol, alice, FriendshipStatus.ACCEPTED);
+        friendship(bob, carol, FriendshipStatus.PENDING);
+        friendship(dave, bob, FriendshipStatus.DECLINED);
+        friendRepository.flush();
+    }
+
+    @Test
+    void backfillCreatesBothDirectionsOfAcceptedFriendshipsOnce() {
+        assertThat(friendEdgeRepository.backfill()).isEqualTo(4);
+        assertThat(friendEdgeRepository.backfill()).isZero();
+
+        assertThat(friendRepository.findFriendIds(alice.getId())).containsExactlyInAnyOrder(bob.getId(), carol.getId());
+        assertThat(friendRepository.findFriendIds(bob.getId())).containsExactly(alice.getId());
+        assertThat(friendRepository.findFriendIds(carol.getId())).containsExactly(alice.getId());
+        assertThat(friendRepository.findFriendIds(dave.getId())).isEmpty();
+    }
+
+    @Test
+    void areFriendsIsSymmetricAndIgnoresUnacceptedFriendships() {
+        friendEdgeRepository.backfill();
+
+        assertThat(friendRepository.areFriends(alice.getId(), bob.getId())).isTrue();
+        assertThat(friendRepository.areFriends(bob.getId(), alice.getId())).isTrue();
+        assertThat(friendRepository.areFriends(bob.getId(), carol.getId())).isFalse();
+        assertThat(friendRepository.areFriends(dave.getId(), bob.getId())).isFalse();
+    }
+
+    @Test
+    void insertAndDeletePairKeepBothDirectionsInStep() {
+        friendEdgeRepository.insertPair(bob.getId(), carol.getId());
+        friendEdgeRepository.insertPair(carol.getId(), bob.getId()); // already there, ignored
+
+        assertThat(friendRepository.findFriendIds(bob.getId())).containsExactly(carol.getId());
+        assertThat(friendRepository.findFriendIds(carol.getId())).containsExactly(bob.getId());
+
+        friendEdgeRepository.deletePair(carol.getId(), bob.getId());
+
+        assertThat(friendRepository.findFriendIds(bob.getId())).isEmpty();
+        assertThat(friendRepository.findFriendIds(carol.getId())).isEmpty();
+    }
+
+    @Test
+    void friendPostIdsJoinOnlyTheUsersFriendsNewestFirst() {
+        friendEdgeRepository.backfill();
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Video video = video();
+        Post ownPost = post(alice, video, now);
+        Post oldFriendPost = post(bob, video, now.minusHours(2));
+        Post newFriendPost = post(carol, video, now.minusHours(1));
+        Post strangerPost = post(dave, video, now.minusMinutes(5));
+        postRepository.flush();
+
+        List<Long> ids = postRepository.findFriendsPostIds(alice.getId(), PageRequest.of(0, 10)).stream()
+                .map(row -> (Long) row[0])
+                .toList();
+        assertThat(ids).containsExactly(newFriendPost.getId(), oldFriendPost.getId());
+        assertThat(ids).doesNotContain(ownPost.getId(), strangerPost.getId());
+
+        List<Long> older = postRepository.findFriendsPostIdsBefore(alice.getId(), newFriendPost.getUploadedAt(),
+                        newFriendPost.getUploadedAt().plusNanos(1_000_000), newFriendPost.getId(), PageRequest.of(0, 10))
+                .stream()
+                .map(row -> (Long) row[0])
+                .toList();
+        assertThat(older).containsExactly(oldFriendPost.getId());
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("secret");
+        user.setUserRegistrationDate(LocalDateTime.now());
+        return userRepository.save(user);
+    }
+
+    private void friendship(User requester, User receiver, FriendshipStatus status) {
+        Friendship friendship = new Friendship();
+        friendship.setRequester(requester);
+        friendship.setReceiver(receiver);
+        friendship.setStatus(status);
+        friendship.setCreatedAt(LocalDateTime.now());
+        friendRepository.save(friendship);
+    }
+
+    private Video video() {
+        Video video = new Video();
+        video.setTitle("Clip");
+        video.setMediaurl("https://cdn.example.com/clip.mp4");
+        video.setDuration(60);
+        video.setUploadedAt(LocalDateTime.now());
+        return videoRepository.save(video);
+    }
+
+    private Post post(User author, Video video, LocalDateTime uploadedAt) {
+        Post post = new Post();
+        post.setUser(author);
+        post.setMedia(video);
+        post.setDescription("post by " + author.getUsername());
+        post.setUploadedAt(uploadedAt);
+        return postRepository.save(post);
+    }
+}
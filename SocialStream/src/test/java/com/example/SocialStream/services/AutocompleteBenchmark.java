@@ -0,0 +1,91 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.repositories.SearchQueryDailyRepository;
+import com.example.SocialStream.repositories.VideoCatalogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Build time and per-keystroke latency of the autocomplete dictionary over a catalog-sized title set.
+ * Not part of the regular test run (surefire only picks up *Test classes):
+ *   mvn test -Dtest=AutocompleteBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+class AutocompleteBenchmark {
+
+    private static final int TITLES = 200_000;
+    private static final int POPULAR_QUERIES = 5_000;
+    private static final int LOOKUPS = 200_000;
+    private static final String[] WORDS = {"dark", "knight", "star", "wars", "love", "story", "night", "city",
+            "return", "king", "lost", "world", "last", "man", "game", "house", "blue", "river", "ghost", "road"};
+
+    @Test
+    void completeTypedPrefixes() {
+        Random random = new Random(7);
+        List<Object[]> titles = new ArrayList<>(TITLES);
+        for (long id = 0; id < TITLES; id++) {
+            titles.add(new Object[]{id, randomTitle(random) + " " + id, (long) random.nextInt(1_000_000)});
+        }
+        List<Object[]> popular = new ArrayList<>(POPULAR_QUERIES);
+        for (int i = 0; i < POPULAR_QUERIES; i++) {
+            popular.add(new Object[]{randomTitle(random), (long) random.nextInt(1_000)});
+        }
+
+        VideoCatalogRepository catalog = mock(VideoCatalogRepository.class);
+        SearchQueryDailyRepository queries = mock(SearchQueryDailyRepository.class);
+        when(catalog.streamTitles()).thenAnswer(invocation -> titles.stream());
+        when(queries.findTopQueries(any(), any())).thenReturn(popular);
+        AutocompleteService service = new AutocompleteService(catalog, queries, new TransactionTemplate() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+                return action.doInTransaction(null);
+            }
+        });
+
+        long buildStart = System.nanoTime();
+        service.rebuild();
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        // Every keystroke of a word, as a user would type it
+        List<String> prefixes = new ArrayList<>();
+        for (String word : WORDS) {
+            for (int length = 1; length <= word.length(); length++) {
+                prefixes.add(word.substring(0, length));
+            }
+            prefixes.add(word + " " + WORDS[random.nextInt(WORDS.length)].charAt(0));
+        }
+
+        long suggestions = 0;
+        for (int i = 0; i < LOOKUPS / 10; i++) {
+            suggestions += service.complete(prefixes.get(i % prefixes.size()), 10).size();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            suggestions += service.complete(prefixes.get(i % prefixes.size()), 10).size();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("Built %d titles in %d ms; %d lookups in %d ms (%.1f us/lookup)%n",
+                TITLES, buildMillis, LOOKUPS, elapsed / 1_000_000, elapsed / 1_000.0 / LOOKUPS);
+        assertThat(suggestions).isPositive();
+        assertThat(service.complete("dark", 10)).hasSize(10);
+    }
+
+    private static String randomTitle(Random random) {
+        StringBuilder title = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        for (int i = 0, words = 1 + random.nextInt(3); i < words; i++) {
+            title.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return title.toString();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.DTO.AutocompleteSuggestionDTO;
+import com.example.SocialStream.repositories.SearchQueryDailyRepository;
+import com.example.SocialStream.repositories.VideoCatalogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AutocompleteServiceTest {
+
+    private final VideoCatalogRepository catalog = mock(VideoCatalogRepository.class);
+    private final SearchQueryDailyRepository queries = mock(SearchQueryDailyRepository.class);
+    private final AutocompleteService service = new AutocompleteService(catalog, queries, new TransactionTemplate() {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+            return action.doInTransaction(null);
+        }
+    });
+
+    @Test
+    void completesFromTheStartOfAnyWordOfATitle() {
+        build(List.of(title(1, "The Dark Knight", 10), title(2, "Knight and Day", 5)), List.of());
+
+        assertThat(texts("knig")).containsExactly("The Dark Knight", "Knight and Day");
+        assertThat(texts("dark kn")).containsExactly("The Dark Knight");
+        assertThat(texts("ark")).isEmpty();
+    }
+
+    @Test
+    void ranksByWeightAndShowsEachTitleOnce() {
+        build(List.of(title(1, "Star Wars", 100), title(2, "Star Trek", 300), title(3, "Star Star", 250)),
+                List.<Object[]>of(new Object[]{"star trek", 2L}));
+
+        List<AutocompleteSuggestionDTO> suggestions = service.complete("star", 10);
+
+        // One search weighs as much as 100 views, so the query sits between "Star Star" and "Star Wars"
+        assertThat(suggestions).extracting(AutocompleteSuggestionDTO::getText)
+                .containsExactly("Star Trek", "Star Star", "star trek", "Star Wars");
+        assertThat(suggestions.get(2).getVideoId()).isNull();
+        assertThat(service.complete("star", 2)).hasSize(2);
+    }
+
+    @Test
+    void trailingSpaceEndsTheWord() {
+        build(List.of(title(1, "Dark City", 1), title(2, "Darkness", 2)), List.of());
+
+        assertThat(texts("dark")).containsExactly("Darkness", "Dark City");
+        assertThat(texts("dark ")).containsExactly("Dark City");
+    }
+
+    @Test
+    void ignoresCaseAndAccents() {
+        build(List.of(title(1, "Amélie", 1)), List.of());
+
+        assertThat(texts("AME")).containsExactly("Amélie");
+        assertThat(texts("amé")).containsExactly("Amélie");
+        assertThat(texts("   ")).isEmpty();
+    }
+
+    @Test
+    void topCompletionsMatchAFullScan() {
+        Random random = new Random(42);
+        List<Object[]> titles = new ArrayList<>();
+        for (long id = 0; id < 2_000; id++) {
+            titles.add(title(id, randomWord(random) + " " + randomWord(random), random.nextInt(1_000)));
+        }
+        build(titles, List.of());
+
+        for (String prefix : List.of("a", "b", "ab", "ca", "d")) {
+            List<Long> expected = titles.stream()
+                    .filter(row -> List.of(((String) row[1]).split(" ")).stream().anyMatch(word -> word.startsWith(prefix)))
+                    .sorted(Comparator.comparingLong((Object[] row) -> (Long) row[2]).reversed())
+                    .limit(20)
+                    .map(row -> (Long) row[2])
+                    .toList();
+            List<Long> weights = service.complete(prefix, 20).stream()
+                    .map(suggestion -> (Long) titles.get(suggestion.getVideoId().intValue())[2])
+                    .toList();
+            assertThat(weights).as("prefix %s", prefix).isEqualTo(expected);
+        }
+    }
+
+    private void build(List<Object[]> titles, List<Object[]> popular) {
+        when(catalog.streamTitles()).thenAnswer(invocation -> titles.stream());
+        when(queries.findTopQueries(any(), any())).thenReturn(popular);
+        service.rebuild();
+    }
+
+    private List<String> texts(String prefix) {
+        return service.complete(prefix, 10).stream().map(AutocompleteSuggestionDTO::getText).toList();
+    }
+
+    private static Object[] title(long id, String title, long views) {
+        return new Object[]{id, title, views};
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0, length = 2 + random.nextInt(5); i < length; i++) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.SocialStream.services;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * The media, video and video_catalog tables as ddl-auto creates them on MySQL, for benchmarks that run
+ * the catalog SQL against in-memory H2 in MySQL mode
+ */
+final class CatalogTables {
+
+    private CatalogTables() {
+    }
+
+    static DataSource newDatabase(String name) {
+        return new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "_" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+    }
+
+    static void create(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE id_generator (name VARCHAR(255) PRIMARY KEY, next_id BIGINT)");
+        jdbcTemplate.execute("INSERT INTO id_generator (name, next_id) VALUES ('media', 1)");
+        jdbcTemplate.execute("CREATE TABLE media (id BIGINT PRIMARY KEY, media_type VARCHAR(31), " +
+                "mediaurl VARCHAR(255), thumbnailurl VARCHAR(255), duration INT, title VARCHAR(255), " +
+                "uploaded_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE video (id BIGINT PRIMARY KEY, director VARCHAR(255), `year` VARCHAR(255), " +
+                "view_count BIGINT, description VARCHAR(1000), rating DECIMAL(3, 1), `cast` VARCHAR(4000), " +
+                "genre VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE video_catalog (id BIGINT PRIMARY KEY, mediaurl VARCHAR(255), " +
+                "thumbnailurl VARCHAR(255), duration INT, title VARCHAR(255), uploaded_at TIMESTAMP, " +
+                "director VARCHAR(255), `year` VARCHAR(255), view_count BIGINT, description VARCHAR(1000), " +
+                "rating DECIMAL(3, 1), `cast` VARCHAR(4000), genre VARCHAR(255))");
+        jdbcTemplate.execute("CREATE INDEX idx_video_catalog_title ON video_catalog (title)");
+        jdbcTemplate.execute("CREATE INDEX idx_video_catalog_uploaded_at ON video_catalog (uploaded_at)");
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.SocialStream.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Friend lookups and friend-post pages through the bidirectional friend_edge table against the
+ * OR/CASE predicates on friendships they replaced, at social graph scale, on in-memory H2 in MySQL mode.
+ * Not part of the regular test run:
+ *   mvn test -Dtest=FriendEdgeBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+class FriendEdgeBenchmark {
+
+    private static final int USERS = 20_000;
+    private static final int REQUESTS_PER_USER = 25; // about 40 accepted friends per user
+    private static final int POSTS_PER_USER = 10;
+    private static final int INSERT_CHUNK = 10_000;
+    private static final int LOOKUPS = 5_000;
+    private static final int PAGES = 500;
+    private static final int PAGE_SIZE = 20;
+
+    private static final String EDGE_ARE_FRIENDS =
+            "SELECT COUNT(*) > 0 FROM friend_edge WHERE user_id = ? AND friend_id = ?";
+    private static final String PAIR_ARE_FRIENDS =
+            "SELECT COUNT(*) > 0 FROM friendships WHERE " +
+            "((requester_id = ? AND receiver_id = ?) OR (requester_id = ? AND receiver_id = ?)) " +
+            "AND status = 'ACCEPTED'";
+    private static final String EDGE_FRIEND_IDS =
+            "SELECT friend_id FROM friend_edge WHERE user_id = ?";
+    private static final String PAIR_FRIEND_IDS =
+            "SELECT CASE WHEN requester_id = ? THEN receiver_id ELSE requester_id END FROM friendships " +
+            "WHERE (requester_id = ? OR receiver_id = ?) AND status = 'ACCEPTED'";
+    private static final String EDGE_POSTS =
+            "SELECT p.id, p.uploaded_at FROM post p JOIN friend_edge e ON e.friend_id = p.user_id " +
+            "WHERE e.user_id = ? %s ORDER BY p.uploaded_at DESC, p.id DESC LIMIT " + PAGE_SIZE;
+    private static final String PAIR_POSTS =
+            "SELECT p.id, p.uploaded_at FROM post p WHERE p.user_id IN (" +
+            "  SELECT CASE WHEN f.requester_id = ? THEN f.receiver_id ELSE f.requester_id END " +
+            "  FROM friendships f WHERE (f.requester_id = ? OR f.receiver_id = ?) AND f.status = 'ACCEPTED'" +
+            ") %s ORDER BY p.uploaded_at DESC, p.id DESC LIMIT " + PAGE_SIZE;
+    private static final String BEFORE_CURSOR =
+            "AND (p.uploaded_at < ? OR (p.uploaded_at < ? AND p.id < ?))";
+
+    private final Random random = new Random(42);
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(CatalogTables.newDatabase("friend_edge"));
+        jdbcTemplate.execute("CREATE TABLE friendships (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "requester_id BIGINT NOT NULL, receiver_id BIGINT NOT NULL, status VARCHAR(255), " +
+                "created_at TIMESTAMP NOT NULL, user_low_id BIGINT, user_high_id BIGINT, " +
+                "UNIQUE (requester_id, receiver_id), CONSTRAINT uk_friendship_pair UNIQUE (user_low_id, user_high_id))");
+        jdbcTemplate.execute("CREATE INDEX idx_friendship_requester_status ON friendships (requester_id, status)");
+        jdbcTemplate.execute("CREATE INDEX idx_friendship_receiver_status ON friendships (receiver_id, status)");
+        jdbcTemplate.execute("CREATE TABLE friend_edge (user_id BIGINT NOT NULL, friend_id BIGINT NOT NULL, " +
+                "PRIMARY KEY (user_id, friend_id))");
+        jdbcTemplate.execute("CREATE TABLE post (id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT NOT NULL, " +
+                "media_id BIGINT NOT NULL, description VARCHAR(255), uploaded_at TIMESTAMP, " +
+                "likes_count BIGINT, comments_count BIGINT)");
+        jdbcTemplate.execute("CREATE INDEX idx_post_user_uploaded ON post (user_id, uploaded_at)");
+
+        // Mostly accepted requests with some pending and declined ones, one row per unordered pair
+        Timestamp createdAt = Timestamp.valueOf(now);
+        Set<Long> pairs = new HashSet<>();
+        List<Object[]> friendships = new ArrayList<>(INSERT_CHUNK);
+        for (long requester = 1; requester <= USERS; requester++) {
+            for (int i = 0; i < REQUESTS_PER_USER; i++) {
+                long receiver = 1 + random.nextInt(USERS);
+                long low = Math.min(requester, receiver);
+                long high = Math.max(requester, receiver);
+                if (receiver == requester || !pairs.add(low * (USERS + 1) + high)) {
+                    continue;
+                }
+                int roll = random.nextInt(10);
+                String status = roll < 8 ? "ACCEPTED" : roll == 8 ? "PENDING" : "DECLINED";
+                friendships.add(new Object[]{requester, receiver, status, createdAt, low, high});
+                if (friendships.size() == INSERT_CHUNK) {
+                    insertFriendships(friendships);
+                    friendships.clear();
+                }
+            }
+        }
+        insertFriendships(friendships);
+        jdbcTemplate.update("INSERT INTO friend_edge (user_id, friend_id) " +
+                "SELECT requester_id, receiver_id FROM friendships WHERE status = 'ACCEPTED' " +
+                "UNION ALL " +
+                "SELECT receiver_id, requester_id FROM friendships WHERE status = 'ACCEPTED'");
+
+        // Posts spread over the last 30 days
+        List<Object[]> posts = new ArrayList<>(INSERT_CHUNK);
+        for (long user = 1; user <= USERS; user++) {
+            for (int i = 0; i < POSTS_PER_USER; i++) {
+                posts.add(new Object[]{user, user, Timestamp.valueOf(now.minusSeconds(random.nextInt(30 * 24 * 3600)))});
+                if (posts.size() == INSERT_CHUNK) {
+                    insertPosts(posts);
+                    posts.clear();
+                }
+            }
+        }
+        insertPosts(posts);
+    }
+
+    @Test
+    void areFriends() {
+        List<long[]> pairs = new ArrayList<>(LOOKUPS);
+        for (int i = 0; i < LOOKUPS; i++) {
+            pairs.add(new long[]{1 + random.nextInt(USERS), 1 + random.nextInt(USERS)});
+        }
+        // Half of the lookups hit an existing friendship, as when messaging or opening a friend's profile
+        List<Long> users = randomUsers(LOOKUPS / 2);
+        for (int i = 0; i < users.size(); i++) {
+            List<Long> friends = jdbcTemplate.queryForList(EDGE_FRIEND_IDS, Long.class, users.get(i));
+            if (!friends.isEmpty()) {
+                pairs.set(i, new long[]{users.get(i), friends.get(random.nextInt(friends.size()))});
+            }
+        }
+        for (long[] pair : pairs.subList(0, 100)) {
+            assertThat(edgeAreFriends(pair)).isEqualTo(pairAreFriends(pair));
+        }
+
+        report("areFriends, friend_edge  ", time(pairs, this::edgeAreFriends), "lookup");
+        report("areFriends, friendships  ", time(pairs, this::pairAreFriends), "lookup");
+    }
+
+    @Test
+    void findFriendIds() {
+        List<Long> users = randomUsers(LOOKUPS);
+        for (Long user : users.subList(0, 100)) {
+            assertThat(jdbcTemplate.queryForList(EDGE_FRIEND_IDS, Long.class, user))
+                    .containsExactlyInAnyOrderElementsOf(
+                            jdbcTemplate.queryForList(PAIR_FRIEND_IDS, Long.class, user, user, user));
+        }
+
+        report("findFriendIds, friend_edge",
+                time(users, user -> jdbcTemplate.queryForList(EDGE_FRIEND_IDS, Long.class, user)), "lookup");
+        report("findFriendIds, friendships",
+                time(users, user -> jdbcTemplate.queryForList(PAIR_FRIEND_IDS, Long.class, user, user, user)), "lookup");
+    }
+
+    @Test
+    void friendPostPages() {
+        String edgeFirst = String.format(EDGE_POSTS, "");
+        String pairFirst = String.format(PAIR_POSTS, "");
+        List<Long> users = randomUsers(PAGES);
+        for (Long user : users.subList(0, 20)) {
+            assertThat(jdbcTemplate.queryForList(edgeFirst, user))
+                    .isEqualTo(jdbcTemplate.queryForList(pairFirst, user, user, user));
+        }
+
+        report("first page, friend_edge   ",
+                time(users, user -> jdbcTemplate.queryForList(edgeFirst, user)), "page");
+        report("first page, friendships   ",
+                time(users, user -> jdbcTemplate.queryForList(pairFirst, user, user, user)), "page");
+    }
+
+    @Test
+    void friendPostPagesBeforeCursor() {
+        String edgeBefore = String.format(EDGE_POSTS, BEFORE_CURSOR);
+        String pairBefore = String.format(PAIR_POSTS, BEFORE_CURSOR);
+
+        // Cursors part way down each user's feed, as when scrolling back a few days
+        List<Object[]> cursors = new ArrayList<>(PAGES);
+        for (Long user : randomUsers(PAGES)) {
+            Timestamp from = Timestamp.valueOf(now.minusSeconds(random.nextInt(7 * 24 * 3600)));
+            Timestamp to = new Timestamp(from.getTime() + 1);
+            cursors.add(new Object[]{user, from, to, Long.MAX_VALUE});
+        }
+        for (Object[] cursor : cursors.subList(0, 20)) {
+            assertThat(jdbcTemplate.queryForList(edgeBefore, cursor))
+                    .isEqualTo(jdbcTemplate.queryForList(pairBefore, pairArgs(cursor)));
+        }
+
+        report("cursor page, friend_edge  ",
+                time(cursors, cursor -> jdbcTemplate.queryForList(edgeBefore, cursor)), "page");
+        report("cursor page, friendships  ",
+                time(cursors, cursor -> jdbcTemplate.queryForList(pairBefore, pairArgs(cursor))), "page");
+    }
+
+    private boolean edgeAreFriends(long[] pair) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(EDGE_ARE_FRIENDS, Boolean.class, pair[0], pair[1]));
+    }
+
+    private boolean pairAreFriends(long[] pair) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(PAIR_ARE_FRIENDS, Boolean.class,
+                pair[0], pair[1], pair[1], pair[0]));
+    }
+
+    // The old query binds the user three times, once per branch of the CASE and OR
+    private static Object[] pairArgs(Object[] cursor) {
+        return new Object[]{cursor[0], cursor[0], cursor[0], cursor[1], cursor[2], cursor[3]};
+    }
+
+    private List<Long> randomUsers(int count) {
+        List<Long> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(1L + random.nextInt(USERS));
+        }
+        return users;
+    }
+
+    private void insertFriendships(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO friendships (requester_id, receiver_id, status, created_at, " +
+                "user_low_id, user_high_id) VALUES (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private void insertPosts(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO post (user_id, media_id, uploaded_at, likes_count, comments_count) " +
+                "VALUES (?, ?, ?, 0, 0)", rows);
+    }
+
+    // Best of three rounds over the same inputs, in nanoseconds per call
+    private static <T> long time(List<T> inputs, Function<T, ?> call) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            List<T> shuffled = new ArrayList<>(inputs);
+            Collections.shuffle(shuffled, new Random(round));
+            long start = System.nanoTime();
+            for (T input : shuffled) {
+                call.apply(input);
+            }
+            best = Math.min(best, (System.nanoTime() - start) / inputs.size());
+        }
+        return best;
+    }
+
+    private static void report(String name, long nanosPerCall, String unit) {
+        System.out.printf("%s: %,d us per %s over %,d users%n", name, nanosPerCall / 1_000, unit, USERS);
+    }
+}
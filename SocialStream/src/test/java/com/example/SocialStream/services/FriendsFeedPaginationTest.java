@@ -0,0 +1,311 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.DTO.FeedCursor;
+import com.example.SocialStream.DTO.FeedPageDTO;
+import com.example.SocialStream.DTO.PostResponseDTO;
+import com.example.SocialStream.entities.Post;
+import com.example.SocialStream.entities.User;
+import com.example.SocialStream.repositories.AudioRepository;
+import com.example.SocialStream.repositories.CommentRepository;
+import com.example.SocialStream.repositories.MediaRepository;
+import com.example.SocialStream.repositories.PostLikeRepository;
+import com.example.SocialStream.repositories.PostRepository;
+import com.example.SocialStream.repositories.UserRepository;
+import com.example.SocialStream.repositories.VideoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Walks the cursor-paginated friends feed end to end over a fake Redis and a fake post table,
+ * with many posts sharing a millisecond, more posts than a cached timeline holds, and an author
+ * too large to fan out.
+ */
+class FriendsFeedPaginationTest {
+
+    private static final long VIEWER = 1;
+    private static final long BIG_AUTHOR = 4; // merged in on read
+    private static final Map<Long, long[]> FRIENDS = Map.of(
+            VIEWER, new long[]{2, 3, BIG_AUTHOR},
+            2L, new long[]{VIEWER, 3},
+            3L, new long[]{VIEWER});
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private final FakeRedis redis = new FakeRedis();
+    private final FakePosts posts = new FakePosts();
+    private final FriendshipCacheService friendshipCacheService = mock(FriendshipCacheService.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PostHydrationService postHydrationService = mock(PostHydrationService.class);
+    private final TimelineService timelineService = new TimelineService(redis, posts.repository, friendshipCacheService);
+    private final NewsFeedService newsFeedService = new NewsFeedService(mock(MediaRepository.class),
+            mock(AudioRepository.class), mock(VideoRepository.class), userRepository, posts.repository,
+            mock(CommentRepository.class), mock(PostLikeRepository.class), timelineService, postHydrationService,
+            mock(PostLikeCounterService.class), mock(VideoCatalogCache.class), mock(SchemaMigrationService.class));
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
+        when(friendshipCacheService.getFriendIds(anyLong()))
+                .thenAnswer(invocation -> FRIENDS.getOrDefault(invocation.<Long>getArgument(0), new long[0]));
+        when(postHydrationService.hydrate(any(), eq(VIEWER))).thenAnswer(invocation -> posts.hydrate(invocation.getArgument(0)));
+        redis.fanOutOnRead.add(String.valueOf(BIG_AUTHOR));
+
+        Random random = new Random(3);
+        for (long id = 1; id <= 1_200; id++) {
+            // About three posts per millisecond, ids not in upload order
+            posts.add(id, 1 + random.nextInt(5), START.plusNanos(random.nextInt(400) * 1_000_000L));
+        }
+    }
+
+    @Test
+    void followingCursorsReturnsEveryFriendPostOnceNewestFirst() {
+        List<Long> walked = walk(37);
+
+        assertThat(walked).hasSizeGreaterThan(500); // past the cached timeline into the database
+        assertThat(walked).doesNotHaveDuplicates();
+        assertThat(walked).containsExactlyElementsOf(posts.newestFirst(post -> contains(FRIENDS.get(VIEWER), post.authorId())));
+    }
+
+    @Test
+    void pagesFromTheCachedTimelineMatchTheRebuiltOnes() {
+        List<Long> cold = walk(50);
+        List<Long> warm = walk(50); // the first walk cached the timeline
+
+        assertThat(warm).isEqualTo(cold);
+    }
+
+    @Test
+    void fanOutPutsANewPostAtTheTopOfWarmTimelinesOnly() {
+        walk(10); // warms the viewer's timeline; the author's other friend has none yet
+        Post post = posts.add(5_000, 2, START.plusDays(1));
+
+        timelineService.fanOut(post);
+
+        FeedPageDTO first = newsFeedService.getFriendsPostsPage(VIEWER, null, 10);
+        assertThat(first.getPosts().get(0).getId()).isEqualTo(5_000L);
+        assertThat(redis.zsets).containsKey("timeline:" + VIEWER).doesNotContainKey("timeline:3");
+        assertThat(redis.zsets.get("timeline:" + VIEWER)).hasSizeLessThanOrEqualTo(501); // trimmed, plus the marker
+    }
+
+    private List<Long> walk(int size) {
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        FeedPageDTO page;
+        do {
+            page = newsFeedService.getFriendsPostsPage(VIEWER, cursor, size);
+            assertThat(page.getPosts()).hasSizeLessThanOrEqualTo(size);
+            page.getPosts().forEach(post -> walked.add(post.getId()));
+            cursor = page.getNextCursor();
+            assertThat(cursor == null).isEqualTo(!page.isHasMore());
+        } while (cursor != null);
+        return walked;
+    }
+
+    private static boolean contains(long[] ids, long id) {
+        for (long candidate : ids) {
+            if (candidate == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record StoredPost(long id, long authorId, LocalDateTime uploadedAt) {}
+
+    /**
+     * The post table, answering the feed queries with the same predicates as their JPQL
+     */
+    private static final class FakePosts {
+        final List<StoredPost> rows = new ArrayList<>();
+        final PostRepository repository = mock(PostRepository.class);
+
+        FakePosts() {
+            when(repository.findFriendsPostIds(anyLong(), any())).thenAnswer(invocation ->
+                    select(byFriendsOf(invocation.getArgument(0)), invocation.getArgument(1)));
+            when(repository.findFriendsPostIdsBefore(anyLong(), any(), any(), anyLong(), any())).thenAnswer(invocation ->
+                    select(byFriendsOf(invocation.<Long>getArgument(0)).and(before(invocation.getArgument(1),
+                            invocation.getArgument(2), invocation.getArgument(3))), invocation.getArgument(4)));
+            when(repository.findPostIdsByAuthorsBefore(any(), any(), any(), anyLong(), any())).thenAnswer(invocation -> {
+                Collection<Long> authors = invocation.getArgument(0);
+                return select(post -> authors.contains(post.authorId()) && before(invocation.getArgument(1),
+                        invocation.getArgument(2), invocation.getArgument(3)).test(post), invocation.getArgument(4));
+            });
+        }
+
+        Post add(long id, long authorId, LocalDateTime uploadedAt) {
+            rows.add(new StoredPost(id, authorId, uploadedAt));
+            User author = new User();
+            author.setId(authorId);
+            Post post = new Post();
+            post.setId(id);
+            post.setUser(author);
+            post.setUploadedAt(uploadedAt);
+            return post;
+        }
+
+        List<PostResponseDTO> hydrate(List<Long> ids) {
+            Map<Long, StoredPost> byId = new HashMap<>();
+            rows.forEach(row -> byId.put(row.id(), row));
+            return ids.stream().map(id -> {
+                PostResponseDTO dto = new PostResponseDTO();
+                dto.setId(id);
+                dto.setUploadDate(byId.get(id).uploadedAt());
+                return dto;
+            }).toList();
+        }
+
+        List<Long> newestFirst(Predicate<StoredPost> filter) {
+            return rows.stream().filter(filter).sorted(NEWEST_FIRST).map(StoredPost::id).toList();
+        }
+
+        private static final Comparator<StoredPost> NEWEST_FIRST = Comparator
+                .comparing(StoredPost::uploadedAt)
+                .thenComparingLong(StoredPost::id)
+                .reversed();
+
+        private Predicate<StoredPost> byFriendsOf(long userId) {
+            long[] friends = FRIENDS.getOrDefault(userId, new long[0]);
+            return post -> contains(friends, post.authorId());
+        }
+
+        private static Predicate<StoredPost> before(LocalDateTime from, LocalDateTime to, long postId) {
+            return post -> post.uploadedAt().isBefore(from) || (post.uploadedAt().isBefore(to) && post.id() < postId);
+        }
+
+        private List<Object[]> select(Predicate<StoredPost> filter, Pageable pageable) {
+            return rows.stream()
+                    .filter(filter)
+                    .sorted(NEWEST_FIRST)
+                    .limit(pageable.getPageSize())
+                    .map(post -> new Object[]{post.id(), post.uploadedAt()})
+                    .toList();
+        }
+    }
+
+    /**
+     * Sorted sets and the fan-out-on-read set, with the timeline scripts applied as Redis would
+     */
+    private static final class FakeRedis extends StringRedisTemplate {
+        final Map<String, Map<String, Double>> zsets = new HashMap<>();
+        final Set<String> fanOutOnRead = new HashSet<>();
+        private final ZSetOperations<String, String> zSetOperations = fakeZSetOperations();
+        private final SetOperations<String, String> setOperations = fakeSetOperations();
+        private final StringRedisConnection connection = fakeConnection();
+
+        @Override
+        public ZSetOperations<String, String> opsForZSet() {
+            return zSetOperations;
+        }
+
+        @Override
+        public SetOperations<String, String> opsForSet() {
+            return setOperations;
+        }
+
+        // Only the rebuild script runs through execute: TTL, then score/member pairs
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            Map<String, Double> zset = new HashMap<>();
+            for (int i = 1; i < args.length; i += 2) {
+                zset.put((String) args[i + 1], Double.parseDouble((String) args[i]));
+            }
+            zsets.put(keys.get(0), zset);
+            return (T) Long.valueOf(1);
+        }
+
+        @Override
+        public List<Object> executePipelined(RedisCallback<?> action) {
+            action.doInRedis(connection);
+            return List.of();
+        }
+
+        // The per-timeline fan-out script: add to an existing timeline and keep its newest entries
+        private StringRedisConnection fakeConnection() {
+            StringRedisConnection connection = mock(StringRedisConnection.class);
+            when(connection.eval(anyString(), any(ReturnType.class), anyInt(), any(String[].class))).thenAnswer(invocation -> {
+                String[] keysAndArgs = (String[]) invocation.getRawArguments()[3];
+                Map<String, Double> zset = zsets.get(keysAndArgs[0]);
+                if (zset == null) {
+                    return 0L;
+                }
+                zset.put(keysAndArgs[1], Double.parseDouble(keysAndArgs[2]));
+                int keep = Integer.parseInt(keysAndArgs[3]) + 1;
+                List<String> lowestFirst = sorted(zset).reversed();
+                lowestFirst.subList(0, Math.max(0, lowestFirst.size() - keep)).forEach(zset::remove);
+                return 1L;
+            });
+            return connection;
+        }
+
+        @SuppressWarnings("unchecked")
+        private ZSetOperations<String, String> fakeZSetOperations() {
+            ZSetOperations<String, String> operations = mock(ZSetOperations.class);
+            when(operations.zCard(anyString())).thenAnswer(invocation ->
+                    (long) zsets.getOrDefault(invocation.<String>getArgument(0), Map.of()).size());
+            when(operations.reverseRangeByScoreWithScores(anyString(), anyDouble(), anyDouble(), anyLong(), anyLong()))
+                    .thenAnswer(invocation -> {
+                        Map<String, Double> zset = zsets.getOrDefault(invocation.<String>getArgument(0), Map.of());
+                        double min = invocation.getArgument(1);
+                        double max = invocation.getArgument(2);
+                        long offset = invocation.getArgument(3);
+                        long count = invocation.getArgument(4);
+                        Set<ZSetOperations.TypedTuple<String>> tuples = new LinkedHashSet<>();
+                        sorted(zset).stream()
+                                .filter(member -> zset.get(member) >= min && zset.get(member) <= max)
+                                .skip(offset)
+                                .limit(count)
+                                .forEach(member -> tuples.add(ZSetOperations.TypedTuple.of(member, zset.get(member))));
+                        return tuples;
+                    });
+            return operations;
+        }
+
+        @SuppressWarnings("unchecked")
+        private SetOperations<String, String> fakeSetOperations() {
+            SetOperations<String, String> operations = mock(SetOperations.class);
+            when(operations.members(anyString())).thenAnswer(invocation -> new HashSet<>(fanOutOnRead));
+            return operations;
+        }
+
+        // Highest score first; ties in reverse lexicographic order of the member, as ZREVRANGE returns them
+        private static List<String> sorted(Map<String, Double> zset) {
+            return zset.keySet().stream()
+                    .sorted(Comparator.comparing((String member) -> zset.get(member))
+                            .thenComparing(Comparator.naturalOrder())
+                            .reversed())
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.repositories.VideoCatalogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Recall and latency of typo-tolerant search over a corpus with a large vocabulary.
+ * Each query is one title word with a random edit (insert, delete, substitute or swap); a query
+ * counts as found when the video it came from is on the first page.
+ * Not part of the regular test run (surefire only picks up *Test classes):
+ *   mvn test -Dtest=FuzzySearchBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+class FuzzySearchBenchmark {
+
+    private static final int VIDEOS = 100_000;
+    private static final int VOCABULARY = 20_000;
+    private static final int QUERIES = 5_000;
+    private static final int PAGE = 20;
+
+    @Test
+    void typoQueriesOverLargeVocabulary() {
+        Random random = new Random(5);
+        List<String> vocabulary = vocabulary(random);
+        VideoSearchIndex index = new VideoSearchIndex(mock(VideoCatalogRepository.class), mock(TransactionTemplate.class));
+        ReflectionTestUtils.setField(index, "fuzzyMaxDistance", 2);
+
+        List<String[]> titles = new ArrayList<>(VIDEOS);
+        List<VideoSearchIndex.Document> documents = new ArrayList<>(VIDEOS);
+        for (long id = 0; id < VIDEOS; id++) {
+            String[] words = {vocabulary.get(random.nextInt(VOCABULARY)), vocabulary.get(random.nextInt(VOCABULARY))};
+            titles.add(words);
+            documents.add(new VideoSearchIndex.Document(id, String.join(" ", words), null, null, null, null,
+                    random.nextInt(10_000), null, null));
+        }
+        index.indexAll(documents);
+
+        List<String> queries = new ArrayList<>(QUERIES);
+        List<Long> targets = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            int video = random.nextInt(VIDEOS);
+            queries.add(typo(titles.get(video)[random.nextInt(2)], random));
+            targets.add((long) video);
+        }
+
+        for (boolean fuzzy : new boolean[]{false, true}) {
+            for (int i = 0; i < QUERIES / 10; i++) {
+                index.search(queries.get(i), 0, PAGE, fuzzy);
+            }
+            int found = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                if (index.search(queries.get(i), 0, PAGE, fuzzy).videoIds().contains(targets.get(i))) {
+                    found++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("fuzzy=%-5s recall@%d %.1f%%, %.1f us/query%n",
+                    fuzzy, PAGE, 100.0 * found / QUERIES, elapsed / 1_000.0 / QUERIES);
+            if (fuzzy) {
+                assertThat(found).isGreaterThan(QUERIES / 2);
+            }
+        }
+    }
+
+    // Pronounceable words of 5 to 10 letters, so typos land near other real words
+    private static List<String> vocabulary(Random random) {
+        String consonants = "bcdfghklmnprstvz";
+        String vowels = "aeiou";
+        Set<String> words = new HashSet<>();
+        while (words.size() < VOCABULARY) {
+            StringBuilder word = new StringBuilder();
+            for (int i = 0, length = 5 + random.nextInt(6); i < length; i++) {
+                String letters = i % 2 == 0 ? consonants : vowels;
+                word.append(letters.charAt(random.nextInt(letters.length())));
+            }
+            words.add(word.toString());
+        }
+        return new ArrayList<>(words);
+    }
+
+    private static String typo(String word, Random random) {
+        StringBuilder typo = new StringBuilder(word);
+        int at = 1 + random.nextInt(word.length() - 2);
+        switch (random.nextInt(4)) {
+            case 0 -> typo.insert(at, (char) ('a' + random.nextInt(26)));
+            case 1 -> typo.deleteCharAt(at);
+            case 2 -> typo.setCharAt(at, (char) ('a' + random.nextInt(26)));
+            default -> {
+                typo.setCharAt(at, word.charAt(at + 1));
+                typo.setCharAt(at + 1, word.charAt(at));
+            }
+        }
+        return typo.toString();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.DTO.PostResponseDTO;
+import com.example.SocialStream.entities.Comments;
+import com.example.SocialStream.entities.Post;
+import com.example.SocialStream.entities.PostLike;
+import com.example.SocialStream.entities.User;
+import com.example.SocialStream.entities.Video;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A feed page must cost the same number of statements however many posts, comments and likes it has
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PostHydrationService.class)
+class PostHydrationQueryCountTest {
+
+    // Posts with their authors and media, the latest comments of every post, and the viewer's likes
+    private static final long STATEMENTS_PER_PAGE = 3;
+
+    @Autowired
+    private PostHydrationService postHydrationService;
+    @Autowired
+    private TestEntityManager entityManager;
+    @MockitoBean
+    private PostLikeCounterService postLikeCounterService;
+
+    private Statistics statistics;
+    private User viewer;
+    private final List<Long> postIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        viewer = user("viewer");
+        for (int i = 0; i < 20; i++) {
+            User author = user("author" + i);
+            Post post = post(author, video("clip " + i));
+            for (int c = 0; c < i % 6; c++) {
+                comment(post, c % 2 == 0 ? viewer : author, "comment " + c);
+            }
+            if (i % 3 == 0) {
+                like(post, viewer);
+            }
+            postIds.add(post.getId());
+        }
+        entityManager.flush();
+        entityManager.clear(); // hydration must load everything itself, not find it in the session
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void pageCostsAFixedNumberOfStatementsWhateverItsSize() {
+        List<PostResponseDTO> small = postHydrationService.hydrate(postIds.subList(0, 2), viewer.getId());
+        long smallPage = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        statistics.clear();
+
+        List<PostResponseDTO> large = postHydrationService.hydrate(postIds, viewer.getId());
+        long largePage = statistics.getPrepareStatementCount();
+
+        assertThat(small).hasSize(2);
+        assertThat(large).hasSize(20);
+        assertThat(smallPage).isEqualTo(STATEMENTS_PER_PAGE);
+        assertThat(largePage).isEqualTo(STATEMENTS_PER_PAGE);
+    }
+
+    @Test
+    void hydratedPostsCarryTheirAuthorMediaCommentsAndLikesInOrder() {
+        List<Long> reversed = new ArrayList<>(postIds.subList(0, 6)).reversed();
+
+        List<PostResponseDTO> posts = postHydrationService.hydrate(reversed, viewer.getId());
+
+        assertThat(posts).extracting(PostResponseDTO::getId).containsExactlyElementsOf(reversed);
+        PostResponseDTO fifth = posts.get(0); // post 5: five comments, previews capped at three
+        assertThat(fifth.getUser().getUsername()).isEqualTo("author5");
+        assertThat(fifth.getMedia().getTitle()).isEqualTo("clip 5");
+        assertThat(fifth.getComments()).extracting("content").containsExactly("comment 4", "comment 3", "comment 2");
+        assertThat(posts).extracting(PostResponseDTO::isLikedByMe).containsExactly(false, false, true, false, false, true);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_PAGE);
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("secret");
+        user.setUserRegistrationDate(LocalDateTime.now());
+        return entityManager.persist(user);
+    }
+
+    private Video video(String title) {
+        Video video = new Video();
+        video.setTitle(title);
+        video.setMediaurl("https://cdn.example.com/" + title.replace(' ', '-') + ".mp4");
+        video.setDuration(60);
+        video.setUploadedAt(LocalDateTime.now());
+        return entityManager.persist(video);
+    }
+
+    private Post post(User author, Video video) {
+        Post post = new Post();
+        post.setUser(author);
+        post.setMedia(video);
+        post.setDescription("post by " + author.getUsername());
+        post.setUploadedAt(LocalDateTime.now());
+        return entityManager.persist(post);
+    }
+
+    private void comment(Post post, User author, String content) {
+        Comments comment = new Comments();
+        comment.setPost(post);
+        comment.setUser(author);
+        comment.setContent(content);
+        comment.setCreatedAt(LocalDateTime.now());
+        entityManager.persist(comment);
+    }
+
+    private void like(Post post, User user) {
+        PostLike like = new PostLike();
+        like.setPost(post);
+        like.setUser(user);
+        like.setCreatedAt(LocalDateTime.now());
+        entityManager.persist(like);
+    }
+}
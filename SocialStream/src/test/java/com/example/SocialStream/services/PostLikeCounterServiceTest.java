@@ -0,0 +1,247 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.repositories.PostRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostLikeCounterServiceTest {
+
+    private static final int POSTS = 20;
+
+    private final FakeRedis redis = new FakeRedis();
+    private final FakeDatabase database = new FakeDatabase();
+    private final PostLikeCounterService service = newService();
+
+    @Test
+    void concurrentLikesAreAllAppliedDespiteFailedCommitsAndReleases() throws Exception {
+        AtomicLongArray expected = new AtomicLongArray(POSTS);
+        AtomicBoolean done = new AtomicBoolean();
+        database.failureRate = 0.2;
+        redis.releaseFailureRate = 0.2;
+
+        Thread flusher = new Thread(() -> {
+            while (!done.get()) {
+                service.flushLikeCounts();
+            }
+        });
+        flusher.start();
+
+        List<Thread> likers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread liker = new Thread(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    int post = ThreadLocalRandom.current().nextInt(POSTS);
+                    service.record((long) post, 1);
+                    expected.incrementAndGet(post);
+                }
+            });
+            likers.add(liker);
+            liker.start();
+        }
+        for (Thread liker : likers) {
+            liker.join();
+        }
+        done.set(true);
+        flusher.join();
+
+        database.failureRate = 0;
+        redis.releaseFailureRate = 0;
+        for (int i = 0; i < 3; i++) {
+            service.flushLikeCounts();
+        }
+
+        assertThat(redis.hashes).isEmpty();
+        for (int post = 0; post < POSTS; post++) {
+            assertThat(database.likes.getOrDefault((long) post, 0L)).as("post %d", post).isEqualTo(expected.get(post));
+        }
+    }
+
+    @Test
+    void flushLeftInFlightAfterCommitIsNotAppliedTwice() {
+        service.record(1L, 1);
+        service.record(1L, 1);
+        redis.releaseFailureRate = 1; // committed, then the node stopped before releasing
+
+        service.flushLikeCounts();
+        assertThat(database.likes).containsEntry(1L, 2L);
+        assertThat(redis.hashes).containsKey(PostLikeCounterService.IN_FLIGHT_KEY);
+
+        redis.releaseFailureRate = 0;
+        service.record(1L, 1);
+        newService().replayInFlight();
+        service.flushLikeCounts();
+
+        assertThat(database.likes).containsEntry(1L, 3L);
+        assertThat(redis.hashes).isEmpty();
+    }
+
+    @Test
+    void flushThatFailedToCommitIsReplayed() {
+        service.record(1L, 1);
+        database.failureRate = 1;
+        service.flushLikeCounts();
+        assertThat(database.likes).doesNotContainKey(1L);
+        assertThat(service.getPendingDeltas(List.of(1L))).containsEntry(1L, 1L);
+
+        database.failureRate = 0;
+        newService().replayInFlight();
+
+        assertThat(database.likes).containsEntry(1L, 1L);
+        assertThat(service.getPendingDeltas(List.of(1L))).isEmpty();
+    }
+
+    private PostLikeCounterService newService() {
+        return new PostLikeCounterService(redis, mock(PostRepository.class), database, database.transactions,
+                mock(PlatformTransactionManager.class));
+    }
+
+    /**
+     * Single-threaded Redis: every command and script runs under one lock
+     */
+    private static final class FakeRedis extends StringRedisTemplate {
+        final Map<String, Map<String, String>> hashes = new HashMap<>();
+        volatile double releaseFailureRate;
+        private final HashOperations<String, Object, Object> hashOperations = fakeHashOperations();
+
+        @Override
+        public HashOperations<String, Object, Object> opsForHash() {
+            return hashOperations;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            synchronized (this) {
+                if (script == PostLikeCounterService.DRAIN_SCRIPT) {
+                    String pending = keys.get(0);
+                    String inFlight = keys.get(1);
+                    if (!hashes.containsKey(inFlight)) {
+                        if (!hashes.containsKey(pending)) {
+                            return (T) List.of();
+                        }
+                        hashes.put(inFlight, hashes.remove(pending));
+                        hashes.get(inFlight).put((String) args[0], (String) args[1]);
+                    }
+                    List<String> flat = new ArrayList<>();
+                    hashes.get(inFlight).forEach((field, value) -> {
+                        flat.add(field);
+                        flat.add(value);
+                    });
+                    return (T) flat;
+                }
+                if (script == PostLikeCounterService.RELEASE_SCRIPT) {
+                    if (ThreadLocalRandom.current().nextDouble() < releaseFailureRate) {
+                        throw new IllegalStateException("connection lost");
+                    }
+                    Map<String, String> hash = hashes.get(keys.get(0));
+                    if (hash != null && args[1].equals(hash.get((String) args[0]))) {
+                        hashes.remove(keys.get(0));
+                        return (T) Long.valueOf(1);
+                    }
+                    return (T) Long.valueOf(0);
+                }
+                throw new UnsupportedOperationException();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private HashOperations<String, Object, Object> fakeHashOperations() {
+            HashOperations<String, Object, Object> operations = mock(HashOperations.class);
+            when(operations.increment(anyString(), any(), anyLong())).thenAnswer(invocation -> {
+                synchronized (this) {
+                    String key = invocation.getArgument(0);
+                    String field = invocation.getArgument(1);
+                    long delta = invocation.getArgument(2);
+                    return Long.parseLong(hashes.computeIfAbsent(key, k -> new HashMap<>())
+                            .merge(field, String.valueOf(delta),
+                                    (a, b) -> String.valueOf(Long.parseLong(a) + Long.parseLong(b))));
+                }
+            });
+            when(operations.multiGet(anyString(), any())).thenAnswer(invocation -> {
+                synchronized (this) {
+                    Map<String, String> hash = hashes.getOrDefault(invocation.<String>getArgument(0), Map.of());
+                    List<Object> values = new ArrayList<>();
+                    for (Object field : invocation.<List<Object>>getArgument(1)) {
+                        values.add(hash.get((String) field));
+                    }
+                    return values;
+                }
+            });
+            return operations;
+        }
+    }
+
+    /**
+     * Just the statements the flush runs, with transactions that roll back on failure
+     */
+    private static final class FakeDatabase extends JdbcTemplate {
+        final Map<Long, Long> likes = new HashMap<>();
+        final Set<String> flushIds = new HashSet<>();
+        volatile double failureRate;
+
+        final TransactionTemplate transactions = new TransactionTemplate() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+                synchronized (FakeDatabase.this) {
+                    Map<Long, Long> likesBefore = new HashMap<>(likes);
+                    Set<String> flushIdsBefore = new HashSet<>(flushIds);
+                    try {
+                        T result = action.doInTransaction(null);
+                        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+                            throw new IllegalStateException("commit failed");
+                        }
+                        return result;
+                    } catch (RuntimeException e) {
+                        likes.clear();
+                        likes.putAll(likesBefore);
+                        flushIds.clear();
+                        flushIds.addAll(flushIdsBefore);
+                        throw e;
+                    }
+                }
+            }
+        };
+
+        @Override
+        public int update(String sql, Object... args) {
+            if (sql.startsWith("INSERT INTO like_flush_batch") && !flushIds.add((String) args[0])) {
+                throw new DuplicateKeyException("Duplicate entry " + args[0]);
+            }
+            return 1;
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            for (Object[] row : batchArgs) {
+                likes.merge((Long) row[1], (Long) row[0], (a, b) -> Math.max(0, a + b));
+            }
+            return new int[batchArgs.size()];
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.repositories.VideoCatalogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Catalog reads from the flattened video_catalog table against the same reads through the JOINED
+ * media/video tables, at catalog scale, on in-memory H2 in MySQL mode. Not part of the regular test run:
+ *   mvn test -Dtest=VideoCatalogBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+class VideoCatalogBenchmark {
+
+    private static final int VIDEOS = 200_000;
+    private static final int INSERT_CHUNK = 5_000;
+    private static final int LOOKUPS = 2_000;
+    private static final int IDS_PER_LOOKUP = 50; // one feed or search page of descriptors
+    private static final int TITLE_SEARCHES = 200;
+
+    private static final String CATALOG_BY_IDS =
+            "SELECT " + VideoCatalogRepository.COLUMNS + " FROM video_catalog WHERE id IN (%s)";
+    private static final String JOINED_BY_IDS =
+            "SELECT " + VideoCatalogRepository.SOURCE_COLUMNS + " FROM media m JOIN video v ON v.id = m.id " +
+            "WHERE m.id IN (%s)";
+    private static final String CATALOG_BY_TITLE =
+            "SELECT " + VideoCatalogRepository.COLUMNS + " FROM video_catalog " +
+            "WHERE LOWER(title) LIKE ? ORDER BY id DESC LIMIT 20";
+    private static final String JOINED_BY_TITLE =
+            "SELECT " + VideoCatalogRepository.SOURCE_COLUMNS + " FROM media m JOIN video v ON v.id = m.id " +
+            "WHERE LOWER(m.title) LIKE ? ORDER BY m.id DESC LIMIT 20";
+
+    private final Random random = new Random(42);
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(CatalogTables.newDatabase("video_catalog"));
+        CatalogTables.create(jdbcTemplate);
+
+        Timestamp uploadedAt = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 1; from <= VIDEOS; from += INSERT_CHUNK) {
+            List<Object[]> media = new ArrayList<>(INSERT_CHUNK);
+            List<Object[]> videos = new ArrayList<>(INSERT_CHUNK);
+            for (long id = from; id < from + INSERT_CHUNK && id <= VIDEOS; id++) {
+                media.add(new Object[]{id, "https://cdn.example.com/v/" + id + ".mp4",
+                        "https://cdn.example.com/t/" + id + ".jpg", 60 + (int) (id % 7200), "Title " + id, uploadedAt});
+                videos.add(new Object[]{id, "Director " + id % 500, String.valueOf(1950 + id % 75), id % 10_000,
+                        "Description of video " + id, BigDecimal.valueOf(10 + id % 90, 1),
+                        "Actor " + id % 1000 + ", Actor " + (id + 1) % 1000, "Genre " + id % 20});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO media (id, media_type, mediaurl, thumbnailurl, duration, title, " +
+                    "uploaded_at) VALUES (?, 'VIDEO', ?, ?, ?, ?, ?)", media);
+            jdbcTemplate.batchUpdate("INSERT INTO video (id, director, `year`, view_count, description, rating, " +
+                    "`cast`, genre) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", videos);
+        }
+        jdbcTemplate.update("INSERT INTO video_catalog (" + VideoCatalogRepository.COLUMNS + ") " +
+                "SELECT " + VideoCatalogRepository.SOURCE_COLUMNS + " FROM media m JOIN video v ON v.id = m.id");
+    }
+
+    @Test
+    void descriptorLookupsByIdPage() {
+        List<String> idLists = new ArrayList<>(LOOKUPS);
+        for (int i = 0; i < LOOKUPS; i++) {
+            idLists.add(random.ints(IDS_PER_LOOKUP, 1, VIDEOS + 1)
+                    .mapToObj(String::valueOf)
+                    .collect(Collectors.joining(",")));
+        }
+        String sample = idLists.get(0);
+        assertThat(rowsById(String.format(CATALOG_BY_IDS, sample)))
+                .isEqualTo(rowsById(String.format(JOINED_BY_IDS, sample)));
+
+        report("by id, catalog", time(idLists, ids -> jdbcTemplate.queryForList(String.format(CATALOG_BY_IDS, ids))));
+        report("by id, joined ", time(idLists, ids -> jdbcTemplate.queryForList(String.format(JOINED_BY_IDS, ids))));
+    }
+
+    @Test
+    void titleSubstringPages() {
+        List<String> patterns = new ArrayList<>(TITLE_SEARCHES);
+        for (int i = 0; i < TITLE_SEARCHES; i++) {
+            patterns.add("%" + (1 + random.nextInt(999)) + "%");
+        }
+        assertThat(jdbcTemplate.queryForList(CATALOG_BY_TITLE, patterns.get(0)))
+                .hasSameSizeAs(jdbcTemplate.queryForList(JOINED_BY_TITLE, patterns.get(0)));
+
+        report("by title, catalog", time(patterns, pattern -> jdbcTemplate.queryForList(CATALOG_BY_TITLE, pattern)));
+        report("by title, joined ", time(patterns, pattern -> jdbcTemplate.queryForList(JOINED_BY_TITLE, pattern)));
+    }
+
+    private Map<Object, Map<String, Object>> rowsById(String sql) {
+        return jdbcTemplate.queryForList(sql).stream()
+                .collect(Collectors.toMap(row -> row.get("id"), Function.identity()));
+    }
+
+    // Best of three rounds over the same inputs, in nanoseconds per call
+    private static <T> long time(List<T> inputs, Function<T, ?> call) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            List<T> shuffled = new ArrayList<>(inputs);
+            Collections.shuffle(shuffled, new Random(round));
+            long start = System.nanoTime();
+            for (T input : shuffled) {
+                call.apply(input);
+            }
+            best = Math.min(best, (System.nanoTime() - start) / inputs.size());
+        }
+        return best;
+    }
+
+    private static void report(String name, long nanosPerCall) {
+        System.out.printf("%s: %,d us per query over %,d videos%n", name, nanosPerCall / 1_000, VIDEOS);
+    }
+}
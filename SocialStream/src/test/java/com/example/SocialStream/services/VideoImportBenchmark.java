@@ -0,0 +1,82 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.DTO.VideoImportProgressDTO;
+import com.example.SocialStream.enums.ImportStatus;
+import com.example.SocialStream.repositories.VideoCatalogRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Throughput of the bulk importer's parse, validate, JDBC batch and index path, against an in-memory
+ * H2 database in MySQL mode. Not part of the regular test run (surefire only picks up *Test classes):
+ *   mvn test -Dtest=VideoImportBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+class VideoImportBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int WARMUP_ROWS = 10_000;
+
+    private JdbcTemplate jdbcTemplate;
+    private VideoImportService importService;
+    private VideoSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = CatalogTables.newDatabase("video_import");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        CatalogTables.create(jdbcTemplate);
+
+        MediaIdAllocator allocator = new MediaIdAllocator(jdbcTemplate, transactionTemplate,
+                mock(SchemaMigrationService.class));
+        searchIndex = new VideoSearchIndex(mock(VideoCatalogRepository.class), transactionTemplate);
+        importService = new VideoImportService(jdbcTemplate, transactionTemplate, allocator, searchIndex,
+                mock(CatalogVersionService.class), mock(VideoCatalogCache.class), JsonMapper.builder().build(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    @Test
+    void importHundredThousandJsonLines() {
+        importService.importVideos("warmup", jsonLines(WARMUP_ROWS, "warmup"), false);
+
+        VideoImportProgressDTO result = importService.importVideos("benchmark", jsonLines(ROWS, "movie"), false);
+
+        System.out.printf("Imported %d rows in %d ms (%.0f rows/s)%n",
+                result.getImported(), result.getElapsedMillis(), result.getRowsPerSecond());
+        assertThat(result.getStatus()).isEqualTo(ImportStatus.COMPLETED);
+        assertThat(result.getImported()).isEqualTo(ROWS);
+        assertThat(result.getRejected()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM video_catalog", Long.class))
+                .isEqualTo(ROWS + WARMUP_ROWS);
+        assertThat(searchIndex.search("movie 4242", 0, 10).videoIds()).isNotEmpty();
+    }
+
+    private static ByteArrayInputStream jsonLines(int rows, String titlePrefix) {
+        StringBuilder body = new StringBuilder(rows * 300);
+        for (int i = 0; i < rows; i++) {
+            body.append("{\"mediaUrl\":\"https://cdn.example.com/v/").append(titlePrefix).append(i).append(".mp4\",")
+                    .append("\"thumbnailUrl\":\"https://cdn.example.com/t/").append(i).append(".jpg\",")
+                    .append("\"durationInSeconds\":").append(60 + i % 7200).append(',')
+                    .append("\"title\":\"").append(titlePrefix).append(' ').append(i).append("\",")
+                    .append("\"director\":\"Director ").append(i % 500).append("\",")
+                    .append("\"description\":\"Generated description for row ").append(i).append("\",")
+                    .append("\"rating\":").append(1 + i % 9).append(".5,")
+                    .append("\"cast\":\"Actor ").append(i % 1000).append(", Actor ").append((i + 1) % 1000).append("\",")
+                    .append("\"year\":\"").append(1950 + i % 75).append("\",")
+                    .append("\"genre\":\"Genre ").append(i % 20).append("\"}\n");
+        }
+        return new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.enums.VideoFacet;
+import com.example.SocialStream.repositories.VideoCatalogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Indexing throughput and query latency of the in-process search index over a catalog-sized corpus.
+ * Not part of the regular test run (surefire only picks up *Test classes):
+ *   mvn test -Dtest=VideoSearchIndexBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+class VideoSearchIndexBenchmark {
+
+    private static final int VIDEOS = 200_000;
+    private static final int QUERIES = 20_000;
+    private static final String[] WORDS = {"dark", "knight", "star", "wars", "love", "story", "night", "city",
+            "return", "king", "lost", "world", "last", "man", "game", "house", "blue", "river", "ghost", "road",
+            "empire", "shadow", "summer", "winter", "journey", "secret", "garden", "island", "storm", "legend"};
+    private static final String[] GENRES = {"Action", "Drama", "Comedy", "Horror", "Documentary", "Animation"};
+
+    @Test
+    void searchCatalogSizedIndex() {
+        VideoSearchIndex index = new VideoSearchIndex(mock(VideoCatalogRepository.class), mock(TransactionTemplate.class));
+        ReflectionTestUtils.setField(index, "fuzzyMaxDistance", 2);
+        Random random = new Random(11);
+
+        List<VideoSearchIndex.Document> documents = new ArrayList<>(VIDEOS);
+        for (long id = 1; id <= VIDEOS; id++) {
+            documents.add(new VideoSearchIndex.Document(id, words(random, 2 + random.nextInt(3)),
+                    "Director " + random.nextInt(2_000), "Actor " + random.nextInt(5_000) + ", Actor " + random.nextInt(5_000),
+                    GENRES[random.nextInt(GENRES.length)], words(random, 20), random.nextInt(1_000_000),
+                    String.valueOf(1950 + random.nextInt(75)), BigDecimal.valueOf(10 + random.nextInt(90), 1)));
+        }
+        long start = System.nanoTime();
+        for (int from = 0; from < VIDEOS; from += 1_000) {
+            index.indexAll(documents.subList(from, Math.min(from + 1_000, VIDEOS)));
+        }
+        System.out.printf("Indexed %d videos in %d ms%n", VIDEOS, (System.nanoTime() - start) / 1_000_000);
+
+        run("one word", i -> index.search(WORDS[i % WORDS.length], 0, 20));
+        run("two words", i -> index.search(WORDS[i % WORDS.length] + " " + WORDS[(i * 7) % WORDS.length], 0, 20));
+        run("prefix", i -> index.search(WORDS[i % WORDS.length].substring(0, 3), 0, 20));
+        run("typo", i -> index.search(WORDS[i % WORDS.length].replaceFirst(".$", "x") + "s", Map.of(), 0, 20, true));
+        run("facet browse", i -> index.search("", Map.of(VideoFacet.GENRE, Set.of(GENRES[i % GENRES.length])), i % 5, 20, false));
+
+        assertThat(index.search("dark knight", 0, 20).videoIds()).hasSize(20);
+    }
+
+    private static void run(String name, Function<Integer, VideoSearchIndex.Hits> query) {
+        for (int i = 0; i < QUERIES / 10; i++) {
+            query.apply(i);
+        }
+        long hits = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            hits += query.apply(i).videoIds().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-12s %d queries in %d ms (%.1f us/query, %d hits)%n",
+                name, QUERIES, elapsed / 1_000_000, elapsed / 1_000.0 / QUERIES, hits);
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.SocialStream.services;
+
+import com.example.SocialStream.enums.VideoFacet;
+import com.example.SocialStream.repositories.VideoCatalogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class VideoSearchIndexTest {
+
+    private final VideoSearchIndex index = newIndex(2);
+
+    @Test
+    void everyQueryWordMustMatchAWordOrTheStartOfOne() {
+        index.indexAll(List.of(
+                video(1, "The Dark Knight", 0),
+                video(2, "Dark City", 0),
+                video(3, "Knight and Day", 0)));
+
+        assertThat(ids("dark")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids("DARK kni")).containsExactly(1L);
+        assertThat(ids("kn da")).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(ids("ark")).isEmpty(); // words, not substrings; the legacy title endpoints keep LIKE
+        assertThat(ids("dark nothing")).isEmpty();
+    }
+
+    @Test
+    void ranksTitleMatchesAboveDescriptionMatchesThenByViews() {
+        index.indexAll(List.of(
+                document(1, "Night Moves", "A heist goes wrong", 1_000, null, null),
+                document(2, "Heist", null, 10, null, null),
+                document(3, "Heist", null, 50, null, null)));
+
+        assertThat(ids("heist")).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void reindexingAVideoReplacesItsPreviousVersion() {
+        index.index(video(1, "Old Title", 0));
+        index.index(video(1, "New Title", 0));
+
+        assertThat(ids("old")).isEmpty();
+        assertThat(index.search("title", 0, 10).total()).isEqualTo(1);
+    }
+
+    @Test
+    void facetCountsIgnoreTheirOwnFilter() {
+        index.indexAll(List.of(
+                document(1, "Space One", null, 0, "Action, Drama", "8.5"),
+                document(2, "Space Two", null, 0, "Action", "6.0"),
+                document(3, "Space Three", null, 0, "Comedy", "8.1")));
+
+        VideoSearchIndex.Hits hits = index.search("space", Map.of(VideoFacet.GENRE, Set.of("action")), 0, 10, false);
+
+        assertThat(hits.videoIds()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(hits.facets().get(VideoFacet.GENRE))
+                .containsExactly(Map.entry("Action", 2), Map.entry("Comedy", 1), Map.entry("Drama", 1));
+        assertThat(hits.facets().get(VideoFacet.RATING))
+                .containsOnly(Map.entry("8-9", 1), Map.entry("6-7", 1));
+    }
+
+    @Test
+    void blankQueryBrowsesAFacetByViewsOnePageAtATime() {
+        for (long id = 1; id <= 25; id++) {
+            index.index(document(id, "Video " + id, null, id * 10, id % 2 == 0 ? "Drama" : "Comedy", null));
+        }
+
+        Map<VideoFacet, Set<String>> drama = Map.of(VideoFacet.GENRE, Set.of("Drama"));
+        VideoSearchIndex.Hits first = index.search("", drama, 0, 5, false);
+        VideoSearchIndex.Hits third = index.search(" ", drama, 2, 5, false);
+
+        assertThat(first.total()).isEqualTo(12);
+        assertThat(first.videoIds()).containsExactly(24L, 22L, 20L, 18L, 16L);
+        assertThat(third.videoIds()).containsExactly(4L, 2L);
+        assertThat(index.search("", Map.of(), 0, 5, false).videoIds()).isEmpty();
+    }
+
+    @Test
+    void pagesOfABroadMatchFollowTheFullRanking() {
+        Random random = new Random(9);
+        for (long id = 1; id <= 500; id++) {
+            // Few distinct view counts, so ties fall through to the video id
+            index.index(document(id, random.nextBoolean() ? "Space Space" : "Space", null, random.nextInt(5), null, null));
+        }
+        List<Long> all = index.search("space", 0, 500).videoIds();
+
+        assertThat(all).hasSize(500).doesNotHaveDuplicates();
+        for (int page = 0; page < 12; page++) {
+            VideoSearchIndex.Hits hits = index.search("space", page, 45);
+            assertThat(hits.total()).isEqualTo(500);
+            assertThat(hits.videoIds()).isEqualTo(all.subList(Math.min(page * 45, 500), Math.min(page * 45 + 45, 500)));
+        }
+        assertThat(index.search("space", Integer.MAX_VALUE, 50).videoIds()).isEmpty();
+    }
+
+    @Test
+    void fuzzySearchToleratesTyposByWordLength() {
+        index.indexAll(List.of(video(1, "The Dark Knight", 0), video(2, "Dark City", 0)));
+
+        assertThat(fuzzyIds("knigth")).containsExactly(1L); // six letters: two edits
+        assertThat(fuzzyIds("durk")).containsExactlyInAnyOrder(1L, 2L); // four letters: one edit
+        assertThat(fuzzyIds("drak")).isEmpty(); // a swap is two edits
+        assertThat(fuzzyIds("dak")).isEmpty(); // three letters or fewer: exact only
+        assertThat(fuzzyIds("durk knigth")).containsExactly(1L);
+        assertThat(ids("knigth")).isEmpty(); // only when asked for
+    }
+
+    @Test
+    void closerSpellingsRankFirstAndExactMatchesSkipFuzzing() {
+        index.indexAll(List.of(
+                video(1, "Gladiator", 0),
+                video(2, "Gladiators", 1_000),
+                video(3, "Matrix", 0),
+                video(4, "Metrix", 0)));
+
+        assertThat(fuzzyIds("gladiatr")).containsExactly(1L, 2L); // one edit beats two, despite the views
+        assertThat(fuzzyIds("matrix")).containsExactly(3L);
+    }
+
+    @Test
+    void maxDistanceZeroTurnsFuzzingOff() {
+        VideoSearchIndex exactOnly = newIndex(0);
+        exactOnly.index(video(1, "The Dark Knight", 0));
+
+        assertThat(exactOnly.search("knigth", 0, 10, true).videoIds()).isEmpty();
+    }
+
+    private static VideoSearchIndex newIndex(int fuzzyMaxDistance) {
+        VideoSearchIndex index = new VideoSearchIndex(mock(VideoCatalogRepository.class), mock(TransactionTemplate.class));
+        ReflectionTestUtils.setField(index, "fuzzyMaxDistance", fuzzyMaxDistance);
+        return index;
+    }
+
+    private List<Long> fuzzyIds(String query) {
+        return index.search(query, 0, 10, true).videoIds();
+    }
+
+    private List<Long> ids(String query) {
+        return index.search(query, 0, 10).videoIds();
+    }
+
+    private static VideoSearchIndex.Document video(long id, String title, long views) {
+        return document(id, title, null, views, null, null);
+    }
+
+    private static VideoSearchIndex.Document document(long id, String title, String description, long views,
+                                                      String genre, String rating) {
+        return new VideoSearchIndex.Document(id, title, null, null, genre, description, views, null,
+                rating == null ? null : new BigDecimal(rating));
+    }
+}
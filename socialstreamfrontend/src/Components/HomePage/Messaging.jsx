@@ -50,8 +50,6 @@ const Messaging = () => {
     sendMessage: sendWebSocketMessage,
     sendTypingIndicator,
     sendReaction,
-    updateMessage,
-    playReactionSound,
     setConversationMessages,
     prependMessages,
     markConversationAsRead,
@@ -299,14 +297,10 @@ const Messaging = () => {
         ? message.recipientId
         : message.senderId;
 
-      // WebSocket first
+      // WebSocket first; counts and our own reaction update when the delta comes back on the reaction queue
       const sent = sendReaction(recipientId, messageId, reactionType);
 
-      if (sent) {
-        // Optimistic update
-        updateMessage(messageId, { reaction: reactionType });
-        playReactionSound();
-      } else {
+      if (!sent) {
         // Fallback to REST
         await messagingService.addReaction(messageId, reactionType);
         if (selectedFriend) {
@@ -617,9 +611,9 @@ const Messaging = () => {
                 ) : (
                   currentMessages.map((message) => {
                     const isOwnMessage = message.senderId === currentUser?.userId;
-                    const reactionDisplay = message.reaction 
-                      ? REACTION_EMOJIS.find(r => r.type === message.reaction)?.display 
-                      : null;
+                    const reactionCounts = REACTION_EMOJIS
+                      .map(r => ({ ...r, count: message.reactionCounts?.[r.type] || 0 }))
+                      .filter(r => r.count > 0);
 
                     return (
                       <motion.div
@@ -684,11 +678,21 @@ const Messaging = () => {
                             </div>
 
                             {/* Reaction Display */}
-                            {reactionDisplay && (
-                              <div className="flex gap-1 mt-1 px-1">
-                                <div className="px-2 py-0.5 rounded-full text-xs flex items-center gap-1 bg-gray-700/50">
-                                  <span>{reactionDisplay}</span>
-                                </div>
+                            {reactionCounts.length > 0 && (
+                              <div className={`flex gap-1 mt-1 px-1 ${isOwnMessage ? 'justify-end' : 'justify-start'}`}>
+                                {reactionCounts.map(reaction => (
+                                  <div
+                                    key={reaction.type}
+                                    className={`px-2 py-0.5 rounded-full text-xs flex items-center gap-1 ${
+                                      message.myReaction === reaction.type
+                                        ? 'bg-green-600/40 border border-green-400/50'
+                                        : 'bg-gray-700/50'
+                                    }`}
+                                  >
+                                    <span>{reaction.display}</span>
+                                    <span>{reaction.count}</span>
+                                  </div>
+                                ))}
                               </div>
                             )}
 
@@ -69,25 +69,16 @@ const NewsFeed = () => {
             uploadDate: formatTimeAgo(post.uploadDate)
           },
           likes: post.likesCount || 0,
-          comments: post.comments?.length || 0,
+          comments: post.commentsCount ?? post.comments?.length ?? 0,
           commentsList: post.comments || []
         }));
         
         setPosts(transformedPosts);
         
-        // Fetch like status for each post
-        const likeStatuses = await Promise.all(
-          transformedPosts.map(post => newsfeedService.getLikeStatus(post.id))
-        );
-        
-        // Update likedPosts set based on fetched statuses
-        const newLikedPosts = new Set();
-        transformedPosts.forEach((post, index) => {
-          if (likeStatuses[index]) {
-            newLikedPosts.add(post.id);
-          }
-        });
-        setLikedPosts(newLikedPosts);
+        // Liked status comes embedded in each feed item
+        setLikedPosts(new Set(
+          friendsPosts.filter(post => post.likedByMe).map(post => post.id)
+        ));
       } catch (err) {
         console.error('Failed to fetch friends posts:', err);
         setError(err.message || 'Failed to load posts');
@@ -310,7 +301,7 @@ const NewsFeed = () => {
           uploadDate: formatTimeAgo(post.uploadDate)
         },
         likes: post.likesCount || 0,
-        comments: post.comments?.length || 0,
+        comments: post.commentsCount ?? post.comments?.length ?? 0,
         commentsList: post.comments || []
       }));
       setPosts(transformedPosts);
@@ -818,7 +809,7 @@ const NewsFeed = () => {
                       uploadDate: formatTimeAgo(post.uploadDate)
                     },
                     likes: post.likesCount || 0,
-                    comments: post.comments?.length || 0,
+                    comments: post.commentsCount ?? post.comments?.length ?? 0,
                     commentsList: post.comments || []
                   }));
                   setPosts(transformedPosts);
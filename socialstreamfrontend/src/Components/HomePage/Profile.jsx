@@ -128,7 +128,7 @@ const Profile = ({ user, onClose }) => {
             uploadDate: formatPostDate(post.uploadDate)
           } : null,
           likes: post.likesCount || 0,
-          comments: post.comments?.length || 0
+          comments: post.commentsCount ?? post.comments?.length ?? 0
         }));
 
         console.log('Transformed posts:', transformedPosts);
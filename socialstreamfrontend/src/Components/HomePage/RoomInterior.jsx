@@ -69,19 +69,35 @@ const RoomInterior = ({ roomId, onLeave }) => {
         text: messageData.message,
         timestamp: new Date(messageData.sentAt),
         avatar: messageData.senderAvatar,
-        reaction: messageData.reaction
+        reactionCounts: messageData.reactionCounts || {},
+        myReaction: messageData.myReaction
       };
       setMessages(prev => [...prev, newMsg]);
     });
 
-    // Register reaction callback
+    // Register reaction callback: apply the count delta, and take the reaction as ours only if we toggled it
     setOnMessageReaction((reactionData) => {
       console.log('Received message reaction:', reactionData);
-      setMessages(prev => prev.map(msg => 
-        msg.id === reactionData.id 
-          ? { ...msg, reaction: reactionData.reaction }
-          : msg
-      ));
+      const { currentUserId } = useRoomStore.getState();
+      setMessages(prev => prev.map(msg => {
+        if (msg.id !== reactionData.id) {
+          return msg;
+        }
+        const reactionCounts = { ...msg.reactionCounts };
+        Object.entries(reactionData.deltas || {}).forEach(([reaction, change]) => {
+          const count = (reactionCounts[reaction] || 0) + change;
+          if (count > 0) {
+            reactionCounts[reaction] = count;
+          } else {
+            delete reactionCounts[reaction];
+          }
+        });
+        return {
+          ...msg,
+          reactionCounts,
+          myReaction: reactionData.userId === currentUserId ? reactionData.reaction : msg.myReaction
+        };
+      }));
     });
     
     return () => {
@@ -224,7 +240,8 @@ const RoomInterior = ({ roomId, onLeave }) => {
         text: msg.message,
         timestamp: new Date(msg.sentAt),
         avatar: msg.senderAvatar,
-        reaction: msg.reaction
+        reactionCounts: msg.reactionCounts || {},
+        myReaction: msg.myReaction
       })).reverse(); // Reverse to show oldest first
       
       setMessages(formattedMessages);
@@ -579,11 +596,19 @@ const RoomInterior = ({ roomId, onLeave }) => {
 
                       {/* Reaction Display & Buttons */}
                       <div className="flex items-center gap-2 mt-2">
-                        {message.reaction && (
-                          <span className="text-lg">
-                            {getReactionEmoji(message.reaction)}
+                        {Object.entries(message.reactionCounts).map(([reaction, count]) => (
+                          <span
+                            key={reaction}
+                            className={`px-2 py-0.5 rounded-full text-xs flex items-center gap-1 ${
+                              message.myReaction === reaction
+                                ? 'bg-green-600/40 border border-green-400/50'
+                                : 'bg-gray-700/50'
+                            }`}
+                          >
+                            <span className="text-sm">{getReactionEmoji(reaction)}</span>
+                            <span className="text-gray-300">{count}</span>
                           </span>
-                        )}
+                        ))}
                         
                         {/* Reaction Buttons - Show on hover */}
                         <div className="flex gap-1 opacity-0 group-hover:opacity-100 transition-opacity">
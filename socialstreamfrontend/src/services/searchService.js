@@ -107,6 +107,29 @@ class SearchService {
     }
   }
 
+  /**
+   * Completions for a partially typed query
+   * @param {string} prefix - Text typed so far
+   * @param {number} limit - Maximum number of suggestions
+   * @returns {Promise<Array>} Array of { text, videoId } suggestions, best first
+   */
+  async autocomplete(prefix, limit = 10) {
+    try {
+      if (!prefix || !prefix.trim()) {
+        return [];
+      }
+
+      const axiosInstance = createAuthAxios();
+      const response = await axiosInstance.get('/api/search/autocomplete', {
+        params: { q: prefix, limit }
+      });
+      return response.data;
+    } catch (error) {
+      console.error('Autocomplete error:', error);
+      return [];
+    }
+  }
+
   /**
    * Global search across multiple entities (videos, rooms, users)
    * @param {string} query - Search query
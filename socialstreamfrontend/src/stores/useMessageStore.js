@@ -61,6 +61,38 @@ const useMessageStore = create((set, get) => ({
     return { conversations, unreadConversations };
   }),
 
+  // Apply a reaction count delta; the viewer's own reaction only changes when the viewer toggled
+  applyReactionDelta: (delta) => set((state) => {
+    const conversations = new Map(state.conversations);
+
+    for (const [conversationId, messages] of conversations.entries()) {
+      const messageIndex = messages.findIndex(m => m.id === delta.id);
+      if (messageIndex !== -1) {
+        const message = messages[messageIndex];
+        const reactionCounts = { ...(message.reactionCounts || {}) };
+        Object.entries(delta.deltas || {}).forEach(([reaction, change]) => {
+          const count = (reactionCounts[reaction] || 0) + change;
+          if (count > 0) {
+            reactionCounts[reaction] = count;
+          } else {
+            delete reactionCounts[reaction];
+          }
+        });
+
+        const updatedMessages = [...messages];
+        updatedMessages[messageIndex] = {
+          ...message,
+          reactionCounts,
+          myReaction: delta.userId === state.currentUserId ? delta.reaction : message.myReaction
+        };
+        conversations.set(conversationId, updatedMessages);
+        break;
+      }
+    }
+
+    return { conversations };
+  }),
+
   // Update message (for reactions)
   updateMessage: (messageId, updatedMessage) => set((state) => {
     const conversations = new Map(state.conversations);
@@ -240,7 +272,7 @@ const useMessageStore = create((set, get) => ({
         try {
           const messageData = JSON.parse(message.body);
           console.log('\u2764\uFE0F Reaction update received:', messageData);
-          get().updateMessage(messageData.id, messageData);
+          get().applyReactionDelta(messageData);
           get().playReactionSound();
         } catch (error) {
           console.error('Error processing reaction update:', error);